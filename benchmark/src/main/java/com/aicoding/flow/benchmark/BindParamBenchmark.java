@@ -0,0 +1,180 @@
+package com.aicoding.flow.benchmark;
+
+import cn.hutool.core.util.ReUtil;
+import com.aicoding.flow.App;
+import com.aicoding.flow.graph.GraphService;
+import com.aicoding.flow.graph.NodeDslFactory;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.node.dsl.CommonNodeDsl;
+import com.aicoding.flow.node.dsl.HttpNodeDsl;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.aicoding.flow.workflow.WorkflowService;
+import com.aicoding.flow.workflow.model.InputParam;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yomahub.liteflow.util.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点绑定参数的获取开销
+ * <p>
+ * parse/lookup对比单个http节点参数每次反序列化与按tag从缓存读取；
+ * run执行depth个条件节点串联的链路，bindCache为false时每个节点每次执行都反序列化参数，
+ * 两者之差除以节点数即为每个节点省掉的开销
+ *
+ * @author gaoll
+ * @time 2025/6/23 11:00
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BindParamBenchmark {
+
+    /**
+     * 与LiteFlow NodeComponent.getBindData中的判断一致
+     */
+    private static final String CONTEXT_PATTERN = "^\\$\\{(.*?)\\}$";
+
+    @State(Scope.Benchmark)
+    public static class NodeParam {
+
+        private String json;
+
+        private final Map<String, Object> cache = new ConcurrentHashMap<>();
+
+        private final String tag = "1747878290364";
+
+        @Setup(Level.Trial)
+        public void setup() {
+            GraphModel.WorkNode node = new GraphModel.WorkNode();
+            node.setId(tag);
+            node.setTitle("查询订单");
+            node.setType("http-request");
+            GraphModel.WorkNodeData data = new GraphModel.WorkNodeData();
+            data.setMethod("post");
+            data.setUrl("http://order/{{#1747878290000.userId#}}/list");
+            data.setRequestBody("{\"userId\":\"{{#1747878290000.userId#}}\",\"page\":1,\"size\":20}");
+            GraphModel.InputVariable param = new GraphModel.InputVariable();
+            param.setVariable("token");
+            param.setValue("{{#1747878290000.token#}}");
+            data.setParams(Collections.singletonList(param));
+            node.setData(data);
+            CommonNodeDsl dsl = NodeDslFactory.create(node);
+            json = NodeDslFactory.toJson(dsl);
+            cache.put(tag, dsl);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Chain {
+
+        @Param({"true", "false"})
+        private boolean bindCache;
+
+        @Param({"12"})
+        private int depth;
+
+        private ConfigurableApplicationContext context;
+
+        private WorkflowService workflowService;
+
+        private String chainId;
+
+        private List<InputParam> inputs;
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            context = new SpringApplicationBuilder(App.class)
+                    .web(WebApplicationType.NONE)
+                    .bannerMode(Banner.Mode.OFF)
+                    .run("--workflow.bind-cache.enabled=" + bindCache);
+            workflowService = context.getBean(WorkflowService.class);
+            GraphModel graph = new ObjectMapper().readValue(routers(depth), GraphModel.class);
+            chainId = context.getBean(GraphService.class).compile(graph).getChainId();
+            InputParam input = new InputParam();
+            input.setName("n");
+            input.setValue(100);
+            inputs = Collections.singletonList(input);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public HttpNodeDsl parse(NodeParam param) {
+        if (ReUtil.isMatch(CONTEXT_PATTERN, param.json)) {
+            return null;
+        }
+        return JsonUtil.parseObject(param.json, HttpNodeDsl.class);
+    }
+
+    @Benchmark
+    public HttpNodeDsl lookup(NodeParam param) {
+        Object cached = param.cache.get(param.tag);
+        return HttpNodeDsl.class.isInstance(cached) ? HttpNodeDsl.class.cast(cached) : null;
+    }
+
+    @Benchmark
+    public FlowContextWrapper run(Chain chain) {
+        return chain.workflowService.execute(chain.chainId, chain.inputs);
+    }
+
+    /**
+     * 开始 -> depth个条件节点逐层嵌套（每个条件三项and）-> 回复
+     */
+    static String routers(int depth) {
+        StringBuilder nodes = new StringBuilder("{\"nodes\":[{\"id\":\"s\",\"type\":\"start\",\"data\":{\"variables\":"
+                + "[{\"variable\":\"n\",\"type\":\"number\",\"required\":true}]}}");
+        StringBuilder edges = new StringBuilder("],\"edges\":[");
+        String previous = "s";
+        String handle = "source";
+        for (int i = 0; i < depth; i++) {
+            String id = "c" + i;
+            nodes.append(",{\"id\":\"").append(id).append("\",\"type\":\"if-else\",\"data\":{\"cases\":[{\"caseId\":\"hit\","
+                    + "\"logicalOperator\":\"and\",\"conditions\":[")
+                    .append(condition(">", String.valueOf(i))).append(',')
+                    .append(condition("≤", "1000")).append(',')
+                    .append(condition("!=", "-1")).append("]}]}}");
+            edges.append(i == 0 ? "" : ",").append(edge(previous, handle, id));
+            previous = id;
+            handle = "hit";
+        }
+        nodes.append(",{\"id\":\"a\",\"type\":\"answer\",\"data\":{\"answer\":\"n={{#s.n#}}\"}}");
+        edges.append(",").append(edge(previous, handle, "a")).append("]}");
+        return nodes.append(edges).toString();
+    }
+
+    private static String condition(String operator, String value) {
+        return "{\"comparisonOperator\":\"" + operator + "\",\"varType\":\"number\",\"variableSelector\":[\"s\",\"n\"],\"value\":\"" + value + "\"}";
+    }
+
+    private static String edge(String source, String handle, String target) {
+        return "{\"source\":\"" + source + "\",\"sourceHandle\":\"" + handle + "\",\"target\":\"" + target + "\",\"targetHandle\":\"target\"}";
+    }
+}
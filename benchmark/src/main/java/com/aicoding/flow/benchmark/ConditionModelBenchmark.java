@@ -0,0 +1,85 @@
+package com.aicoding.flow.benchmark;
+
+import com.aicoding.flow.node.condition.ConditionPredicate;
+import com.aicoding.flow.node.condition.ConditionPredicates;
+import com.aicoding.flow.node.model.ConditionModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个条件求值，左侧为已读取的变量值，右侧常量在编译时解析
+ *
+ * @author gaoll
+ * @time 2025/6/12 14:30
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionModelBenchmark {
+
+    private ConditionPredicate integerGreater;
+
+    private ConditionPredicate decimalEquals;
+
+    private ConditionPredicate stringContains;
+
+    private ConditionPredicate notEmpty;
+
+    private Object integerLeft = 42;
+
+    private Object decimalLeft = "3.1400";
+
+    private Object stringLeft = "json-to-liteflow benchmark";
+
+    private Object notEmptyLeft = "value";
+
+    @Setup
+    public void setup() {
+        integerGreater = predicate("number", ">", "7");
+        decimalEquals = predicate("number", "=", "3.14");
+        stringContains = predicate("string", "contains", "liteflow");
+        notEmpty = predicate("string", "not empty", null);
+    }
+
+    @Benchmark
+    public boolean integerGreater() {
+        return integerGreater.test(integerLeft, null);
+    }
+
+    @Benchmark
+    public boolean decimalEquals() {
+        return decimalEquals.test(decimalLeft, null);
+    }
+
+    @Benchmark
+    public boolean stringContains() {
+        return stringContains.test(stringLeft, null);
+    }
+
+    @Benchmark
+    public boolean notEmpty() {
+        return notEmpty.test(notEmptyLeft, null);
+    }
+
+    private static ConditionPredicate predicate(String dataType, String operation, String right) {
+        ConditionModel condition = new ConditionModel();
+        condition.setDataType(dataType);
+        condition.setOperation(operation);
+        condition.setRightVarType("constant");
+        condition.setRightValueSelector(right);
+        return ConditionPredicates.compile(condition);
+    }
+}
@@ -0,0 +1,65 @@
+package com.aicoding.flow.benchmark;
+
+import com.aicoding.flow.graph.ElCompiler;
+import com.aicoding.flow.graph.GraphDigest;
+import com.aicoding.flow.graph.GraphModelReader;
+import com.aicoding.flow.graph.model.GraphModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流程图解析、摘要和EL编译，不经过缓存和LiteFlow注册
+ *
+ * @author gaoll
+ * @time 2025/6/12 11:05
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphCompileBenchmark {
+
+    @Param({"LINEAR", "FAN", "NESTED_IF", "LOOP", "ITERATION"})
+    private GraphGenerator.Shape shape;
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private GraphModel graph;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        graph = GraphGenerator.generate(shape, size);
+        json = GraphGenerator.toJson(graph);
+    }
+
+    @Benchmark
+    public GraphModel read() {
+        return GraphModelReader.read(json);
+    }
+
+    @Benchmark
+    public String digest() {
+        return GraphDigest.digest(graph);
+    }
+
+    @Benchmark
+    public String compile() {
+        return ElCompiler.compile(graph).getEl();
+    }
+}
@@ -0,0 +1,274 @@
+package com.aicoding.flow.benchmark;
+
+import com.aicoding.flow.constants.NodeTypeConstant;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 合成流程图，节点数量由size控制
+ *
+ * @author gaoll
+ * @time 2025/6/12 10:20
+ **/
+public class GraphGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .addMixIn(GraphModel.EdgeModel.class, EdgeModelMixIn.class)
+            .addMixIn(GraphModel.EdgeData.class, EdgeDataMixIn.class)
+            .addMixIn(GraphModel.BreakCondition.class, BreakConditionMixIn.class);
+
+    public enum Shape {
+        /**
+         * 开始 -> n个节点串行 -> 结束
+         */
+        LINEAR,
+        /**
+         * 开始 -> n个节点并行 -> 汇聚 -> 结束
+         */
+        FAN,
+        /**
+         * 条件分支逐层嵌套，每层true分支进入下一层，false分支执行一个节点后汇聚，每组最多嵌套16层
+         */
+        NESTED_IF,
+        /**
+         * 多个循环串行，每个循环体内若干节点
+         */
+        LOOP,
+        /**
+         * 多个迭代串行，每个迭代体内若干节点
+         */
+        ITERATION
+    }
+
+    /**
+     * LiteFlow的EL解析器递归下降，IF嵌套超过20余层会栈溢出，超过该深度时分成多组串行
+     */
+    private static final int MAX_IF_DEPTH = 16;
+
+    private final List<GraphModel.WorkNode> nodes = new ArrayList<>();
+    private final List<GraphModel.EdgeModel> edges = new ArrayList<>();
+
+    public static GraphModel generate(Shape shape, int size) {
+        GraphGenerator generator = new GraphGenerator();
+        switch (shape) {
+            case LINEAR:
+                generator.linear(size);
+                break;
+            case FAN:
+                generator.fan(size);
+                break;
+            case NESTED_IF:
+                generator.nestedIf(size);
+                break;
+            case LOOP:
+                generator.scoped(size, NodeTypeConstant.LOOP, NodeTypeConstant.LOOP_START);
+                break;
+            default:
+                generator.scoped(size, "iteration", "iteration-start");
+                break;
+        }
+        GraphModel graph = new GraphModel();
+        graph.setNodes(generator.nodes);
+        graph.setEdges(generator.edges);
+        return graph;
+    }
+
+    /**
+     * 前端格式的JSON，用于测量解析
+     */
+    public static String toJson(GraphModel graph) {
+        try {
+            return MAPPER.writeValueAsString(graph);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("流程图序列化失败", e);
+        }
+    }
+
+    private void linear(int size) {
+        String prev = node("start", NodeTypeConstant.START, null).getId();
+        for (int i = 0; i < size; i++) {
+            prev = chain(prev, codeNode("code" + i, null), null);
+        }
+        chain(prev, answerNode("end"), null);
+    }
+
+    private void fan(int size) {
+        node("start", NodeTypeConstant.START, null);
+        codeNode("join", null);
+        for (int i = 0; i < size; i++) {
+            GraphModel.WorkNode http = httpNode("http" + i);
+            edge("start", "source", http.getId(), null);
+            edge(http.getId(), "source", "join", null);
+        }
+        chain("join", answerNode("end"), null);
+    }
+
+    private void nestedIf(int size) {
+        int count = Math.max(1, size / 3);
+        String prev = node("start", NodeTypeConstant.START, null).getId();
+        for (int group = 0; group * MAX_IF_DEPTH < count; group++) {
+            int from = group * MAX_IF_DEPTH;
+            prev = nestedIf(prev, from, Math.min(count, from + MAX_IF_DEPTH));
+        }
+        chain(prev, answerNode("end"), null);
+    }
+
+    /**
+     * 第from到to层逐层嵌套，返回最外层的汇聚节点
+     */
+    private String nestedIf(String prev, int from, int to) {
+        List<String> merges = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            GraphModel.WorkNode ifNode = ifNode("if" + i);
+            edge(prev, "source", ifNode.getId(), null);
+            GraphModel.WorkNode other = codeNode("else" + i, null);
+            edge(ifNode.getId(), NodeTypeConstant.ELSE_HANDLE, other.getId(), null);
+            GraphModel.WorkNode merge = codeNode("merge" + i, null);
+            edge(other.getId(), "source", merge.getId(), null);
+            merges.add(merge.getId());
+            GraphModel.WorkNode code = codeNode("code" + i, null);
+            edge(ifNode.getId(), "true", code.getId(), null);
+            prev = code.getId();
+        }
+        //最内层回到最内层的汇聚节点，逐层向外汇聚
+        for (int i = merges.size() - 1; i >= 0; i--) {
+            edge(prev, "source", merges.get(i), null);
+            prev = merges.get(i);
+        }
+        return prev;
+    }
+
+    private void scoped(int size, String type, String startType) {
+        int bodySize = Math.max(1, (int) Math.sqrt(size));
+        int count = Math.max(1, size / (bodySize + 2));
+        String prev = node("start", NodeTypeConstant.START, null).getId();
+        for (int i = 0; i < count; i++) {
+            String scopeId = type + i;
+            GraphModel.WorkNode scope = node(scopeId, type, null);
+            scope.getData().setStartNodeId(scopeId + "start");
+            scope.getData().setLoopCount(10);
+            if (NodeTypeConstant.LOOP.equals(type)) {
+                scope.getData().setBreakConditions(Collections.singletonList(
+                        condition(scopeId + "body0", "count", "≥", "5")));
+            }
+            edge(prev, "source", scopeId, null);
+            String bodyPrev = node(scopeId + "start", startType, scopeId).getId();
+            for (int j = 0; j < bodySize; j++) {
+                bodyPrev = chain(bodyPrev, codeNode(scopeId + "body" + j, scopeId), scope);
+            }
+            prev = scopeId;
+        }
+        chain(prev, answerNode("end"), null);
+    }
+
+    private String chain(String prev, GraphModel.WorkNode next, GraphModel.WorkNode scope) {
+        edge(prev, "source", next.getId(), scope);
+        return next.getId();
+    }
+
+    private GraphModel.WorkNode node(String id, String type, String parentId) {
+        GraphModel.WorkNode node = new GraphModel.WorkNode();
+        node.setId(id);
+        node.setType(type);
+        node.setTitle(id);
+        node.setParentId(parentId);
+        GraphModel.WorkNodeData data = new GraphModel.WorkNodeData();
+        data.setType(type);
+        data.setTitle(id);
+        node.setData(data);
+        nodes.add(node);
+        return node;
+    }
+
+    private GraphModel.WorkNode codeNode(String id, String parentId) {
+        GraphModel.WorkNode node = node(id, NodeTypeConstant.CODE, parentId);
+        GraphModel.InputVariable variable = new GraphModel.InputVariable();
+        variable.setVariable("input");
+        variable.setValue("{{#start.query#}}");
+        node.getData().setVariables(Collections.singletonList(variable));
+        return node;
+    }
+
+    private GraphModel.WorkNode httpNode(String id) {
+        GraphModel.WorkNode node = node(id, NodeTypeConstant.HTTP_REQUEST, null);
+        node.getData().setUrl("http://localhost/api/" + id + "?q={{#start.query#}}");
+        node.getData().setMethod("get");
+        return node;
+    }
+
+    private GraphModel.WorkNode answerNode(String id) {
+        GraphModel.WorkNode node = node(id, NodeTypeConstant.ANSWER, null);
+        node.getData().setAnswer("结果：{{#start.query#}}");
+        return node;
+    }
+
+    private GraphModel.WorkNode ifNode(String id) {
+        GraphModel.WorkNode node = node(id, NodeTypeConstant.IF_ELSE, null);
+        GraphModel.ConditionCase conditionCase = new GraphModel.ConditionCase();
+        conditionCase.setCaseId("true");
+        conditionCase.setId("true");
+        conditionCase.setLogicalOperator("and");
+        conditionCase.setConditions(Arrays.asList(
+                condition("start", "count", ">", "3"),
+                condition("start", "query", "contains", "a")));
+        node.getData().setCases(Collections.singletonList(conditionCase));
+        return node;
+    }
+
+    private static GraphModel.BreakCondition condition(String nodeId, String field, String operator, String value) {
+        GraphModel.BreakCondition condition = new GraphModel.BreakCondition();
+        condition.setId(nodeId + field);
+        condition.setComparisonOperator(operator);
+        condition.setValue(value);
+        condition.setVarType("contains".equals(operator) ? "string" : "number");
+        condition.setVariableSelector(Arrays.asList(nodeId, field));
+        return condition;
+    }
+
+    private void edge(String source, String sourceHandle, String target, GraphModel.WorkNode scope) {
+        GraphModel.EdgeModel edge = new GraphModel.EdgeModel();
+        edge.setId(source + "-" + sourceHandle + "-" + target);
+        edge.setSource(source);
+        edge.setSourceHandle(sourceHandle);
+        edge.setTarget(target);
+        edge.setTargetHandle("target");
+        edge.setType("custom");
+        GraphModel.EdgeData data = new GraphModel.EdgeData();
+        if (scope != null) {
+            data.setLoopId(scope.getId());
+            data.setInLoop(NodeTypeConstant.LOOP.equals(scope.getType()));
+            data.setInIteration(!data.isInLoop());
+        }
+        edge.setData(data);
+        edges.add(edge);
+    }
+
+    private abstract static class EdgeModelMixIn {
+        @JsonIgnore
+        abstract String getSourceId();
+
+        @JsonIgnore
+        abstract String getTargetId();
+    }
+
+    private abstract static class EdgeDataMixIn {
+        @JsonProperty("isInLoop")
+        abstract boolean isInLoop();
+
+        @JsonProperty("isInIteration")
+        abstract boolean isInIteration();
+    }
+
+    private abstract static class BreakConditionMixIn {
+        @JsonIgnore
+        abstract String getVariableSelectorString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.aicoding.flow.benchmark;
+
+import com.aicoding.flow.App;
+import com.aicoding.flow.graph.GraphService;
+import com.aicoding.flow.graph.model.GraphModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GraphService.createEl端到端：解析、摘要、编译、注册LiteFlow链路
+ * <p>
+ * createEl每次修改开始节点标题，摘要不同，必定编译；createElCached为缓存命中
+ *
+ * @author gaoll
+ * @time 2025/6/12 11:30
+ **/
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Context {
+
+        private ConfigurableApplicationContext context;
+
+        private GraphService graphService;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = new SpringApplicationBuilder(App.class)
+                    .web(WebApplicationType.NONE)
+                    .bannerMode(Banner.Mode.OFF)
+                    .run("--workflow.el-cache.max-size=64");
+            graphService = context.getBean(GraphService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Graph {
+
+        @Param({"LINEAR", "FAN", "NESTED_IF", "LOOP", "ITERATION"})
+        private GraphGenerator.Shape shape;
+
+        @Param({"100", "1000"})
+        private int size;
+
+        private GraphModel graph;
+
+        private GraphModel.WorkNode start;
+
+        private long version;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            graph = GraphGenerator.generate(shape, size);
+            start = graph.getNodes().get(0);
+        }
+
+        GraphModel next() {
+            start.setTitle(Thread.currentThread().getName() + "-" + version++);
+            return graph;
+        }
+    }
+
+    @Benchmark
+    public String createEl(Context context, Graph graph) {
+        return context.graphService.createEl(graph.next());
+    }
+
+    @Benchmark
+    public String createElCached(Context context, Graph graph) {
+        return context.graphService.createEl(graph.graph);
+    }
+}
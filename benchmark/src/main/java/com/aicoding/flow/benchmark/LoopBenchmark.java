@@ -0,0 +1,98 @@
+package com.aicoding.flow.benchmark;
+
+import com.aicoding.flow.App;
+import com.aicoding.flow.graph.GraphService;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.aicoding.flow.workflow.WorkflowService;
+import com.aicoding.flow.workflow.model.InputParam;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 循环执行开销，循环体为空，每轮执行循环判断、空节点和终止条件三个组件
+ * <p>
+ * 终止条件为 轮次 ≥ 循环变量limit，rounds即每次执行的轮数；不同rounds的耗时和gc.alloc.rate.norm之差除以轮数差，
+ * 即每轮的耗时和分配量。关闭了LiteFlow的组件执行日志，只统计执行本身
+ *
+ * @author gaoll
+ * @time 2025/6/27 15:00
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoopBenchmark {
+
+    @Param({"1000", "30000"})
+    private int rounds;
+
+    private ConfigurableApplicationContext context;
+
+    private WorkflowService workflowService;
+
+    private String chainId;
+
+    private List<InputParam> inputs;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(App.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--liteflow.print-execution-log=false");
+        workflowService = context.getBean(WorkflowService.class);
+        GraphModel graph = new ObjectMapper().readValue(countingLoop(rounds), GraphModel.class);
+        chainId = context.getBean(GraphService.class).compile(graph).getChainId();
+        InputParam input = new InputParam();
+        input.setName("q");
+        input.setValue("hello");
+        inputs = Collections.singletonList(input);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public FlowContextWrapper run() {
+        return workflowService.execute(chainId, inputs);
+    }
+
+    /**
+     * 开始 -> 循环（轮次达到limit时结束） -> 回复
+     */
+    static String countingLoop(int rounds) {
+        return "{\"nodes\":["
+                + "{\"id\":\"s\",\"type\":\"start\",\"data\":{\"variables\":[{\"variable\":\"q\",\"required\":true}]}},"
+                + "{\"id\":\"L\",\"type\":\"loop\",\"data\":{\"loopCount\":" + (rounds + 1) + ",\"startNodeId\":\"ls\",\"logicalOperator\":\"and\","
+                + "\"loopVariables\":[{\"id\":\"v\",\"label\":\"limit\",\"value\":\"" + rounds + "\",\"valueType\":\"constant\"}],"
+                + "\"breakConditions\":[{\"id\":\"b\",\"variableSelector\":[\"L\",\"index\"],\"comparisonOperator\":\"≥\",\"value\":\"{{#L.limit#}}\",\"varType\":\"number\"}]}},"
+                + "{\"id\":\"ls\",\"type\":\"loop-start\",\"parentId\":\"L\",\"data\":{}},"
+                + "{\"id\":\"a\",\"type\":\"answer\",\"data\":{\"answer\":\"{{#s.q#}} {{#L.index#}}\"}}],"
+                + "\"edges\":[{\"source\":\"s\",\"target\":\"L\"},{\"source\":\"L\",\"target\":\"a\"}]}";
+    }
+}
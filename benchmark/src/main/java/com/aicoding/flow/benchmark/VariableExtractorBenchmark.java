@@ -0,0 +1,55 @@
+package com.aicoding.flow.benchmark;
+
+import com.aicoding.flow.utils.VariableExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回复模板拆分
+ *
+ * @author gaoll
+ * @time 2025/6/12 14:10
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableExtractorBenchmark {
+
+    /**
+     * 模板中变量的个数
+     */
+    @Param({"0", "1", "20"})
+    private int selectors;
+
+    private String template;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder("你好，以下是查询结果：\n");
+        for (int i = 0; i < selectors; i++) {
+            builder.append("第").append(i).append("项：{{#17478782903").append(i).append(".name#}}\n");
+        }
+        builder.append("以上内容仅供参考。");
+        template = builder.toString();
+    }
+
+    @Benchmark
+    public List<VariableExtractor.RespModel> extractorResp() {
+        return VariableExtractor.extractorResp(template);
+    }
+}
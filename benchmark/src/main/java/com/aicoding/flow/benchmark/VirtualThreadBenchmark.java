@@ -0,0 +1,175 @@
+package com.aicoding.flow.benchmark;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.aicoding.flow.App;
+import com.aicoding.flow.graph.GraphService;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.workflow.WorkflowService;
+import com.aicoding.flow.workflow.model.InputParam;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程与平台线程执行模式对比
+ * <p>
+ * 每次操作同时发起runs个流程，由requestThreads个平台线程模拟Tomcat请求线程提交；
+ * 流程为开始 -> 两个并行的等待节点（分支中的等待节点不挂起，在线程上阻塞ioMs，模拟阻塞IO） -> 回复。
+ * 平台线程模式下流程在请求线程中执行，WHEN分支在固定大小的线程池中执行；虚拟线程模式下两者都是虚拟线程。
+ * 操作耗时即runs个流程全部完成的时间，每轮结束时输出吞吐量和单个流程耗时（从提交到完成）的p50/p99。
+ * virtual=true需要JDK21以上，低版本JDK退回平台线程
+ *
+ * @author gaoll
+ * @time 2025/6/26 11:00
+ **/
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Runs {
+
+        @Param({"false", "true"})
+        private boolean virtual;
+
+        @Param({"10000"})
+        private int runs;
+
+        @Param({"20"})
+        private long ioMs;
+
+        @Param({"200"})
+        private int requestThreads;
+
+        private ConfigurableApplicationContext context;
+
+        private WorkflowService workflowService;
+
+        private ExecutorService requestPool;
+
+        private String chainId;
+
+        private List<InputParam> inputs;
+
+        private long[] latencies;
+
+        private long startNanos;
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            context = new SpringApplicationBuilder(App.class)
+                    .web(WebApplicationType.NONE)
+                    .bannerMode(Banner.Mode.OFF)
+                    .run("--workflow.virtual-threads.enabled=" + virtual);
+            workflowService = context.getBean(WorkflowService.class);
+            GraphModel graph = new ObjectMapper().readValue(parallelSleeps(ioMs), GraphModel.class);
+            chainId = context.getBean(GraphService.class).compile(graph).getChainId();
+            InputParam input = new InputParam();
+            input.setName("q");
+            input.setValue("hello");
+            inputs = Collections.singletonList(input);
+            requestPool = ExecutorBuilder.create()
+                    .setCorePoolSize(requestThreads)
+                    .setMaxPoolSize(requestThreads)
+                    .setWorkQueue(new LinkedBlockingQueue<>())
+                    .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("request-").build())
+                    .build();
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            latencies = new long[runs];
+            startNanos = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            long elapsed = System.nanoTime() - startNanos;
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%n  virtual=%s runs=%d throughput=%.0f runs/s p50=%.1fms p99=%.1fms%n", virtual, runs,
+                    runs * 1e9 / elapsed, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            requestPool.shutdown();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int run(Runs state) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(state.runs);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < state.runs; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            state.requestPool.execute(() -> {
+                try {
+                    state.workflowService.executeAsync(state.chainId, state.inputs).whenComplete((context, e) -> {
+                        if (e != null) {
+                            failed.incrementAndGet();
+                        }
+                        state.latencies[index] = System.nanoTime() - submitted;
+                        done.countDown();
+                    });
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        if (failed.get() > 0) {
+            throw new IllegalStateException(failed.get() + " runs failed");
+        }
+        return state.runs;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    /**
+     * 开始 -> 两个并行的等待节点 -> 回复
+     */
+    static String parallelSleeps(long ioMs) {
+        return "{\"nodes\":["
+                + "{\"id\":\"s\",\"type\":\"start\",\"data\":{\"variables\":[{\"variable\":\"q\",\"required\":true}]}},"
+                + "{\"id\":\"io1\",\"type\":\"sleep\",\"data\":{\"delayMs\":" + ioMs + "}},"
+                + "{\"id\":\"io2\",\"type\":\"sleep\",\"data\":{\"delayMs\":" + ioMs + "}},"
+                + "{\"id\":\"a\",\"type\":\"answer\",\"data\":{\"answer\":\"{{#s.q#}}\"}}],"
+                + "\"edges\":["
+                + "{\"source\":\"s\",\"target\":\"io1\"},{\"source\":\"s\",\"target\":\"io2\"},"
+                + "{\"source\":\"io1\",\"target\":\"a\"},{\"source\":\"io2\",\"target\":\"a\"}]}";
+    }
+}
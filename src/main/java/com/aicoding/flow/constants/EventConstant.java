@@ -0,0 +1,20 @@
+package com.aicoding.flow.constants;
+
+/**
+ * 流式输出的事件类型
+ * @author gaoll
+ * @time 2025/6/20 9:30
+ **/
+public class EventConstant {
+
+    /**
+     * 回复内容，流式输出时为一段增量文本
+     */
+    public static final String MESSAGE="message";
+
+    public static final String NODE_FINISHED="node_finished";
+
+    public static final String WORKFLOW_FINISHED="workflow_finished";
+
+    public static final String ERROR="error";
+}
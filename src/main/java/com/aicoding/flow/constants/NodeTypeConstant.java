@@ -0,0 +1,34 @@
+package com.aicoding.flow.constants;
+
+/**
+ * 前端画布中的节点类型
+ * @author gaoll
+ * @time 2025/6/4 9:40
+ **/
+public class NodeTypeConstant {
+
+    public static final String START="start";
+    public static final String END="end";
+    public static final String ANSWER="answer";
+    public static final String IF_ELSE="if-else";
+    public static final String HTTP_REQUEST="http-request";
+    public static final String CODE="code";
+    public static final String JSON_EXTRACT="json-extract";
+    public static final String SLEEP="sleep";
+    public static final String LOOP="loop";
+    public static final String LOOP_START="loop-start";
+    /**
+     * 迭代节点，暂不支持转换为EL
+     */
+    public static final String ITERATION="iteration";
+
+    /**
+     * 条件节点的分支，由节点ID和分支句柄组成，非画布节点
+     */
+    public static final String CASE="case";
+
+    /**
+     * 条件节点else分支的句柄
+     */
+    public static final String ELSE_HANDLE="false";
+}
@@ -7,4 +7,16 @@ package com.aicoding.flow.constants;
 public class OperatorConstant {
 
     public static final String AND="and";
+    public static final String OR="or";
+
+    public static final String EMPTY="empty";
+    public static final String NOT_EMPTY="not empty";
+    public static final String EQ="=";
+    public static final String NE="!=";
+    public static final String GE="≥";
+    public static final String LE="≤";
+    public static final String LT="<";
+    public static final String GT=">";
+    public static final String CONTAINS="contains";
+    public static final String NOT_CONTAINS="!contains";
 }
@@ -15,4 +15,13 @@ public class VarConstant {
 
     public static final String SELECTOR_OBJECT="__object";
 
+    public static final String NUMBER="number";
+    public static final String STRING="string";
+    public static final String BOOLEAN="boolean";
+
+    /**
+     * 循环节点输出的当前轮次，从0开始
+     */
+    public static final String LOOP_INDEX="index";
+
 }
@@ -1,12 +1,37 @@
 package com.aicoding.flow.controller;
 
+import cn.hutool.json.JSONUtil;
+import com.aicoding.flow.graph.BatchCompileService;
 import com.aicoding.flow.graph.GraphService;
+import com.aicoding.flow.graph.model.CompiledChain;
+import com.aicoding.flow.graph.model.GraphDelta;
 import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.node.condition.ConditionEvaluator;
+import com.aicoding.flow.node.http.HttpResponseCache;
+import com.aicoding.flow.node.model.ConditionStat;
+import com.aicoding.flow.node.model.HttpCacheStat;
+import com.aicoding.flow.workflow.MessageStream;
+import com.aicoding.flow.workflow.WorkflowService;
+import com.aicoding.flow.workflow.model.InputParam;
+import com.aicoding.flow.workflow.model.MessageModel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * @author gaoll
@@ -20,10 +45,125 @@ public class WorkflowController {
     @Autowired
     private GraphService graphService;
 
+    @Autowired
+    private BatchCompileService batchCompileService;
+
+    @Autowired
+    private WorkflowService workflowService;
+
+    @Autowired
+    private ConditionEvaluator conditionEvaluator;
+
+    @Autowired
+    private HttpResponseCache httpResponseCache;
+
+    @Value("${workflow.batch.timeout-ms:600000}")
+    private long batchTimeout;
+
+    @Value("${workflow.stream.timeout-ms:600000}")
+    private long streamTimeout;
+
+    @Value("${workflow.run.timeout-ms:600000}")
+    private long runTimeout;
+
 
     @PostMapping("/toEl")
     public String toEl(@RequestBody GraphModel model) {
         return graphService.createEl(model);
     }
-}
 
+    /**
+     * 编译并返回链路信息，链路ID用于执行
+     */
+    @PostMapping("/compile")
+    public CompiledChain compile(@RequestBody GraphModel model) {
+        return graphService.compile(model);
+    }
+
+    /**
+     * 批量编译，请求体为流程图数组，每个图编译完成后立即按行返回结果（NDJSON）
+     */
+    @PostMapping("/toEl/batch")
+    public ResponseBodyEmitter toElBatch(HttpServletRequest request) throws IOException {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeout);
+        batchCompileService.compile(request.getInputStream(), result -> {
+            try {
+                emitter.send(JSONUtil.toJsonStr(result) + "\n", MediaType.APPLICATION_NDJSON);
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        }).whenComplete((v, e) -> {
+            if (e != null) {
+                emitter.completeWithError(e);
+            } else {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * 增量编译，返回新的摘要供下一次增量编译使用
+     */
+    @PostMapping("/toEl/incremental")
+    public CompiledChain toElIncremental(@RequestBody GraphDelta delta) {
+        return graphService.recompile(delta);
+    }
+
+    /**
+     * 执行已编译的流程，返回回复节点的消息，流程在等待节点挂起期间不占用请求线程
+     */
+    @PostMapping("/run/{chainId}")
+    public DeferredResult<List<MessageModel>> run(@PathVariable String chainId, @RequestBody List<InputParam> userInputs) {
+        DeferredResult<List<MessageModel>> result = new DeferredResult<>(runTimeout);
+        workflowService.executeAsync(chainId, userInputs).whenComplete((contextWrapper, e) -> {
+            if (e != null) {
+                result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else {
+                result.setResult(contextWrapper.getMessages());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 流式执行，通过SSE按产生顺序推送节点完成事件和回复内容，事件名为消息的event
+     */
+    @PostMapping(value = "/run/{chainId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter runStream(@PathVariable String chainId, @RequestBody List<InputParam> userInputs) {
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        MessageStream stream = workflowService.stream(chainId, userInputs, message -> {
+            try {
+                emitter.send(SseEmitter.event().name(message.getEvent()).data(message, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new RuntimeException("流式输出发送失败", e);
+            }
+        });
+        emitter.onTimeout(stream::cancel);
+        emitter.onError(e -> stream.cancel());
+        stream.getDone().whenComplete((v, e) -> {
+            if (e != null) {
+                emitter.completeWithError(e);
+            } else {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * 条件命中统计及当前执行顺序，可按链路ID过滤
+     */
+    @GetMapping("/conditions/stats")
+    public List<ConditionStat> conditionStats(@RequestParam(required = false) String chainId) {
+        return conditionEvaluator.stats(chainId);
+    }
+
+    /**
+     * http节点的请求合并和响应缓存统计，可按链路ID过滤
+     */
+    @GetMapping("/http/stats")
+    public List<HttpCacheStat> httpStats(@RequestParam(required = false) String chainId) {
+        return httpResponseCache.stats(chainId);
+    }
+}
@@ -0,0 +1,150 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.aicoding.flow.graph.model.BatchElResult;
+import com.aicoding.flow.graph.model.CompiledChain;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * 批量编译，读取线程把请求体逐个切分为单个图的JSON片段，图的解析和编译在按CPU核数并行的编译线程中进行，每个图编译完成立即回调
+ * <p>
+ * 每个请求同时在编译中的图数量受窗口限制，窗口占满时读取线程等待，不再继续读取请求体；
+ * 单个图格式错误时返回该图的错误结果，JSON语法错误无法继续切分时返回错误结果后结束
+ *
+ * @author gaoll
+ * @time 2025/6/6 15:20
+ **/
+@Slf4j
+@Service
+public class BatchCompileService {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @Autowired
+    private GraphService graphService;
+
+    @Value("${workflow.batch.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${workflow.batch.reader-threads:4}")
+    private int readerThreads;
+
+    /**
+     * 读取请求体的线程，读取时会阻塞在请求流和窗口上，与编译线程分开
+     */
+    private ExecutorService readers;
+
+    @PostConstruct
+    public void init() {
+        readers = ExecutorBuilder.create()
+                .setCorePoolSize(readerThreads)
+                .setMaxPoolSize(readerThreads)
+                .setWorkQueue(new LinkedBlockingQueue<>())
+                .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("workflow-batch-").setDaemon(true).build())
+                .build();
+    }
+
+    /**
+     * @param in JSON数组，或多个连续的JSON对象
+     * @param consumer 结果回调，在编译线程或读取线程中调用，顺序与完成顺序一致
+     * @return 全部图编译完成后结束，调用线程不读取请求体
+     */
+    public CompletableFuture<Void> compile(InputStream in, Consumer<BatchElResult> consumer) {
+        return CompletableFuture.runAsync(() -> read(in, consumer), readers);
+    }
+
+    private void read(InputStream in, Consumer<BatchElResult> consumer) {
+        Semaphore window = new Semaphore(maxInFlight);
+        int index = 0;
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    // 只切分出图的JSON片段，解析放到编译线程
+                    TokenBuffer graph = new TokenBuffer(parser);
+                    graph.copyCurrentStructure(parser);
+                    window.acquireUninterruptibly();
+                    submit(index, graph, consumer, window);
+                } else {
+                    parser.skipChildren();
+                    consumer.accept(error(index, "第" + index + "个流程图必须是JSON对象"));
+                }
+                index++;
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            log.warn("batch compile stopped at graph {}", index, e);
+            String message = e instanceof JsonProcessingException ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+            consumer.accept(error(index, "第" + index + "个流程图格式错误：" + message));
+        } finally {
+            // 等待已提交的图全部完成
+            window.acquireUninterruptibly(maxInFlight);
+        }
+    }
+
+    private void submit(int index, TokenBuffer graph, Consumer<BatchElResult> consumer, Semaphore window) {
+        try {
+            pool.execute(() -> {
+                BatchElResult result = new BatchElResult();
+                result.setIndex(index);
+                try (JsonParser parser = graph.asParser()) {
+                    CompiledChain chain = graphService.compile(GraphModelReader.read(parser));
+                    result.setDigest(chain.getDigest());
+                    result.setChainId(chain.getChainId());
+                    result.setEl(chain.getEl());
+                } catch (Exception e) {
+                    log.warn("batch compile graph {} failed", index, e);
+                    result.setError(e.getMessage());
+                }
+                try {
+                    consumer.accept(result);
+                } finally {
+                    window.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            window.release();
+            throw e;
+        }
+    }
+
+    private static BatchElResult error(int index, String message) {
+        BatchElResult result = new BatchElResult();
+        result.setIndex(index);
+        result.setError(message);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        readers.shutdownNow();
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,83 @@
+package com.aicoding.flow.graph;
+
+import com.aicoding.flow.constants.NodeConstant;
+import com.aicoding.flow.graph.model.CompiledChain;
+import com.yomahub.liteflow.core.NodeComponent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 节点绑定参数缓存，按链路ID和节点tag保存反序列化后的参数对象
+ * <p>
+ * 编译时生成的参数对象随链路一起保存，首次执行时整体放入缓存；编译结果中没有的参数首次执行时反序列化一次后缓存。
+ * 只缓存链路缓存中仍存在的链路，链路淘汰或失效时清除；淘汰后仍在执行的节点按EL中的参数反序列化，不再放入缓存。
+ * 缓存的参数对象被所有执行共享，节点只读不写。分段执行时各段共用所属链路的参数
+ *
+ * @author gaoll
+ * @time 2025/6/23 9:50
+ **/
+@Component
+public class BindParamCache {
+
+    private final CompiledChainCache chainCache;
+
+    private final boolean enabled;
+
+    private final Map<String, Map<String, Object>> chains = new ConcurrentHashMap<>();
+
+    public BindParamCache(CompiledChainCache chainCache,
+                          @Value("${workflow.bind-cache.enabled:true}") boolean enabled) {
+        this.chainCache = chainCache;
+        this.enabled = enabled;
+        chainCache.addRemovalListener(chains::remove);
+    }
+
+    public <T> T get(NodeComponent node, Class<T> clazz) {
+        String chainId = CompiledChain.ownerChainId(node.getCurrChainId());
+        String tag = node.getTag();
+        if (!enabled || chainId == null || tag == null) {
+            return NodeDslFactory.prepare(node.getBindData(NodeConstant.PARAM, clazz), null);
+        }
+        Map<String, Object> params = chains.get(chainId);
+        if (params == null) {
+            params = load(chainId);
+            if (params == null) {
+                return NodeDslFactory.prepare(node.getBindData(NodeConstant.PARAM, clazz), null);
+            }
+        }
+        Object param = params.get(tag);
+        if (clazz.isInstance(param)) {
+            return clazz.cast(param);
+        }
+        T parsed = NodeDslFactory.prepare(node.getBindData(NodeConstant.PARAM, clazz), null);
+        if (parsed != null) {
+            params.put(tag, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * 链路已被淘汰时返回空。放入后再检查一次链路是否仍是同一个：
+     * 淘汰发生在放入之前时移除回调已执行过，由这里移除；发生在检查之后时由移除回调清除
+     */
+    private Map<String, Object> load(String chainId) {
+        CompiledChain chain = chainCache.getByChainId(chainId);
+        if (chain == null) {
+            return null;
+        }
+        Map<String, Object> params = chains.computeIfAbsent(chainId, key -> {
+            Map<String, Object> loaded = new ConcurrentHashMap<>();
+            if (chain.getBindParams() != null) {
+                loaded.putAll(chain.getBindParams());
+            }
+            return loaded;
+        });
+        if (chainCache.getByChainId(chainId) != chain) {
+            chains.remove(chainId, params);
+        }
+        return params;
+    }
+}
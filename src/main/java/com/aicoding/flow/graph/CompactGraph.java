@@ -0,0 +1,248 @@
+package com.aicoding.flow.graph;
+
+import com.aicoding.flow.graph.model.EdgeTree;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译用的紧凑图，节点ID映射为连续整数，邻接关系以压缩稀疏行（CSR）的int数组保存
+ * <p>
+ * 节点v的后继为succ[succStart[v]..succStart[v+1])，前驱同理，保留加边顺序
+ *
+ * @author gaoll
+ * @time 2025/6/10 9:20
+ **/
+public class CompactGraph {
+
+    private final String[] ids;
+    private final String[] types;
+    private final Map<String, Integer> index;
+
+    private final int[] succStart;
+    private final int[] succ;
+    private final int[] predStart;
+    private final int[] pred;
+
+    private CompactGraph(String[] ids, String[] types, Map<String, Integer> index, int[] from, int[] to, int edgeCount) {
+        this.ids = ids;
+        this.types = types;
+        this.index = index;
+        int n = ids.length;
+        succStart = new int[n + 1];
+        predStart = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            succStart[from[e] + 1]++;
+            predStart[to[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            succStart[v + 1] += succStart[v];
+            predStart[v + 1] += predStart[v];
+        }
+        succ = new int[edgeCount];
+        pred = new int[edgeCount];
+        int[] succFill = Arrays.copyOf(succStart, n);
+        int[] predFill = Arrays.copyOf(predStart, n);
+        for (int e = 0; e < edgeCount; e++) {
+            succ[succFill[from[e]]++] = to[e];
+            pred[predFill[to[e]]++] = from[e];
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String id(int v) {
+        return ids[v];
+    }
+
+    public String type(int v) {
+        return types[v];
+    }
+
+    /**
+     * 节点ID对应的下标，不存在时为-1
+     */
+    public int indexOf(String id) {
+        Integer v = index.get(id);
+        return v == null ? -1 : v;
+    }
+
+    public int outDegree(int v) {
+        return succStart[v + 1] - succStart[v];
+    }
+
+    public int successor(int v, int k) {
+        return succ[succStart[v] + k];
+    }
+
+    public int inDegree(int v) {
+        return predStart[v + 1] - predStart[v];
+    }
+
+    public int predecessor(int v, int k) {
+        return pred[predStart[v] + k];
+    }
+
+    /**
+     * 出度为0的节点
+     */
+    public BitSet leaves() {
+        BitSet leaves = new BitSet(size());
+        for (int v = 0; v < size(); v++) {
+            if (outDegree(v) == 0) {
+                leaves.set(v);
+            }
+        }
+        return leaves;
+    }
+
+    /**
+     * 从start出发可达的节点
+     */
+    public BitSet reachableFrom(int start) {
+        BitSet starts = new BitSet(size());
+        starts.set(start);
+        return reachableFrom(starts);
+    }
+
+    /**
+     * 从任一起点出发可达的节点
+     */
+    public BitSet reachableFrom(BitSet starts) {
+        BitSet visited = new BitSet(size());
+        int[] stack = new int[size()];
+        int top = 0;
+        for (int v = starts.nextSetBit(0); v >= 0; v = starts.nextSetBit(v + 1)) {
+            stack[top++] = v;
+            visited.set(v);
+        }
+        while (top > 0) {
+            int v = stack[--top];
+            for (int i = succStart[v]; i < succStart[v + 1]; i++) {
+                int w = succ[i];
+                if (!visited.get(w)) {
+                    visited.set(w);
+                    stack[top++] = w;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * 反向图，共享节点表，后继与前驱互换
+     */
+    public CompactGraph reverse() {
+        return new CompactGraph(this);
+    }
+
+    private CompactGraph(CompactGraph origin) {
+        this.ids = origin.ids;
+        this.types = origin.types;
+        this.index = origin.index;
+        this.succStart = origin.predStart;
+        this.succ = origin.pred;
+        this.predStart = origin.succStart;
+        this.pred = origin.succ;
+    }
+
+    /**
+     * 由EdgeTree构建，相同ID的子树合并为同一个节点，trees按下标记录每个节点首次出现的EdgeTree
+     * <p>
+     * 节点按子节点顺序的深度优先先序编号，根节点为0
+     */
+    static CompactGraph of(EdgeTree root, List<EdgeTree> trees) {
+        Builder builder = new Builder(16);
+        Deque<EdgeTree> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            EdgeTree tree = stack.pop();
+            if (builder.indexOf(tree.getId()) >= 0) {
+                continue;
+            }
+            builder.addNode(tree.getId(), tree.getType());
+            trees.add(tree);
+            List<EdgeTree> children = tree.getChildren();
+            for (int k = children == null ? -1 : children.size() - 1; k >= 0; k--) {
+                if (builder.indexOf(children.get(k).getId()) < 0) {
+                    stack.push(children.get(k));
+                }
+            }
+        }
+        for (EdgeTree tree : trees) {
+            if (tree.getChildren() == null) {
+                continue;
+            }
+            int from = builder.indexOf(tree.getId());
+            for (EdgeTree child : tree.getChildren()) {
+                builder.addEdge(from, builder.indexOf(child.getId()));
+            }
+        }
+        return builder.build();
+    }
+
+    public static class Builder {
+
+        private String[] ids;
+        private String[] types;
+        private final Map<String, Integer> index;
+        private int nodeCount;
+
+        private int[] from;
+        private int[] to;
+        private int edgeCount;
+
+        public Builder(int expectedNodes) {
+            int capacity = Math.max(expectedNodes, 4);
+            ids = new String[capacity];
+            types = new String[capacity];
+            index = new HashMap<>(capacity * 2);
+            from = new int[capacity];
+            to = new int[capacity];
+        }
+
+        /**
+         * 新增节点，ID已存在时返回已有下标
+         */
+        public int addNode(String id, String type) {
+            Integer existing = index.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            if (nodeCount == ids.length) {
+                ids = Arrays.copyOf(ids, nodeCount * 2);
+                types = Arrays.copyOf(types, nodeCount * 2);
+            }
+            ids[nodeCount] = id;
+            types[nodeCount] = type;
+            index.put(id, nodeCount);
+            return nodeCount++;
+        }
+
+        public int indexOf(String id) {
+            Integer v = index.get(id);
+            return v == null ? -1 : v;
+        }
+
+        public void addEdge(int source, int target) {
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, edgeCount * 2);
+                to = Arrays.copyOf(to, edgeCount * 2);
+            }
+            from[edgeCount] = source;
+            to[edgeCount] = target;
+            edgeCount++;
+        }
+
+        public CompactGraph build() {
+            return new CompactGraph(Arrays.copyOf(ids, nodeCount), Arrays.copyOf(types, nodeCount), index, from, to, edgeCount);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.core.util.StrUtil;
+import com.aicoding.flow.graph.model.CompiledChain;
+import com.yomahub.liteflow.builder.el.LiteFlowChainELBuilder;
+import com.yomahub.liteflow.flow.FlowBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 已编译链路缓存，按图内容摘要索引，超过容量时淘汰最久未使用的链路。
+ * 同一摘要同时只有一个线程编译，其余线程等待编译结果
+ *
+ * @author gaoll
+ * @time 2025/6/3 10:35
+ **/
+@Slf4j
+@Component
+public class CompiledChainCache {
+
+    private final int maxSize;
+
+    private final LinkedHashMap<String, CompiledChain> chains;
+
+    private final Map<String, CompiledChain> chainsById = new HashMap<>();
+
+    /**
+     * 执行阶段每次都按链路ID查找，使用ReentrantLock，虚拟线程等锁时不占住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 正在编译的链路，编译、注册、放入缓存完成后移除
+     */
+    private final Map<String, CompletableFuture<CompiledChain>> compiling = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * 链路被淘汰或失效时回调，参数为链路ID
+     */
+    private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
+
+    public CompiledChainCache(@Value("${workflow.el-cache.max-size:512}") int maxSize) {
+        this.maxSize = maxSize;
+        this.chains = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 获取摘要对应的链路，不存在时编译并注册到LiteFlow
+     */
+    public CompiledChain computeIfAbsent(String digest, Function<String, CompiledChain> compiler) {
+        CompiledChain chain = get(digest);
+        if (chain != null) {
+            hitCount.incrementAndGet();
+            return chain;
+        }
+        CompletableFuture<CompiledChain> future = new CompletableFuture<>();
+        CompletableFuture<CompiledChain> running = compiling.putIfAbsent(digest, future);
+        if (running != null) {
+            hitCount.incrementAndGet();
+            return await(running);
+        }
+        try {
+            // 上一个编译线程可能在get之后、putIfAbsent之前刚完成
+            chain = get(digest);
+            if (chain == null) {
+                missCount.incrementAndGet();
+                chain = compiler.apply(digest);
+                register(chain);
+                chain = put(chain);
+            } else {
+                hitCount.incrementAndGet();
+            }
+            future.complete(chain);
+            return chain;
+        } catch (Throwable e) {
+            // Error同样要完成future，否则等待同一摘要的线程永远阻塞
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            compiling.remove(digest, future);
+        }
+    }
+
+    private static CompiledChain await(CompletableFuture<CompiledChain> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public CompiledChain get(String digest) {
+        lock.lock();
+        try {
+            return chains.get(digest);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按链路ID查找，用于执行阶段
+     */
+    public CompiledChain getByChainId(String chainId) {
+        lock.lock();
+        try {
+            return chainsById.get(chainId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 注册链路移除回调，用于清理按链路ID保存的运行时数据
+     */
+    public void addRemovalListener(Consumer<String> listener) {
+        removalListeners.add(listener);
+    }
+
+    public void invalidate(String digest) {
+        CompiledChain removed;
+        lock.lock();
+        try {
+            removed = chains.remove(digest);
+            if (removed != null) {
+                chainsById.remove(removed.getChainId());
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (removed != null) {
+            unregister(removed);
+            notifyRemoval(removed.getChainId());
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return chains.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 注册完整链路，有挂起点时同时注册各段链路
+     */
+    private void register(CompiledChain chain) {
+        register(chain.getChainId(), chain.getEl());
+        if (chain.isSegmented()) {
+            for (int i = 0; i < chain.getSegments().size(); i++) {
+                register(chain.segmentChainId(i), chain.getSegments().get(i));
+            }
+        }
+    }
+
+    private static void register(String chainId, String el) {
+        if (StrUtil.isBlank(el) || FlowBus.containChain(chainId)) {
+            return;
+        }
+        LiteFlowChainELBuilder.createChain().setChainId(chainId).setEL(el).build();
+    }
+
+    private static void unregister(CompiledChain chain) {
+        FlowBus.removeChain(chain.getChainId());
+        if (chain.isSegmented()) {
+            for (int i = 0; i < chain.getSegments().size(); i++) {
+                FlowBus.removeChain(chain.segmentChainId(i));
+            }
+        }
+    }
+
+    private void notifyRemoval(String chainId) {
+        for (Consumer<String> listener : removalListeners) {
+            listener.accept(chainId);
+        }
+    }
+
+    private CompiledChain put(CompiledChain chain) {
+        lock.lock();
+        try {
+            CompiledChain existing = chains.get(chain.getDigest());
+            if (existing != null) {
+                return existing;
+            }
+            chains.put(chain.getDigest(), chain);
+            chainsById.put(chain.getChainId(), chain);
+            Iterator<Map.Entry<String, CompiledChain>> it = chains.entrySet().iterator();
+            while (chains.size() > maxSize && it.hasNext()) {
+                CompiledChain eldest = it.next().getValue();
+                it.remove();
+                chainsById.remove(eldest.getChainId());
+                evictionCount.incrementAndGet();
+                unregister(eldest);
+                notifyRemoval(eldest.getChainId());
+                log.debug("evict compiled chain {}", eldest.getChainId());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,166 @@
+package com.aicoding.flow.graph;
+
+import java.util.Arrays;
+
+/**
+ * 支配树，迭代算法（Cooper-Harvey-Kennedy），对有向无环图按逆后序一轮即可收敛
+ * 传入反向图（{@link CompactGraph#reverse()}）即得到后支配树
+ *
+ * @author gaoll
+ * @time 2025/6/4 11:10
+ **/
+public class DominatorTree {
+
+    private final int root;
+
+    /**
+     * 直接支配节点，根节点为自身，不可达节点为-1
+     */
+    private final int[] idom;
+
+    /**
+     * 支配树上的先序、后序编号，用于O(1)判断支配关系
+     */
+    private final int[] pre;
+    private final int[] post;
+
+    public DominatorTree(CompactGraph graph, int root) {
+        int n = graph.size();
+        this.root = root;
+        int[] order = reversePostOrder(root, graph);
+        int[] rpoIndex = new int[n];
+        Arrays.fill(rpoIndex, -1);
+        for (int i = 0; i < order.length; i++) {
+            rpoIndex[order[i]] = i;
+        }
+        idom = new int[n];
+        Arrays.fill(idom, -1);
+        idom[root] = root;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < order.length; i++) {
+                int v = order[i];
+                int newIdom = -1;
+                for (int k = 0; k < graph.inDegree(v); k++) {
+                    int p = graph.predecessor(v, k);
+                    if (idom[p] < 0) {
+                        continue;
+                    }
+                    newIdom = newIdom < 0 ? p : intersect(p, newIdom, rpoIndex);
+                }
+                if (newIdom >= 0 && idom[v] != newIdom) {
+                    idom[v] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        pre = new int[n];
+        post = new int[n];
+        numberTree(n);
+    }
+
+    public int idom(int v) {
+        return idom[v];
+    }
+
+    public boolean isReachable(int v) {
+        return idom[v] >= 0;
+    }
+
+    /**
+     * a是否支配b
+     */
+    public boolean dominates(int a, int b) {
+        if (idom[a] < 0 || idom[b] < 0) {
+            return false;
+        }
+        return pre[a] <= pre[b] && post[b] <= post[a];
+    }
+
+    private int intersect(int a, int b, int[] rpoIndex) {
+        while (a != b) {
+            while (rpoIndex[a] > rpoIndex[b]) {
+                a = idom[a];
+            }
+            while (rpoIndex[b] > rpoIndex[a]) {
+                b = idom[b];
+            }
+        }
+        return a;
+    }
+
+    private void numberTree(int n) {
+        int[] childCount = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (idom[v] >= 0 && v != root) {
+                childCount[idom[v] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            childCount[i + 1] += childCount[i];
+        }
+        int[] children = new int[childCount[n]];
+        int[] fill = Arrays.copyOf(childCount, n);
+        for (int v = 0; v < n; v++) {
+            if (idom[v] >= 0 && v != root) {
+                children[fill[idom[v]]++] = v;
+            }
+        }
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int top = 0;
+        int counter = 0;
+        stack[top++] = root;
+        next[root] = childCount[root];
+        pre[root] = counter++;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] < childCount[v + 1]) {
+                int c = children[next[v]++];
+                pre[c] = counter++;
+                next[c] = childCount[c];
+                stack[top++] = c;
+            } else {
+                post[v] = counter++;
+                top--;
+            }
+        }
+    }
+
+    /**
+     * 非递归深度优先遍历得到逆后序，同时检查环
+     */
+    static int[] reversePostOrder(int root, CompactGraph graph) {
+        int n = graph.size();
+        byte[] state = new byte[n];
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int[] postOrder = new int[n];
+        int count = 0;
+        int top = 0;
+        stack[top++] = root;
+        state[root] = 1;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] < graph.outDegree(v)) {
+                int w = graph.successor(v, next[v]++);
+                if (state[w] == 0) {
+                    state[w] = 1;
+                    stack[top++] = w;
+                } else if (state[w] == 1) {
+                    throw new RuntimeException("流程图存在环，无法转换为EL");
+                }
+            } else {
+                state[v] = 2;
+                postOrder[count++] = v;
+                top--;
+            }
+        }
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = postOrder[count - 1 - i];
+        }
+        return order;
+    }
+}
@@ -0,0 +1,668 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.core.util.StrUtil;
+import com.aicoding.flow.constants.NodeConstant;
+import com.aicoding.flow.constants.NodeTypeConstant;
+import com.aicoding.flow.graph.ElFragments.CriticalPath;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.workflow.ParallelExecutorBuilder;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图转EL编译器
+ * <p>
+ * 以开始节点为入口构建紧凑图（{@link CompactGraph}），通过后支配树找到每个分叉节点的汇合点，
+ * 分叉到汇合点之间的区域生成WHEN（条件节点生成IF/ELIF/ELSE），其余部分按顺序生成THEN。
+ * 全程非递归，时间复杂度O(V+E)
+ * <p>
+ * 增量编译时传入上一次的片段和变更节点，未受影响的节点表达式、区域和循环体直接复用，
+ * 紧凑图和后支配树仍按整张图构建
+ * <p>
+ * 开启自动并行时，THEN中连续的http、代码等节点按变量选择器分析数据依赖，无依赖的节点合并为WHEN；
+ * 同时按节点类型估算耗时，给出静态关键路径
+ * <p>
+ * 主流程顺序部分中的等待节点作为挂起点，主流程另外按挂起点拆分成若干段，执行到挂起点时释放线程，等待结束后继续执行下一段
+ * <p>
+ * 容器节点只支持循环，迭代节点及其他包含子节点的类型直接编译失败，不生成丢掉子节点的EL
+ *
+ * @author gaoll
+ * @time 2025/6/4 10:30
+ **/
+public class ElCompiler {
+
+    private static final Map<String, String> COMPONENTS = new HashMap<>();
+
+    static {
+        COMPONENTS.put(NodeTypeConstant.START, "startNode");
+        COMPONENTS.put(NodeTypeConstant.END, "endNode");
+        COMPONENTS.put(NodeTypeConstant.ANSWER, "endNode");
+        COMPONENTS.put(NodeTypeConstant.IF_ELSE, "conditionNode");
+        COMPONENTS.put(NodeTypeConstant.HTTP_REQUEST, "httpNode");
+        COMPONENTS.put(NodeTypeConstant.CODE, "codeNode");
+        COMPONENTS.put(NodeTypeConstant.JSON_EXTRACT, "jsonExtractNode");
+        COMPONENTS.put(NodeTypeConstant.SLEEP, "sleepNode");
+        COMPONENTS.put(NodeTypeConstant.LOOP, "whileConditionNode");
+    }
+
+    /**
+     * 各类节点的静态耗时估算，用于计算关键路径
+     */
+    private static final Map<String, Long> COSTS = new HashMap<>();
+
+    static {
+        COSTS.put(NodeTypeConstant.HTTP_REQUEST, 100L);
+        COSTS.put(NodeTypeConstant.CODE, 10L);
+        COSTS.put(NodeTypeConstant.JSON_EXTRACT, 5L);
+        COSTS.put(NodeTypeConstant.SLEEP, 1000L);
+    }
+
+    /**
+     * 可以自动并行的节点类型，外部插件节点按类型未知处理。
+     * 等待节点与前后节点没有数据依赖但有先后含义，不参与合并，作为顺序屏障把前后的节点分开
+     */
+    private static final Set<String> PARALLEL_TYPES = new HashSet<>(Arrays.asList(
+            NodeTypeConstant.HTTP_REQUEST, NodeTypeConstant.CODE, NodeTypeConstant.JSON_EXTRACT));
+
+    private static final long EXT_PLUGIN_COST = 100L;
+
+    private static final String EXT_PLUGIN = "extPluginNode";
+    private static final String NOOP = "noopNode";
+
+    private static final String LOOP_BREAK = "loopBreakNode";
+
+    /**
+     * 增量编译缓存的区域EL长度上限，嵌套的区域各自缓存会重复保存内层内容，超过上限的区域下次重新拼接
+     */
+    private static final int REGION_CACHE_LIMIT = 64 * 1024;
+
+    /**
+     * 虚拟出口节点ID，不会与画布节点冲突
+     */
+    private static final String EXIT_ID = "\u0000exit";
+
+    public static ElFragments compile(GraphModel graph) {
+        return compile(graph, null, Collections.emptySet(), false);
+    }
+
+    /**
+     * @param previous 上一次的编译片段，为空时全量编译
+     * @param dirtyIds 新增、删除、修改的节点ID及变更连线两端的节点ID
+     * @param autoParallel 顺序执行且相互没有数据依赖的节点是否合并为WHEN并行执行
+     */
+    public static ElFragments compile(GraphModel graph, ElFragments previous, Set<String> dirtyIds, boolean autoParallel) {
+        List<GraphModel.WorkNode> nodes = graph.getNodes() == null ? new ArrayList<>() : graph.getNodes();
+        List<GraphModel.EdgeModel> edges = graph.getEdges() == null ? new ArrayList<>() : graph.getEdges();
+
+        //按所在循环分组，循环体单独编译
+        Map<String, List<GraphModel.WorkNode>> scopeNodes = new LinkedHashMap<>();
+        Map<String, GraphModel.WorkNode> nodeMap = new HashMap<>();
+        for (GraphModel.WorkNode node : nodes) {
+            if (NodeTypeConstant.ITERATION.equals(node.getType())) {
+                throw new RuntimeException("迭代节点" + node.getId() + "暂不支持转换为EL");
+            }
+            nodeMap.put(node.getId(), node);
+            scopeNodes.computeIfAbsent(StrUtil.nullToEmpty(node.getParentId()), k -> new ArrayList<>()).add(node);
+        }
+        Map<String, List<GraphModel.EdgeModel>> scopeEdges = new HashMap<>();
+        for (GraphModel.EdgeModel edge : edges) {
+            GraphModel.WorkNode source = nodeMap.get(edge.getSource());
+            String scope = source == null ? "" : StrUtil.nullToEmpty(source.getParentId());
+            scopeEdges.computeIfAbsent(scope, k -> new ArrayList<>()).add(edge);
+        }
+
+        ElFragments fragments = previous == null ? new ElFragments() : previous.copy();
+        Set<String> dirty = Collections.emptySet();
+        if (previous != null) {
+            //循环体内的变更使循环节点本身失效
+            Set<String> expanded = new HashSet<>(dirtyIds);
+            for (String id : dirtyIds) {
+                GraphModel.WorkNode node = nodeMap.get(id);
+                String parentId = node == null ? null : node.getParentId();
+                while (StrUtil.isNotEmpty(parentId) && expanded.add(parentId)) {
+                    GraphModel.WorkNode parent = nodeMap.get(parentId);
+                    parentId = parent == null ? null : parent.getParentId();
+                }
+            }
+            dirty = fragments.dirtyRegions(expanded);
+        }
+
+        //内层循环先编译，外层引用其结果
+        List<String> scopes = new ArrayList<>(scopeNodes.keySet());
+        scopes.sort(Comparator.comparingInt((String scope) -> depth(scope, nodeMap)).reversed());
+        for (String scope : scopes) {
+            List<GraphModel.EdgeModel> se = scopeEdges.getOrDefault(scope, new ArrayList<>());
+            if (scope.isEmpty()) {
+                Scope main = new Scope(scopeNodes.get(scope), se, fragments, previous != null, dirty, autoParallel);
+                fragments.setEl(main.compile(null));
+                fragments.setCriticalPath(main.criticalPath);
+                main.split();
+                return fragments;
+            }
+            GraphModel.WorkNode loop = nodeMap.get(scope);
+            if (loop == null || !NodeTypeConstant.LOOP.equals(loop.getType())) {
+                //只有循环体会生成到EL中，其他容器的子节点不能静默丢弃
+                throw new RuntimeException("节点" + scope + (loop == null ? "不存在" : "的类型" + loop.getType() + "不支持包含子节点")
+                        + "，无法转换为EL");
+            }
+            if (previous != null && !dirty.contains(scope) && fragments.loops.containsKey(scope)) {
+                continue;
+            }
+            String entry = loop == null || loop.getData() == null ? null : loop.getData().getStartNodeId();
+            Scope body = new Scope(scopeNodes.get(scope), se, fragments, previous != null, dirty, autoParallel);
+            fragments.loops.put(scope, body.compile(entry));
+            fragments.loopPaths.put(scope, body.criticalPath);
+        }
+        throw new RuntimeException("缺少开始节点");
+    }
+
+    private static int depth(String scope, Map<String, GraphModel.WorkNode> nodeMap) {
+        int depth = 0;
+        String current = scope;
+        while (StrUtil.isNotEmpty(current) && depth <= nodeMap.size()) {
+            GraphModel.WorkNode node = nodeMap.get(current);
+            current = node == null ? null : node.getParentId();
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * 单个作用域（主流程或某个循环体）的编译
+     */
+    private static class Scope {
+
+        private final List<GraphModel.WorkNode> nodes;
+        private final List<GraphModel.EdgeModel> edges;
+        private final ElFragments fragments;
+        private final boolean incremental;
+        private final Set<String> dirty;
+        private final boolean autoParallel;
+
+        private final Map<String, GraphModel.WorkNode> workNodes = new HashMap<>();
+        private final Map<String, GraphModel.ConditionCase> cases = new HashMap<>();
+
+        private final Map<String, Set<String>> references = new HashMap<>();
+
+        private CompactGraph graph;
+        private int exit;
+        private Block root;
+
+        private CriticalPath criticalPath = CriticalPath.EMPTY;
+
+        Scope(List<GraphModel.WorkNode> nodes, List<GraphModel.EdgeModel> edges, ElFragments fragments,
+              boolean incremental, Set<String> dirty, boolean autoParallel) {
+            this.nodes = nodes;
+            this.edges = edges;
+            this.fragments = fragments;
+            this.incremental = incremental;
+            this.dirty = dirty;
+            this.autoParallel = autoParallel;
+        }
+
+        /**
+         * @param entryId 入口节点，为空时取开始节点
+         */
+        String compile(String entryId) {
+            graph = buildGraph();
+            int entry = entryId == null ? -1 : graph.indexOf(entryId);
+            for (int v = 0; entry < 0 && v < exit; v++) {
+                if (NodeTypeConstant.START.equals(graph.type(v)) || NodeTypeConstant.LOOP_START.equals(graph.type(v))) {
+                    entry = v;
+                }
+            }
+            if (entry < 0) {
+                if (entryId != null || exit == 0) {
+                    return NOOP;
+                }
+                throw new RuntimeException("缺少开始节点");
+            }
+
+            DominatorTree dom = new DominatorTree(graph, entry);
+            DominatorTree postDom = new DominatorTree(graph.reverse(), exit);
+
+            root = emit(entry, dom, postDom);
+            String el = render(root);
+            criticalPath = root.path;
+            return el == null ? NOOP : el;
+        }
+
+        /**
+         * 节点、条件分支虚拟节点按顺序编号，叶子节点统一连接到最后的虚拟出口
+         */
+        private CompactGraph buildGraph() {
+            CompactGraph.Builder builder = new CompactGraph.Builder(nodes.size() * 2);
+            BitSet hasChild = new BitSet();
+            for (GraphModel.WorkNode node : nodes) {
+                int v = builder.addNode(node.getId(), node.getType());
+                workNodes.put(node.getId(), node);
+                if (NodeTypeConstant.IF_ELSE.equals(node.getType())) {
+                    //每个分支生成一个虚拟节点，else分支放在最后
+                    List<GraphModel.ConditionCase> conditionCases = node.getData() == null ? null : node.getData().getCases();
+                    if (!CollectionUtils.isEmpty(conditionCases)) {
+                        for (GraphModel.ConditionCase conditionCase : conditionCases) {
+                            String caseId = node.getId() + "-" + conditionCase.getCaseId();
+                            cases.put(caseId, conditionCase);
+                            builder.addEdge(v, builder.addNode(caseId, NodeTypeConstant.CASE));
+                        }
+                    }
+                    builder.addEdge(v, builder.addNode(node.getId() + "-" + NodeTypeConstant.ELSE_HANDLE, NodeTypeConstant.CASE));
+                    hasChild.set(v);
+                }
+            }
+            //连线按两端ID排序，保证内容相同的图生成相同的EL
+            int[] from = new int[edges.size()];
+            int[] to = new int[edges.size()];
+            Integer[] order = new Integer[edges.size()];
+            String[] sourceIds = new String[edges.size()];
+            String[] targetIds = new String[edges.size()];
+            int count = 0;
+            for (GraphModel.EdgeModel edge : edges) {
+                String sourceId = edge.getSourceId();
+                int source = builder.indexOf(sourceId);
+                if (source < 0) {
+                    sourceId = edge.getSource();
+                    source = builder.indexOf(sourceId);
+                }
+                String targetId = edge.getTargetId();
+                int target = builder.indexOf(targetId);
+                if (target < 0) {
+                    targetId = edge.getTarget();
+                    target = builder.indexOf(targetId);
+                }
+                if (source < 0 || target < 0) {
+                    continue;
+                }
+                from[count] = source;
+                to[count] = target;
+                sourceIds[count] = sourceId;
+                targetIds[count] = targetId;
+                order[count] = count;
+                count++;
+            }
+            Arrays.sort(order, 0, count, (a, b) -> {
+                int c = sourceIds[a].compareTo(sourceIds[b]);
+                return c != 0 ? c : targetIds[a].compareTo(targetIds[b]);
+            });
+            int lastFrom = -1;
+            int lastTo = -1;
+            for (int i = 0; i < count; i++) {
+                int e = order[i];
+                if (from[e] == lastFrom && to[e] == lastTo) {
+                    continue;
+                }
+                builder.addEdge(from[e], to[e]);
+                hasChild.set(from[e]);
+                lastFrom = from[e];
+                lastTo = to[e];
+            }
+            exit = builder.addNode(EXIT_ID, null);
+            for (int v = 0; v < exit; v++) {
+                if (!hasChild.get(v)) {
+                    builder.addEdge(v, exit);
+                }
+            }
+            return builder.build();
+        }
+
+        /**
+         * 按后支配树划分区域，生成结构块
+         */
+        private Block emit(int entry, DominatorTree dom, DominatorTree postDom) {
+            BitSet emitted = new BitSet(exit);
+            Block root = new Block(Block.THEN, -1);
+            Deque<Frame> frames = new ArrayDeque<>();
+            frames.push(new Frame(root, entry, exit, null));
+            while (!frames.isEmpty()) {
+                Frame frame = frames.pop();
+                int cur = frame.start;
+                while (cur != frame.stop && cur != exit) {
+                    String id = graph.id(cur);
+                    if (emitted.get(cur)) {
+                        throw new RuntimeException("节点" + id + "存在交叉连线，无法转换为EL");
+                    }
+                    emitted.set(cur);
+                    fragments.owners.put(id, frame.owner);
+                    int degree = graph.outDegree(cur);
+                    boolean condition = NodeTypeConstant.IF_ELSE.equals(graph.type(cur));
+                    if (!condition && !isVirtual(cur)) {
+                        frame.block.items.add(new Block(Block.NODE, cur));
+                    }
+                    if (!condition && degree == 1) {
+                        cur = graph.successor(cur, 0);
+                        continue;
+                    }
+                    int join = postDom.idom(cur);
+                    if (join != exit && !dom.dominates(cur, join)) {
+                        throw new RuntimeException("节点" + graph.id(join) + "存在跨分支连线，无法转换为EL");
+                    }
+                    String joinId = join == exit ? "" : graph.id(join);
+                    if (incremental && !dirty.contains(id) && fragments.regions.containsKey(id)
+                            && joinId.equals(fragments.joins.get(id))) {
+                        //区域内没有变更，直接复用上一次的EL，不再遍历区域内节点
+                        Block reused = new Block(Block.PRESET, cur);
+                        reused.el = StrUtil.emptyToNull(fragments.regions.get(id));
+                        reused.path = fragments.regionPaths.getOrDefault(id, CriticalPath.EMPTY);
+                        frame.block.items.add(reused);
+                        cur = join;
+                        continue;
+                    }
+                    fragments.joins.put(id, joinId);
+                    Block fork = new Block(condition ? Block.IF : Block.WHEN, cur);
+                    frame.block.items.add(fork);
+                    for (int k = 0; k < degree; k++) {
+                        int next = graph.successor(cur, k);
+                        Block branch = new Block(Block.THEN, next);
+                        fork.items.add(branch);
+                        //条件节点从分支虚拟节点开始，分支内可能继续分叉
+                        frames.push(new Frame(branch, next, join, id));
+                    }
+                    cur = join;
+                }
+            }
+            return root;
+        }
+
+        /**
+         * 按主流程THEN中的等待节点拆段，每段以等待节点结尾，最后一段为最后一个等待节点之后的部分，可能为空
+         * <p>
+         * 分支、并行组和循环中的等待节点不拆分，执行时在线程上等待
+         */
+        void split() {
+            List<String> segments = new ArrayList<>();
+            List<String> suspendIds = new ArrayList<>();
+            List<String> items = new ArrayList<>();
+            for (Block item : root == null ? Collections.<Block>emptyList() : root.items) {
+                if (item.el != null) {
+                    items.add(item.el);
+                }
+                if (item.kind == Block.NODE && NodeTypeConstant.SLEEP.equals(graph.type(item.vertex))) {
+                    segments.add("THEN(" + String.join(", ", items) + ")");
+                    suspendIds.add(graph.id(item.vertex));
+                    items.clear();
+                }
+            }
+            if (suspendIds.isEmpty()) {
+                fragments.setSegments(Collections.emptyList(), Collections.emptyList());
+                return;
+            }
+            segments.add(items.isEmpty() ? null : "THEN(" + String.join(", ", items) + ")");
+            fragments.setSegments(segments, suspendIds);
+        }
+
+        private boolean isVirtual(int v) {
+            return NodeTypeConstant.CASE.equals(graph.type(v)) || NodeTypeConstant.LOOP_START.equals(graph.type(v));
+        }
+
+        /**
+         * 后序遍历结构块生成EL，空块返回null
+         */
+        private String render(Block root) {
+            Deque<Block> stack = new ArrayDeque<>();
+            Deque<Block> order = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Block block = stack.pop();
+                order.push(block);
+                for (Block item : block.items) {
+                    stack.push(item);
+                }
+            }
+            while (!order.isEmpty()) {
+                Block block = order.pop();
+                switch (block.kind) {
+                    case Block.NODE:
+                        block.el = nodeEl(graph.id(block.vertex));
+                        block.path = nodePath(workNodes.get(graph.id(block.vertex)));
+                        break;
+                    case Block.THEN:
+                        if (autoParallel) {
+                            parallelize(block);
+                        }
+                        block.el = join("THEN", block, block == root);
+                        List<CriticalPath> parts = new ArrayList<>(block.items.size());
+                        for (Block item : block.items) {
+                            parts.add(item.path);
+                        }
+                        block.path = CriticalPath.sequence(parts);
+                        break;
+                    case Block.WHEN:
+                    case Block.IF:
+                        block.el = block.kind == Block.WHEN ? join("WHEN", block, false) : renderIf(block);
+                        for (Block item : block.items) {
+                            block.path = block.path.max(item.path);
+                        }
+                        String forkId = graph.id(block.vertex);
+                        if (block.el == null || block.el.length() <= REGION_CACHE_LIMIT) {
+                            fragments.regions.put(forkId, StrUtil.nullToEmpty(block.el));
+                            fragments.regionPaths.put(forkId, block.path);
+                        } else {
+                            fragments.regions.remove(forkId);
+                            fragments.regionPaths.remove(forkId);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                //子块已拼入当前块，不再保留，否则逐层嵌套的分支每层都持有内层的完整EL。主流程的子块拆段时还要使用
+                if (block != root) {
+                    for (Block item : block.items) {
+                        item.el = null;
+                        item.path = CriticalPath.EMPTY;
+                    }
+                }
+            }
+            return root.el;
+        }
+
+        /**
+         * 将THEN中连续的、相互没有数据依赖的节点按依赖层级分组，同层节点放入WHEN并行执行
+         */
+        private void parallelize(Block block) {
+            List<Block> items = new ArrayList<>(block.items.size());
+            int i = 0;
+            while (i < block.items.size()) {
+                int end = i;
+                while (end < block.items.size() && isParallel(block.items.get(end))) {
+                    end++;
+                }
+                if (end - i < 2) {
+                    items.add(block.items.get(i));
+                    i = Math.max(end, i + 1);
+                    continue;
+                }
+                items.addAll(stages(block.items.subList(i, end)));
+                i = end;
+            }
+            block.items.clear();
+            block.items.addAll(items);
+        }
+
+        private boolean isParallel(Block block) {
+            return block.kind == Block.NODE && PARALLEL_TYPES.contains(graph.type(block.vertex));
+        }
+
+        /**
+         * 节点所在层级为其依赖的前序节点的最大层级加一
+         */
+        private List<Block> stages(List<Block> run) {
+            Map<String, Integer> levels = new HashMap<>();
+            List<List<Block>> stages = new ArrayList<>();
+            for (Block item : run) {
+                String id = graph.id(item.vertex);
+                int level = 0;
+                for (String ref : references(id)) {
+                    Integer refLevel = levels.get(ref);
+                    if (refLevel != null) {
+                        level = Math.max(level, refLevel + 1);
+                    }
+                }
+                levels.put(id, level);
+                if (stages.size() <= level) {
+                    stages.add(new ArrayList<>());
+                }
+                stages.get(level).add(item);
+            }
+            List<Block> result = new ArrayList<>(stages.size());
+            for (List<Block> stage : stages) {
+                if (stage.size() == 1) {
+                    result.add(stage.get(0));
+                    continue;
+                }
+                Block when = new Block(Block.PRESET, -1);
+                List<String> els = new ArrayList<>(stage.size());
+                for (Block item : stage) {
+                    els.add(item.el);
+                    when.path = when.path.max(item.path);
+                }
+                when.el = "WHEN(" + String.join(", ", els) + ").threadPool(" + quote(ParallelExecutorBuilder.class.getName()) + ")";
+                result.add(when);
+            }
+            return result;
+        }
+
+        private Set<String> references(String id) {
+            return references.computeIfAbsent(id, k -> NodeDependencies.referencedNodeIds(workNodes.get(k)));
+        }
+
+        private CriticalPath nodePath(GraphModel.WorkNode node) {
+            long cost = COSTS.getOrDefault(node.getType(), COMPONENTS.containsKey(node.getType()) ? 1L : EXT_PLUGIN_COST);
+            CriticalPath self = new CriticalPath(cost, Collections.singletonList(node.getId()));
+            if (!NodeTypeConstant.LOOP.equals(node.getType())) {
+                return self;
+            }
+            //循环按最大次数估算
+            CriticalPath body = fragments.loopPaths.getOrDefault(node.getId(), CriticalPath.EMPTY);
+            int times = node.getData() == null ? 1 : Math.max(1, node.getData().getLoopCount());
+            CriticalPath loop = CriticalPath.sequence(Arrays.asList(self, body));
+            return new CriticalPath(cost + body.getCost() * times, loop.getNodeIds());
+        }
+
+        private String join(String operator, Block block, boolean keepWrapper) {
+            List<String> items = new ArrayList<>(block.items.size());
+            for (Block item : block.items) {
+                if (item.el != null) {
+                    items.add(item.el);
+                }
+            }
+            if (items.isEmpty()) {
+                return null;
+            }
+            if (items.size() == 1 && !keepWrapper) {
+                return items.get(0);
+            }
+            return operator + "(" + String.join(", ", items) + ")";
+        }
+
+        private String renderIf(Block block) {
+            StringBuilder sb = new StringBuilder();
+            //末尾的空分支（包括空的ELSE）不影响执行结果，直接省略，全部为空时整个条件节点省略
+            int end = block.items.size();
+            while (end > 0 && block.items.get(end - 1).el == null) {
+                end--;
+            }
+            for (Block branch : block.items.subList(0, end)) {
+                String caseId = graph.id(branch.vertex);
+                String body = branch.el == null ? NOOP : branch.el;
+                GraphModel.ConditionCase conditionCase = cases.get(caseId);
+                if (conditionCase == null) {
+                    if (branch.el != null) {
+                        sb.append(".ELSE(").append(body).append(")");
+                    }
+                    continue;
+                }
+                String condition = caseEl(workNodes.get(graph.id(block.vertex)), caseId, conditionCase);
+                sb.append(sb.length() == 0 ? "IF(" : ".ELIF(").append(condition).append(", ").append(body).append(")");
+            }
+            return sb.length() == 0 ? null : sb.toString();
+        }
+
+        private String caseEl(GraphModel.WorkNode node, String caseId, GraphModel.ConditionCase conditionCase) {
+            String el = incremental && !dirty.contains(node.getId()) ? fragments.nodes.get(caseId) : null;
+            if (el == null) {
+                el = component(node.getType()) + ".tag(" + quote(caseId) + ")"
+                        + bind(NodeDslFactory.toJson(NodeDslFactory.createCase(node, conditionCase)));
+                fragments.nodes.put(caseId, el);
+            }
+            return el;
+        }
+
+        private String nodeEl(String id) {
+            String el = incremental && !dirty.contains(id) ? fragments.nodes.get(id) : null;
+            if (el != null) {
+                return el;
+            }
+            GraphModel.WorkNode node = workNodes.get(id);
+            String params = bind(NodeDslFactory.toJson(NodeDslFactory.create(node)));
+            el = component(node.getType()) + ".tag(" + quote(node.getId()) + ")" + params;
+            if (NodeTypeConstant.LOOP.equals(node.getType())) {
+                // 整个循环是一个WHILE，循环体只生成一次，每轮结束后由BREAK判断终止条件
+                String body = fragments.loops.get(node.getId());
+                el = "WHILE(" + el + ").DO(" + (body == null ? NOOP : body) + ")";
+                if (node.getData() != null && !CollectionUtils.isEmpty(node.getData().getBreakConditions())) {
+                    el += ".BREAK(" + LOOP_BREAK + ".tag(" + quote(node.getId()) + ")" + params + ")";
+                }
+            }
+            fragments.nodes.put(node.getId(), el);
+            return el;
+        }
+    }
+
+    private static String component(String type) {
+        return COMPONENTS.getOrDefault(type, EXT_PLUGIN);
+    }
+
+    private static String bind(String json) {
+        return ".bind(" + quote(NodeConstant.PARAM) + ", " + quote(json) + ")";
+    }
+
+    static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static class Block {
+        static final int NODE = 0;
+        static final int THEN = 1;
+        static final int WHEN = 2;
+        static final int IF = 3;
+        static final int PRESET = 4;
+
+        final int kind;
+        final int vertex;
+        final List<Block> items = new ArrayList<>();
+        String el;
+        CriticalPath path = CriticalPath.EMPTY;
+
+        Block(int kind, int vertex) {
+            this.kind = kind;
+            this.vertex = vertex;
+        }
+    }
+
+    private static class Frame {
+        final Block block;
+        final int start;
+        final int stop;
+        final String owner;
+
+        Frame(Block block, int start, int stop, String owner) {
+            this.block = block;
+            this.start = start;
+            this.stop = stop;
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.aicoding.flow.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译过程中产生的EL片段，增量编译时未受影响的片段直接复用
+ *
+ * @author gaoll
+ * @time 2025/6/5 9:50
+ **/
+public class ElFragments {
+
+    /**
+     * 完整EL
+     */
+    private String el;
+
+    /**
+     * 节点ID（含条件分支ID） -> 节点表达式
+     */
+    final Map<String, String> nodes;
+
+    /**
+     * 分叉节点ID -> 分叉到汇合点之间区域的EL，空区域为空串
+     */
+    final Map<String, String> regions;
+
+    /**
+     * 分叉节点ID -> 汇合节点ID，汇合到出口时为空串
+     */
+    final Map<String, String> joins;
+
+    /**
+     * 节点ID -> 所在最内层区域的分叉节点ID
+     */
+    final Map<String, String> owners;
+
+    /**
+     * 循环节点ID -> 循环体EL
+     */
+    final Map<String, String> loops;
+
+    /**
+     * 分叉节点ID -> 区域内的关键路径
+     */
+    final Map<String, CriticalPath> regionPaths;
+
+    /**
+     * 循环节点ID -> 单次循环体的关键路径
+     */
+    final Map<String, CriticalPath> loopPaths;
+
+    /**
+     * 主流程的静态关键路径
+     */
+    private CriticalPath criticalPath;
+
+    /**
+     * 主流程按挂起点拆分后的各段EL，没有挂起点时为空
+     */
+    private List<String> segments = Collections.emptyList();
+
+    /**
+     * 挂起点节点ID，第i个挂起点是第i段的最后一个节点
+     */
+    private List<String> suspendIds = Collections.emptyList();
+
+    ElFragments() {
+        this(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(),
+                new HashMap<>(), new HashMap<>());
+    }
+
+    private ElFragments(Map<String, String> nodes, Map<String, String> regions, Map<String, String> joins,
+                        Map<String, String> owners, Map<String, String> loops,
+                        Map<String, CriticalPath> regionPaths, Map<String, CriticalPath> loopPaths) {
+        this.nodes = nodes;
+        this.regions = regions;
+        this.joins = joins;
+        this.owners = owners;
+        this.loops = loops;
+        this.regionPaths = regionPaths;
+        this.loopPaths = loopPaths;
+    }
+
+    public String getEl() {
+        return el;
+    }
+
+    void setEl(String el) {
+        this.el = el;
+    }
+
+    public CriticalPath getCriticalPath() {
+        return criticalPath;
+    }
+
+    void setCriticalPath(CriticalPath criticalPath) {
+        this.criticalPath = criticalPath;
+    }
+
+    public List<String> getSegments() {
+        return segments;
+    }
+
+    public List<String> getSuspendIds() {
+        return suspendIds;
+    }
+
+    void setSegments(List<String> segments, List<String> suspendIds) {
+        this.segments = segments;
+        this.suspendIds = suspendIds;
+    }
+
+    /**
+     * 复制一份用于增量编译，上一次的结果保持不变
+     */
+    ElFragments copy() {
+        return new ElFragments(new HashMap<>(nodes), new HashMap<>(regions), new HashMap<>(joins),
+                new HashMap<>(owners), new HashMap<>(loops), new HashMap<>(regionPaths), new HashMap<>(loopPaths));
+    }
+
+    /**
+     * 由变更节点沿所在区域向外扩散，得到需要重新生成的区域
+     */
+    Set<String> dirtyRegions(Set<String> dirtyIds) {
+        Set<String> dirty = new HashSet<>();
+        for (String id : dirtyIds) {
+            String current = id;
+            while (current != null && dirty.add(current)) {
+                current = owners.get(current);
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * 静态关键路径，按节点类型估算的耗时，串行累加、并行取最大
+     */
+    public static class CriticalPath {
+
+        static final CriticalPath EMPTY = new CriticalPath(0, Collections.emptyList());
+
+        private final long cost;
+
+        private final List<String> nodeIds;
+
+        CriticalPath(long cost, List<String> nodeIds) {
+            this.cost = cost;
+            this.nodeIds = nodeIds;
+        }
+
+        public long getCost() {
+            return cost;
+        }
+
+        public List<String> getNodeIds() {
+            return nodeIds;
+        }
+
+        /**
+         * 串行的若干段路径首尾相接
+         */
+        static CriticalPath sequence(List<CriticalPath> parts) {
+            long cost = 0;
+            int size = 0;
+            for (CriticalPath part : parts) {
+                cost += part.cost;
+                size += part.nodeIds.size();
+            }
+            List<String> ids = new ArrayList<>(size);
+            for (CriticalPath part : parts) {
+                ids.addAll(part.nodeIds);
+            }
+            return new CriticalPath(cost, ids);
+        }
+
+        CriticalPath max(CriticalPath other) {
+            return other != null && other.cost > cost ? other : this;
+        }
+    }
+}
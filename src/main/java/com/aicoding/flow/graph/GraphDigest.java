@@ -0,0 +1,90 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONUtil;
+import com.aicoding.flow.graph.model.GraphModel;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图内容摘要，内容相同的图得到相同的摘要
+ * 节点、连线按ID排序，忽略zIndex等仅与布局相关的字段
+ *
+ * @author gaoll
+ * @time 2025/6/3 10:20
+ **/
+public class GraphDigest {
+
+    private static final JSONConfig CANONICAL = JSONConfig.create().setNatureKeyComparator();
+
+    private static final char FIELD = '\u0001';
+    private static final char RECORD = '\u0002';
+
+    public static String digest(GraphModel graph) {
+        return digest(graph, new HashMap<>(), Collections.emptySet());
+    }
+
+    /**
+     * @param records 节点ID -> 节点摘要记录，未变更的节点直接复用，计算后回写
+     * @param dirtyIds 需要重新生成记录的节点
+     */
+    public static String digest(GraphModel graph, Map<String, String> records, Set<String> dirtyIds) {
+        StringBuilder sb = new StringBuilder(1024);
+        if (!CollectionUtils.isEmpty(graph.getNodes())) {
+            List<GraphModel.WorkNode> nodes = new ArrayList<>(graph.getNodes());
+            nodes.sort(Comparator.comparing(GraphModel.WorkNode::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (GraphModel.WorkNode node : nodes) {
+                String record = dirtyIds.contains(node.getId()) ? null : records.get(node.getId());
+                if (record == null) {
+                    record = nodeRecord(node);
+                    records.put(node.getId(), record);
+                }
+                sb.append(record);
+            }
+        }
+        if (!CollectionUtils.isEmpty(graph.getEdges())) {
+            List<String> edges = new ArrayList<>(graph.getEdges().size());
+            for (GraphModel.EdgeModel edge : graph.getEdges()) {
+                StringBuilder e = new StringBuilder(64);
+                e.append('E').append(FIELD).append(edge.getSource())
+                        .append(FIELD).append(edge.getSourceHandle())
+                        .append(FIELD).append(edge.getTarget())
+                        .append(FIELD).append(edge.getTargetHandle());
+                GraphModel.EdgeData data = edge.getData();
+                if (data != null) {
+                    e.append(FIELD).append(data.isInLoop())
+                            .append(FIELD).append(data.isInIteration())
+                            .append(FIELD).append(data.getLoopId());
+                }
+                edges.add(e.toString());
+            }
+            //连线ID由前端随机生成，按连线内容排序
+            edges.sort(Comparator.naturalOrder());
+            for (String edge : edges) {
+                sb.append(edge).append(RECORD);
+            }
+        }
+        return DigestUtil.sha256Hex(sb.toString());
+    }
+
+    private static String nodeRecord(GraphModel.WorkNode node) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append('N').append(FIELD).append(node.getId())
+                .append(FIELD).append(node.getType())
+                .append(FIELD).append(node.getParentId())
+                .append(FIELD).append(node.getTitle())
+                .append(FIELD);
+        if (node.getData() != null) {
+            sb.append(JSONUtil.parseObj(node.getData(), CANONICAL));
+        }
+        return sb.append(RECORD).toString();
+    }
+}
@@ -0,0 +1,321 @@
+package com.aicoding.flow.graph;
+
+import com.aicoding.flow.graph.model.GraphModel;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式读取流程图，逐个token直接填充编译所需的字段
+ * 节点位置、尺寸、选中状态等布局字段及未知字段直接跳过，不生成中间对象
+ *
+ * @author gaoll
+ * @time 2025/6/6 9:30
+ **/
+public class GraphModelReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private static final ObjectReader INPUT_VARIABLES = MAPPER.readerFor(new TypeReference<List<GraphModel.InputVariable>>() {
+    });
+    private static final ObjectReader BREAK_CONDITIONS = MAPPER.readerFor(new TypeReference<List<GraphModel.BreakCondition>>() {
+    });
+    private static final ObjectReader LOOP_VARIABLES = MAPPER.readerFor(new TypeReference<List<GraphModel.LoopVariable>>() {
+    });
+    private static final ObjectReader CONDITION_CASES = MAPPER.readerFor(new TypeReference<List<GraphModel.ConditionCase>>() {
+    });
+    private static final ObjectReader HTTP_CACHE = MAPPER.readerFor(GraphModel.HttpCache.class);
+
+    public static GraphModel read(String json) {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return read(parser);
+        } catch (IOException e) {
+            throw new RuntimeException("流程图解析失败", e);
+        }
+    }
+
+    public static GraphModel read(InputStream in) {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            return read(parser);
+        } catch (IOException e) {
+            throw new RuntimeException("流程图解析失败", e);
+        }
+    }
+
+    public static GraphModel read(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new RuntimeException("流程图必须是JSON对象");
+        }
+        GraphModel graph = new GraphModel();
+        readGraph(parser, graph);
+        return graph;
+    }
+
+    /**
+     * 兼容nodes、edges直接在根节点及包在graph字段中的两种格式
+     */
+    private static void readGraph(JsonParser parser, GraphModel graph) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("nodes".equals(name) && token == JsonToken.START_ARRAY) {
+                graph.setNodes(readNodes(parser));
+            } else if ("edges".equals(name) && token == JsonToken.START_ARRAY) {
+                graph.setEdges(readEdges(parser));
+            } else if ("graph".equals(name) && token == JsonToken.START_OBJECT) {
+                readGraph(parser, graph);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static List<GraphModel.WorkNode> readNodes(JsonParser parser) throws IOException {
+        List<GraphModel.WorkNode> nodes = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            GraphModel.WorkNode node = new GraphModel.WorkNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                switch (name) {
+                    case "id":
+                        node.setId(parser.getValueAsString());
+                        break;
+                    case "title":
+                        node.setTitle(parser.getValueAsString());
+                        break;
+                    case "type":
+                        node.setType(parser.getValueAsString());
+                        break;
+                    case "desc":
+                        node.setDesc(parser.getValueAsString());
+                        break;
+                    case "parentId":
+                        node.setParentId(parser.getValueAsString());
+                        break;
+                    case "data":
+                        if (token == JsonToken.START_OBJECT) {
+                            node.setData(readNodeData(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private static GraphModel.WorkNodeData readNodeData(JsonParser parser) throws IOException {
+        GraphModel.WorkNodeData data = new GraphModel.WorkNodeData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (name) {
+                case "breakConditions":
+                    data.setBreakConditions(readList(parser, token, BREAK_CONDITIONS));
+                    break;
+                case "desc":
+                    data.setDesc(parser.getValueAsString());
+                    break;
+                case "errorHandleMode":
+                    data.setErrorHandleMode(parser.getValueAsString());
+                    break;
+                case "logicalOperator":
+                    data.setLogicalOperator(parser.getValueAsString());
+                    break;
+                case "loopCount":
+                    data.setLoopCount(parser.getValueAsInt());
+                    break;
+                case "loopVariables":
+                    data.setLoopVariables(readList(parser, token, LOOP_VARIABLES));
+                    break;
+                case "variables":
+                    data.setVariables(readList(parser, token, INPUT_VARIABLES));
+                    break;
+                case "cases":
+                    data.setCases(readList(parser, token, CONDITION_CASES));
+                    break;
+                case "startNodeId":
+                    data.setStartNodeId(parser.getValueAsString());
+                    break;
+                case "title":
+                    data.setTitle(parser.getValueAsString());
+                    break;
+                case "type":
+                    data.setType(parser.getValueAsString());
+                    break;
+                case "answer":
+                    data.setAnswer(parser.getValueAsString());
+                    break;
+                case "url":
+                    data.setUrl(parser.getValueAsString());
+                    break;
+                case "method":
+                    data.setMethod(parser.getValueAsString());
+                    break;
+                case "requestBody":
+                    data.setRequestBody(readText(parser, token));
+                    break;
+                case "params":
+                    data.setParams(readList(parser, token, INPUT_VARIABLES));
+                    break;
+                case "headers":
+                    data.setHeaders(readList(parser, token, INPUT_VARIABLES));
+                    break;
+                case "cache":
+                    if (token == JsonToken.START_OBJECT) {
+                        data.setCache(HTTP_CACHE.readValue(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "code":
+                    data.setCode(readText(parser, token));
+                    break;
+                case "jsonValue":
+                    data.setJsonValue(readText(parser, token));
+                    break;
+                case "result":
+                    data.setResult(readList(parser, token, INPUT_VARIABLES));
+                    break;
+                case "delayMs":
+                    data.setDelayMs(token == JsonToken.VALUE_NULL ? null : parser.getValueAsLong());
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return data;
+    }
+
+    private static List<GraphModel.EdgeModel> readEdges(JsonParser parser) throws IOException {
+        List<GraphModel.EdgeModel> edges = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            GraphModel.EdgeModel edge = new GraphModel.EdgeModel();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                switch (name) {
+                    case "id":
+                        edge.setId(parser.getValueAsString());
+                        break;
+                    case "source":
+                        edge.setSource(parser.getValueAsString());
+                        break;
+                    case "sourceHandle":
+                        edge.setSourceHandle(parser.getValueAsString());
+                        break;
+                    case "target":
+                        edge.setTarget(parser.getValueAsString());
+                        break;
+                    case "targetHandle":
+                        edge.setTargetHandle(parser.getValueAsString());
+                        break;
+                    case "type":
+                        edge.setType(parser.getValueAsString());
+                        break;
+                    case "data":
+                        if (token == JsonToken.START_OBJECT) {
+                            edge.setData(readEdgeData(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            edges.add(edge);
+        }
+        return edges;
+    }
+
+    private static GraphModel.EdgeData readEdgeData(JsonParser parser) throws IOException {
+        GraphModel.EdgeData data = new GraphModel.EdgeData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "isInIteration":
+                    data.setInIteration(parser.getValueAsBoolean());
+                    break;
+                case "isInLoop":
+                    data.setInLoop(parser.getValueAsBoolean());
+                    break;
+                case "loopId":
+                    data.setLoopId(parser.getValueAsString());
+                    break;
+                case "sourceType":
+                    data.setSourceType(parser.getValueAsString());
+                    break;
+                case "targetType":
+                    data.setTargetType(parser.getValueAsString());
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return data;
+    }
+
+    private static <T> List<T> readList(JsonParser parser, JsonToken token, ObjectReader reader) throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        return reader.readValue(parser);
+    }
+
+    /**
+     * 文本字段为对象时保留原始JSON
+     */
+    private static String readText(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            return MAPPER.readTree(parser).toString();
+        }
+        return parser.getValueAsString();
+    }
+
+    /**
+     * 请求体直接绑定GraphModel时同样走流式读取
+     */
+    public static class Deserializer extends JsonDeserializer<GraphModel> {
+        @Override
+        public GraphModel deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return read(parser);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.core.util.StrUtil;
+import com.aicoding.flow.constants.NodeTypeConstant;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.graph.model.PruneReport;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译前的可达性剪枝
+ * <p>
+ * 主流程保留从开始节点可达、且能到达结束节点（end/answer）的节点，没有结束节点时只做前向可达；
+ * 循环体保留从循环入口可达的节点，所在循环被移除时整体移除；端点不存在的连线一并移除
+ *
+ * @author gaoll
+ * @time 2025/6/13 10:20
+ **/
+public class GraphPruner {
+
+    private GraphPruner() {
+    }
+
+    /**
+     * @param report 记录移除的节点和连线
+     * @return 剪枝后的图，没有可移除的内容时返回原图
+     */
+    public static GraphModel prune(GraphModel graph, PruneReport report) {
+        List<GraphModel.WorkNode> nodes = graph.getNodes() == null ? new ArrayList<>() : graph.getNodes();
+        List<GraphModel.EdgeModel> edges = graph.getEdges() == null ? new ArrayList<>() : graph.getEdges();
+
+        Map<String, GraphModel.WorkNode> nodeMap = new HashMap<>();
+        Map<String, List<GraphModel.WorkNode>> scopeNodes = new LinkedHashMap<>();
+        for (GraphModel.WorkNode node : nodes) {
+            nodeMap.put(node.getId(), node);
+            scopeNodes.computeIfAbsent(StrUtil.nullToEmpty(node.getParentId()), k -> new ArrayList<>()).add(node);
+        }
+        Map<String, List<GraphModel.EdgeModel>> scopeEdges = new HashMap<>();
+        for (GraphModel.EdgeModel edge : edges) {
+            GraphModel.WorkNode source = nodeMap.get(edge.getSource());
+            GraphModel.WorkNode target = nodeMap.get(edge.getTarget());
+            if (source != null && target != null
+                    && StrUtil.nullToEmpty(source.getParentId()).equals(StrUtil.nullToEmpty(target.getParentId()))) {
+                scopeEdges.computeIfAbsent(StrUtil.nullToEmpty(source.getParentId()), k -> new ArrayList<>()).add(edge);
+            }
+        }
+
+        Set<String> kept = new HashSet<>();
+        for (Map.Entry<String, List<GraphModel.WorkNode>> entry : scopeNodes.entrySet()) {
+            String scope = entry.getKey();
+            List<GraphModel.EdgeModel> se = scopeEdges.getOrDefault(scope, new ArrayList<>());
+            if (scope.isEmpty()) {
+                keepReachable(entry.getValue(), se, null, true, kept);
+            } else {
+                GraphModel.WorkNode loop = nodeMap.get(scope);
+                String entryId = loop == null || loop.getData() == null ? null : loop.getData().getStartNodeId();
+                keepReachable(entry.getValue(), se, entryId, false, kept);
+            }
+        }
+        //所在循环（逐层向上）被移除的节点一并移除
+        List<GraphModel.WorkNode> keptNodes = new ArrayList<>(nodes.size());
+        for (GraphModel.WorkNode node : nodes) {
+            if (kept.contains(node.getId()) && ancestorsKept(node, nodeMap, kept)) {
+                keptNodes.add(node);
+            } else {
+                report.getRemovedNodeIds().add(node.getId());
+            }
+        }
+        kept.removeAll(report.getRemovedNodeIds());
+        List<GraphModel.EdgeModel> keptEdges = new ArrayList<>(edges.size());
+        for (GraphModel.EdgeModel edge : edges) {
+            if (kept.contains(edge.getSource()) && kept.contains(edge.getTarget())) {
+                keptEdges.add(edge);
+            } else {
+                report.getRemovedEdgeIds().add(edge.getId() != null ? edge.getId() : edge.getSource() + "->" + edge.getTarget());
+            }
+        }
+        if (report.isEmpty()) {
+            return graph;
+        }
+        GraphModel pruned = new GraphModel();
+        pruned.setNodes(keptNodes);
+        pruned.setEdges(keptEdges);
+        return pruned;
+    }
+
+    /**
+     * @param entryId 作用域入口，为空时取开始节点（主流程）或循环开始节点
+     * @param toEnd   是否要求能到达结束节点
+     */
+    private static void keepReachable(List<GraphModel.WorkNode> nodes, List<GraphModel.EdgeModel> edges,
+                                      String entryId, boolean toEnd, Set<String> kept) {
+        CompactGraph.Builder builder = new CompactGraph.Builder(nodes.size());
+        BitSet entries = new BitSet(nodes.size());
+        BitSet ends = new BitSet(nodes.size());
+        for (GraphModel.WorkNode node : nodes) {
+            int v = builder.addNode(node.getId(), node.getType());
+            if (entryId != null ? entryId.equals(node.getId())
+                    : NodeTypeConstant.START.equals(node.getType()) || NodeTypeConstant.LOOP_START.equals(node.getType())) {
+                entries.set(v);
+            }
+            if (NodeTypeConstant.END.equals(node.getType()) || NodeTypeConstant.ANSWER.equals(node.getType())) {
+                ends.set(v);
+            }
+        }
+        for (GraphModel.EdgeModel edge : edges) {
+            builder.addEdge(builder.indexOf(edge.getSource()), builder.indexOf(edge.getTarget()));
+        }
+        CompactGraph graph = builder.build();
+        //没有入口时无法判断，整体保留，由编译阶段报错
+        if (entries.isEmpty()) {
+            for (GraphModel.WorkNode node : nodes) {
+                kept.add(node.getId());
+            }
+            return;
+        }
+        BitSet reachable = graph.reachableFrom(entries);
+        ends.and(reachable);
+        if (toEnd && !ends.isEmpty()) {
+            reachable.and(graph.reverse().reachableFrom(ends));
+        }
+        for (int v = reachable.nextSetBit(0); v >= 0; v = reachable.nextSetBit(v + 1)) {
+            kept.add(graph.id(v));
+        }
+    }
+
+    private static boolean ancestorsKept(GraphModel.WorkNode node, Map<String, GraphModel.WorkNode> nodeMap, Set<String> kept) {
+        String parentId = node.getParentId();
+        int depth = 0;
+        while (StrUtil.isNotEmpty(parentId) && depth++ <= nodeMap.size()) {
+            if (!kept.contains(parentId)) {
+                return false;
+            }
+            GraphModel.WorkNode parent = nodeMap.get(parentId);
+            parentId = parent == null ? null : parent.getParentId();
+        }
+        return true;
+    }
+}
@@ -1,20 +1,118 @@
 package com.aicoding.flow.graph;
 
-import cn.hutool.json.JSONUtil;
+import com.aicoding.flow.graph.model.CompiledChain;
+import com.aicoding.flow.graph.model.GraphDelta;
 import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.graph.model.PruneReport;
+import com.aicoding.flow.workflow.ReplyPlan;
+import com.aicoding.flow.workflow.VariableSlots;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * @author gaoll
  * @time 2025/5/22 15:48
  **/
 @Service
 public class GraphService {
+
+    @Autowired
+    private CompiledChainCache chainCache;
+
+    @Value("${workflow.compile.auto-parallel:false}")
+    private boolean autoParallel;
+
+    @Value("${workflow.compile.prune:true}")
+    private boolean prune;
+
     public String createEl(String json) {
-        GraphModel graph = JSONUtil.toBean(json, GraphModel.class);
-        //TODO:
-        return "";
+        GraphModel graph = GraphModelReader.read(json);
+        return createEl(graph);
+    }
+
+    public String createEl(InputStream in) {
+        return createEl(GraphModelReader.read(in));
+    }
+
+    public String createEl(GraphModel graph) {
+        return compile(graph).getEl();
+    }
+
+    /**
+     * 编译图，内容未变化的图直接命中缓存
+     */
+    public CompiledChain compile(GraphModel graph) {
+        Map<String, String> records = new HashMap<>();
+        String digest = GraphDigest.digest(graph, records, Collections.emptySet());
+        return chainCache.computeIfAbsent(digest, key -> {
+            PruneReport report = new PruneReport();
+            GraphModel pruned = prune(graph, report);
+            ElFragments fragments = ElCompiler.compile(pruned, null, Collections.emptySet(), autoParallel);
+            return doCompile(key, graph, pruned, records, fragments, report);
+        });
+    }
+
+    /**
+     * 增量编译，只重新生成变更节点所在区域的EL，其余区域的EL片段和未变更节点的摘要记录复用上一次的编译结果。
+     * 以下步骤仍按整张图执行，耗时与全量编译同为O(V+E)：应用变更复制图、摘要的排序和SHA-256、剪枝、
+     * 紧凑图和后支配树的构建、变量槽位表、回复计划和节点绑定参数。节省的只是未受影响区域EL的生成
+     */
+    public CompiledChain recompile(GraphDelta delta) {
+        CompiledChain previous = chainCache.get(delta.getDigest());
+        if (previous == null || previous.getGraph() == null) {
+            throw new RuntimeException("编译结果" + delta.getDigest() + "已失效，请重新全量编译");
+        }
+        GraphModel graph = delta.apply(previous.getGraph());
+        Set<String> affected = delta.affectedIds();
+        Map<String, String> records = new HashMap<>(previous.getNodeRecords());
+        String digest = GraphDigest.digest(graph, records, affected);
+        return chainCache.computeIfAbsent(digest, key -> {
+            PruneReport report = new PruneReport();
+            GraphModel pruned = prune(graph, report);
+            //剪掉的节点有变化时，受影响的区域不止变更节点周围，改为全量编译
+            PruneReport before = previous.getPruneReport();
+            boolean samePruned = before == null ? report.isEmpty()
+                    : new HashSet<>(before.getRemovedNodeIds()).equals(new HashSet<>(report.getRemovedNodeIds()));
+            ElFragments fragments = samePruned
+                    ? ElCompiler.compile(pruned, previous.getFragments(), affected, autoParallel)
+                    : ElCompiler.compile(pruned, null, Collections.emptySet(), autoParallel);
+            return doCompile(key, graph, pruned, records, fragments, report);
+        });
+    }
+
+    /**
+     * 移除不可达、到达不了结束节点的节点和连线
+     */
+    private GraphModel prune(GraphModel graph, PruneReport report) {
+        return prune ? GraphPruner.prune(graph, report) : graph;
+    }
 
+    private CompiledChain doCompile(String digest, GraphModel graph, GraphModel pruned, Map<String, String> records,
+                                    ElFragments fragments, PruneReport report) {
+        VariableSlots slots = VariableSlots.build(pruned);
+        CompiledChain chain = new CompiledChain(digest, fragments.getEl());
+        chain.setGraph(graph);
+        chain.setFragments(fragments);
+        chain.setNodeRecords(records);
+        chain.setPruneReport(report);
+        chain.setSlots(slots);
+        chain.setReplyPlan(ReplyPlan.build(pruned, slots));
+        chain.setBindParams(NodeDslFactory.createAll(pruned, slots));
+        chain.setSegments(fragments.getSegments());
+        chain.setSuspendNodeIds(fragments.getSuspendIds());
+        if (fragments.getCriticalPath() != null) {
+            chain.setCriticalPathCost(fragments.getCriticalPath().getCost());
+            chain.setCriticalPath(fragments.getCriticalPath().getNodeIds());
+        }
+        return chain;
     }
 
 
@@ -0,0 +1,102 @@
+package com.aicoding.flow.graph;
+
+import com.aicoding.flow.graph.model.EdgeTree;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * EdgeTree叶子节点索引，一次后序遍历算出每个节点的叶子集合（{@link EdgeTree#getLastChildren()}的语义）
+ * <p>
+ * 集合以BitSet保存，单子节点的结果按子节点共享；汇聚的分支只计算一次，查询为O(1)
+ * 相同ID的子树视为同一个节点
+ *
+ * @author gaoll
+ * @time 2025/6/11 14:05
+ **/
+public class LeafSetIndex {
+
+    private static final BitSet EMPTY = new BitSet(0);
+
+    private final CompactGraph graph;
+
+    private final EdgeTree[] trees;
+
+    private final BitSet[] leafSets;
+
+    /**
+     * 按下标缓存的叶子节点列表，首次查询时生成
+     */
+    private final List<List<EdgeTree>> leafLists;
+
+    private LeafSetIndex(CompactGraph graph, EdgeTree[] trees) {
+        this.graph = graph;
+        this.trees = trees;
+        int n = graph.size();
+        leafSets = new BitSet[n];
+        leafLists = new ArrayList<>(Collections.<List<EdgeTree>>nCopies(n, null));
+        BitSet[] singletons = new BitSet[n];
+        int[] order = DominatorTree.reversePostOrder(0, graph);
+        //逆后序倒过来即后序，子节点先于父节点
+        for (int i = order.length - 1; i >= 0; i--) {
+            int v = order[i];
+            int degree = graph.outDegree(v);
+            if (degree == 0) {
+                leafSets[v] = EMPTY;
+            } else if (degree == 1) {
+                int child = graph.successor(v, 0);
+                if (singletons[child] == null) {
+                    singletons[child] = new BitSet(n);
+                    singletons[child].set(child);
+                }
+                leafSets[v] = singletons[child];
+            } else {
+                BitSet set = new BitSet(n);
+                for (int k = 0; k < degree; k++) {
+                    set.or(leafSets[graph.successor(v, k)]);
+                }
+                leafSets[v] = set;
+            }
+        }
+    }
+
+    /**
+     * 对整棵树构建索引，之后树上任一节点的查询都为O(1)；树被修改后需要重新构建
+     */
+    public static LeafSetIndex of(EdgeTree root) {
+        List<EdgeTree> trees = new ArrayList<>();
+        CompactGraph graph = CompactGraph.of(root, trees);
+        return new LeafSetIndex(graph, trees.toArray(new EdgeTree[0]));
+    }
+
+    /**
+     * 节点的叶子集合（按图中下标），结果共享，调用方不可修改
+     */
+    public BitSet leafSet(String id) {
+        int v = graph.indexOf(id);
+        return v < 0 ? EMPTY : leafSets[v];
+    }
+
+    /**
+     * 节点的叶子节点，按ID去重，按深度优先遍历中首次出现的顺序排列，结果只读
+     */
+    public List<EdgeTree> lastChildren(String id) {
+        int v = graph.indexOf(id);
+        if (v < 0) {
+            return Collections.emptyList();
+        }
+        List<EdgeTree> list = leafLists.get(v);
+        if (list == null) {
+            BitSet set = leafSets[v];
+            list = new ArrayList<>(set.cardinality());
+            for (int leaf = set.nextSetBit(0); leaf >= 0; leaf = set.nextSetBit(leaf + 1)) {
+                list.add(trees[leaf]);
+            }
+            list = Collections.unmodifiableList(list);
+            leafLists.set(v, list);
+        }
+        return list;
+    }
+}
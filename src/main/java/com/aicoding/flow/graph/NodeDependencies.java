@@ -0,0 +1,52 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.json.JSONUtil;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.utils.VariableExtractor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 节点间的数据依赖，由节点配置中的变量选择器得出
+ *
+ * @author gaoll
+ * @time 2025/6/9 10:15
+ **/
+public class NodeDependencies {
+
+    /**
+     * 节点引用了哪些节点的输出
+     */
+    public static Set<String> referencedNodeIds(GraphModel.WorkNode node) {
+        Set<String> ids = new HashSet<>();
+        GraphModel.WorkNodeData data = node.getData();
+        if (data == null) {
+            return ids;
+        }
+        //模板中的{{#nodeId.var#}}
+        VariableExtractor.extractNodeIds(JSONUtil.toJsonStr(data), ids);
+        //条件中的变量选择器以数组形式保存
+        addSelectors(data.getBreakConditions(), ids);
+        if (data.getCases() != null) {
+            for (GraphModel.ConditionCase conditionCase : data.getCases()) {
+                addSelectors(conditionCase.getConditions(), ids);
+            }
+        }
+        ids.remove(node.getId());
+        return ids;
+    }
+
+    private static void addSelectors(List<GraphModel.BreakCondition> conditions, Set<String> ids) {
+        if (conditions == null) {
+            return;
+        }
+        for (GraphModel.BreakCondition condition : conditions) {
+            List<String> selector = condition.getVariableSelector();
+            if (selector != null && !selector.isEmpty()) {
+                ids.add(selector.get(0));
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.core.util.StrUtil;
+import com.aicoding.flow.constants.NodeTypeConstant;
+import com.aicoding.flow.constants.OperatorConstant;
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.node.condition.ConditionPredicates;
+import com.aicoding.flow.node.extract.JsonExtractor;
+import com.aicoding.flow.node.dsl.CodeNodeDsl;
+import com.aicoding.flow.node.dsl.CommonNodeDsl;
+import com.aicoding.flow.node.dsl.ConditionNodeDsl;
+import com.aicoding.flow.node.dsl.EndNodeDsl;
+import com.aicoding.flow.node.dsl.HttpNodeDsl;
+import com.aicoding.flow.node.dsl.JsonExtractNodeDsl;
+import com.aicoding.flow.node.dsl.SleepNodeDsl;
+import com.aicoding.flow.node.dsl.WhileConditionNodeDsl;
+import com.aicoding.flow.node.model.ConditionModel;
+import com.aicoding.flow.node.model.ParamModel;
+import com.aicoding.flow.utils.VariableTemplate;
+import com.aicoding.flow.workflow.VariableSlots;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将画布节点数据转换为节点绑定参数
+ *
+ * @author gaoll
+ * @time 2025/6/4 10:05
+ **/
+public class NodeDslFactory {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    public static CommonNodeDsl create(GraphModel.WorkNode node) {
+        GraphModel.WorkNodeData data = node.getData() == null ? new GraphModel.WorkNodeData() : node.getData();
+        CommonNodeDsl dsl;
+        switch (StrUtil.nullToEmpty(node.getType())) {
+            case NodeTypeConstant.START:
+                dsl = new CommonNodeDsl();
+                dsl.setParams(toParams(data.getVariables()));
+                break;
+            case NodeTypeConstant.END:
+            case NodeTypeConstant.ANSWER:
+                EndNodeDsl endDsl = new EndNodeDsl();
+                endDsl.setReply(data.getAnswer());
+                dsl = endDsl;
+                break;
+            case NodeTypeConstant.HTTP_REQUEST:
+                HttpNodeDsl httpDsl = new HttpNodeDsl();
+                httpDsl.setMethod(data.getMethod());
+                httpDsl.setUrl(data.getUrl());
+                httpDsl.setBody(data.getRequestBody());
+                httpDsl.setReqParams(toHttpParams(data.getParams()));
+                httpDsl.setHeaders(toHttpHeaders(data.getHeaders()));
+                httpDsl.setCache(toHttpCache(data.getCache()));
+                dsl = httpDsl;
+                break;
+            case NodeTypeConstant.CODE:
+                CodeNodeDsl codeDsl = new CodeNodeDsl();
+                codeDsl.setScript(data.getCode());
+                codeDsl.setParams(toParams(data.getVariables()));
+                dsl = codeDsl;
+                break;
+            case NodeTypeConstant.JSON_EXTRACT:
+                JsonExtractNodeDsl extractDsl = new JsonExtractNodeDsl();
+                extractDsl.setJsonValue(data.getJsonValue());
+                extractDsl.setVarType(isSelector(data.getJsonValue()) ? VarConstant.SELECTOR : VarConstant.CONSTANT);
+                extractDsl.setResult(toResults(data.getResult()));
+                // 提前编译，路径不合法时在生成链路时报错
+                extractDsl.setExtractor(JsonExtractor.compile(extractDsl.getResult()));
+                dsl = extractDsl;
+                break;
+            case NodeTypeConstant.SLEEP:
+                SleepNodeDsl sleepDsl = new SleepNodeDsl();
+                if (data.getDelayMs() != null) {
+                    if (data.getDelayMs() < 0) {
+                        throw new RuntimeException("节点" + node.getId() + "等待时长不能小于0");
+                    }
+                    sleepDsl.setDelayMs(data.getDelayMs());
+                }
+                dsl = sleepDsl;
+                break;
+            case NodeTypeConstant.LOOP:
+                WhileConditionNodeDsl whileDsl = new WhileConditionNodeDsl();
+                whileDsl.setLogicalOperator(data.getLogicalOperator());
+                whileDsl.setConditions(toConditions(data.getBreakConditions()));
+                whileDsl.setMaxLoopCount(data.getLoopCount());
+                whileDsl.setParams(toLoopParams(data.getLoopVariables()));
+                dsl = whileDsl;
+                break;
+            default:
+                dsl = new CommonNodeDsl();
+                dsl.setParams(toParams(data.getVariables()));
+                break;
+        }
+        fillCommon(dsl, node);
+        return dsl;
+    }
+
+    /**
+     * 生成链路中全部节点的绑定参数，键与EL中的tag一致：普通节点为节点ID，条件分支为 节点ID-分支ID
+     */
+    public static Map<String, CommonNodeDsl> createAll(GraphModel graph, VariableSlots slots) {
+        Map<String, CommonNodeDsl> params = new HashMap<>();
+        if (graph.getNodes() == null) {
+            return params;
+        }
+        for (GraphModel.WorkNode node : graph.getNodes()) {
+            if (!NodeTypeConstant.IF_ELSE.equals(node.getType())) {
+                params.put(node.getId(), prepare(create(node), slots));
+                continue;
+            }
+            List<GraphModel.ConditionCase> cases = node.getData() == null ? null : node.getData().getCases();
+            if (cases != null) {
+                for (GraphModel.ConditionCase conditionCase : cases) {
+                    params.put(node.getId() + "-" + conditionCase.getCaseId(), prepare(createCase(node, conditionCase), slots));
+                }
+            }
+        }
+        return params;
+    }
+
+    /**
+     * 编译参数中含变量的文本、条件判断和JSON提取路径，结果保存在参数对象上，执行时直接使用，不再延迟初始化。
+     * 编译结果生成的参数和从EL反序列化的参数都要经过这里，之后只读，可被并发执行共享
+     *
+     * @param slots 不为空时模板绑定到该槽位表，执行时直接按下标读取变量
+     */
+    public static <T> T prepare(T dsl, VariableSlots slots) {
+        if (dsl instanceof CommonNodeDsl) {
+            prepareParams(((CommonNodeDsl) dsl).getParams(), slots);
+        }
+        if (dsl instanceof EndNodeDsl) {
+            EndNodeDsl endDsl = (EndNodeDsl) dsl;
+            endDsl.setReplyTemplate(template(endDsl.getReply(), slots));
+        } else if (dsl instanceof HttpNodeDsl) {
+            HttpNodeDsl httpDsl = (HttpNodeDsl) dsl;
+            httpDsl.setUrlTemplate(template(httpDsl.getUrl(), slots));
+            httpDsl.setBodyTemplate(template(httpDsl.getBody(), slots));
+            if (httpDsl.getReqParams() != null) {
+                for (HttpNodeDsl.HttpParam param : httpDsl.getReqParams()) {
+                    param.setValueTemplate(template(param.getValue(), slots));
+                }
+            }
+            if (httpDsl.getHeaders() != null) {
+                for (HttpNodeDsl.HttpHeader header : httpDsl.getHeaders()) {
+                    header.setValueTemplate(template(header.getValue(), slots));
+                }
+            }
+        } else if (dsl instanceof JsonExtractNodeDsl) {
+            JsonExtractNodeDsl extractDsl = (JsonExtractNodeDsl) dsl;
+            extractDsl.setJsonValueTemplate(template(extractDsl.getJsonValue(), slots));
+            if (extractDsl.getExtractor() == null) {
+                extractDsl.setExtractor(JsonExtractor.compile(extractDsl.getResult()));
+            }
+        } else if (dsl instanceof WhileConditionNodeDsl) {
+            prepareConditions(((WhileConditionNodeDsl) dsl).getConditions(), slots);
+        } else if (dsl instanceof ConditionNodeDsl) {
+            prepareCondition((ConditionNodeDsl) dsl, slots);
+        }
+        return dsl;
+    }
+
+    private static void prepareCondition(ConditionNodeDsl dsl, VariableSlots slots) {
+        prepareConditions(dsl.getConditions(), slots);
+        if (dsl.getChildren() != null) {
+            for (ConditionNodeDsl child : dsl.getChildren()) {
+                prepareCondition(child, slots);
+            }
+        }
+    }
+
+    private static void prepareConditions(List<ConditionModel> conditions, VariableSlots slots) {
+        if (conditions == null) {
+            return;
+        }
+        for (ConditionModel condition : conditions) {
+            condition.setLeftTemplate(template(condition.getLeftValueSelector(), slots));
+            condition.setRightTemplate(template(condition.getRightValueSelector(), slots));
+            if (condition.getPredicate() == null) {
+                condition.setPredicate(ConditionPredicates.compile(condition));
+            }
+        }
+    }
+
+    private static void prepareParams(List<ParamModel> params, VariableSlots slots) {
+        if (params == null) {
+            return;
+        }
+        for (ParamModel param : params) {
+            if (VarConstant.SELECTOR.equals(param.getVarType())) {
+                param.setValueTemplate(template(param.getValue(), slots));
+            }
+        }
+    }
+
+    private static VariableTemplate template(String text, VariableSlots slots) {
+        if (text == null) {
+            return null;
+        }
+        VariableTemplate template = VariableTemplate.compile(text);
+        return slots == null ? template : slots.bound(template);
+    }
+
+    /**
+     * 条件节点的每个分支单独生成一个条件参数
+     */
+    public static ConditionNodeDsl createCase(GraphModel.WorkNode node, GraphModel.ConditionCase conditionCase) {
+        ConditionNodeDsl dsl = new ConditionNodeDsl();
+        fillCommon(dsl, node);
+        dsl.setLogicalOperator(StrUtil.blankToDefault(conditionCase.getLogicalOperator(), OperatorConstant.AND));
+        dsl.setConditions(toConditions(conditionCase.getConditions()));
+        return dsl;
+    }
+
+    public static String toJson(CommonNodeDsl dsl) {
+        try {
+            return MAPPER.writeValueAsString(dsl);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("节点" + dsl.getId() + "参数序列化失败", e);
+        }
+    }
+
+    private static void fillCommon(CommonNodeDsl dsl, GraphModel.WorkNode node) {
+        dsl.setId(node.getId());
+        dsl.setName(node.getTitle());
+        dsl.setNodeName(node.getTitle());
+        dsl.setNodeType(node.getType());
+    }
+
+    private static List<ParamModel> toParams(List<GraphModel.InputVariable> variables) {
+        if (CollectionUtils.isEmpty(variables)) {
+            return null;
+        }
+        List<ParamModel> params = new ArrayList<>(variables.size());
+        for (GraphModel.InputVariable variable : variables) {
+            ParamModel param = new ParamModel();
+            param.setName(variable.getVariable());
+            param.setLabel(variable.getLabel());
+            param.setDataType(VarConstant.NUMBER.equals(variable.getType()) ? VarConstant.NUMBER : VarConstant.STRING);
+            param.setVarType(isSelector(variable.getValue()) ? VarConstant.SELECTOR : VarConstant.CONSTANT);
+            param.setRequired(variable.isRequired());
+            param.setValue(variable.getValue());
+            params.add(param);
+        }
+        return params;
+    }
+
+    /**
+     * 循环变量，value_type为variable或值为变量引用时按变量读取
+     */
+    private static List<ParamModel> toLoopParams(List<GraphModel.LoopVariable> variables) {
+        if (CollectionUtils.isEmpty(variables)) {
+            return null;
+        }
+        List<ParamModel> params = new ArrayList<>(variables.size());
+        for (GraphModel.LoopVariable variable : variables) {
+            ParamModel param = new ParamModel();
+            param.setName(variable.getLabel());
+            param.setLabel(variable.getLabel());
+            boolean selector = "variable".equals(variable.getValueType()) || isSelector(variable.getValue());
+            param.setVarType(selector ? VarConstant.SELECTOR : VarConstant.CONSTANT);
+            param.setValue(variable.getValue());
+            params.add(param);
+        }
+        return params;
+    }
+
+    /**
+     * 提取结果，value为JSON路径，类型保留画布中的设置
+     */
+    private static List<ParamModel> toResults(List<GraphModel.InputVariable> variables) {
+        if (CollectionUtils.isEmpty(variables)) {
+            return null;
+        }
+        List<ParamModel> results = new ArrayList<>(variables.size());
+        for (GraphModel.InputVariable variable : variables) {
+            ParamModel result = new ParamModel();
+            result.setName(variable.getVariable());
+            result.setLabel(variable.getLabel());
+            result.setDataType(StrUtil.blankToDefault(variable.getType(), VarConstant.STRING));
+            result.setRequired(variable.isRequired());
+            result.setValue(variable.getValue());
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static List<HttpNodeDsl.HttpParam> toHttpParams(List<GraphModel.InputVariable> variables) {
+        if (CollectionUtils.isEmpty(variables)) {
+            return null;
+        }
+        List<HttpNodeDsl.HttpParam> params = new ArrayList<>(variables.size());
+        for (GraphModel.InputVariable variable : variables) {
+            HttpNodeDsl.HttpParam param = new HttpNodeDsl.HttpParam();
+            param.setName(variable.getVariable());
+            param.setValue(variable.getValue());
+            params.add(param);
+        }
+        return params;
+    }
+
+    private static List<HttpNodeDsl.HttpHeader> toHttpHeaders(List<GraphModel.InputVariable> variables) {
+        if (CollectionUtils.isEmpty(variables)) {
+            return null;
+        }
+        List<HttpNodeDsl.HttpHeader> headers = new ArrayList<>(variables.size());
+        for (GraphModel.InputVariable variable : variables) {
+            HttpNodeDsl.HttpHeader header = new HttpNodeDsl.HttpHeader();
+            header.setName(variable.getVariable());
+            header.setValue(variable.getValue());
+            headers.add(header);
+        }
+        return headers;
+    }
+
+    private static HttpNodeDsl.HttpCache toHttpCache(GraphModel.HttpCache cache) {
+        if (cache == null || cache.getTtlMs() <= 0) {
+            return null;
+        }
+        HttpNodeDsl.HttpCache httpCache = new HttpNodeDsl.HttpCache();
+        httpCache.setTtlMs(cache.getTtlMs());
+        if (cache.getMaxEntries() != null) {
+            httpCache.setMaxEntries(cache.getMaxEntries());
+        }
+        if (cache.getMaxBytes() != null) {
+            httpCache.setMaxBytes(cache.getMaxBytes());
+        }
+        return httpCache;
+    }
+
+    private static List<ConditionModel> toConditions(List<GraphModel.BreakCondition> conditions) {
+        if (CollectionUtils.isEmpty(conditions)) {
+            return null;
+        }
+        List<ConditionModel> models = new ArrayList<>(conditions.size());
+        for (GraphModel.BreakCondition condition : conditions) {
+            ConditionModel model = new ConditionModel();
+            model.setOperation(condition.getComparisonOperator());
+            model.setDataType(condition.getVarType());
+            model.setLeftValueSelector(condition.getVariableSelectorString());
+            model.setRightVarType(isSelector(condition.getValue()) ? VarConstant.SELECTOR : VarConstant.CONSTANT);
+            model.setRightValueSelector(condition.getValue());
+            // 提前编译，常量不合法时在生成链路时报错
+            model.setPredicate(ConditionPredicates.compile(model));
+            models.add(model);
+        }
+        return models;
+    }
+
+    private static boolean isSelector(String value) {
+        return value != null && value.startsWith(VarConstant.SELECTOR_START) && value.endsWith(VarConstant.SELECTOR_END);
+    }
+}
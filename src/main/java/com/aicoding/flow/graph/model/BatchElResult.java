@@ -0,0 +1,28 @@
+package com.aicoding.flow.graph.model;
+
+import lombok.Data;
+
+/**
+ * 批量编译中单个图的结果
+ * @author gaoll
+ * @time 2025/6/6 15:10
+ **/
+@Data
+public class BatchElResult {
+
+    /**
+     * 图在请求中的序号，从0开始
+     */
+    private int index;
+
+    private String digest;
+
+    private String chainId;
+
+    private String el;
+
+    /**
+     * 编译失败原因，成功时为空
+     */
+    private String error;
+}
@@ -0,0 +1,127 @@
+package com.aicoding.flow.graph.model;
+
+import com.aicoding.flow.graph.ElFragments;
+import com.aicoding.flow.node.dsl.CommonNodeDsl;
+import com.aicoding.flow.workflow.ReplyPlan;
+import com.aicoding.flow.workflow.VariableSlots;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的流程链
+ * @author gaoll
+ * @time 2025/6/3 10:12
+ **/
+@Data
+public class CompiledChain {
+
+    private static final String SEGMENT = "_seg";
+
+    /**
+     * 图内容摘要
+     */
+    private String digest;
+
+    /**
+     * 注册到LiteFlow中的链路ID
+     */
+    private String chainId;
+
+    /**
+     * 编译得到的EL表达式
+     */
+    private String el;
+
+    /**
+     * 静态关键路径上的节点及估算耗时
+     */
+    private List<String> criticalPath;
+
+    private long criticalPathCost;
+
+    /**
+     * 编译前剪枝移除的节点和连线
+     */
+    private PruneReport pruneReport;
+
+    /**
+     * 编译时的图及中间结果，用于增量编译
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private GraphModel graph;
+
+    @JsonIgnore
+    @ToString.Exclude
+    private ElFragments fragments;
+
+    @JsonIgnore
+    @ToString.Exclude
+    private Map<String, String> nodeRecords;
+
+    /**
+     * 变量槽位表，执行时按此创建上下文
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private VariableSlots slots;
+
+    /**
+     * 节点绑定参数，键为节点tag，执行时直接复用，不再从EL中的JSON反序列化
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private Map<String, CommonNodeDsl> bindParams;
+
+    /**
+     * 回复节点的流式输出计划
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private ReplyPlan replyPlan;
+
+    /**
+     * 按等待节点拆分后的各段EL，第i段以第i个挂起点结尾，最后一段可能为空；没有挂起点时为空
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private List<String> segments;
+
+    /**
+     * 挂起点，即主流程顺序部分中的等待节点
+     */
+    private List<String> suspendNodeIds;
+
+    public CompiledChain(String digest, String el) {
+        this.digest = digest;
+        this.chainId = "wf_" + digest.substring(0, 32);
+        this.el = el;
+    }
+
+    /**
+     * 是否可以分段执行
+     */
+    @JsonIgnore
+    public boolean isSegmented() {
+        return segments != null && !segments.isEmpty();
+    }
+
+    /**
+     * 第index段注册到LiteFlow中的链路ID
+     */
+    public String segmentChainId(int index) {
+        return chainId + SEGMENT + index;
+    }
+
+    /**
+     * 分段的链路ID转换为所属流程的链路ID，其他链路ID原样返回
+     */
+    public static String ownerChainId(String chainId) {
+        int index = chainId == null ? -1 : chainId.lastIndexOf(SEGMENT);
+        return index < 0 ? chainId : chainId.substring(0, index);
+    }
+}
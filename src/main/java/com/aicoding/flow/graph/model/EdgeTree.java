@@ -1,9 +1,8 @@
 package com.aicoding.flow.graph.model;
 
+import com.aicoding.flow.graph.LeafSetIndex;
 import lombok.Data;
-import org.springframework.util.CollectionUtils;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -20,24 +19,14 @@ public class EdgeTree {
 
     private String type;
 
-
-
-
+    /**
+     * 叶子节点：只有一个子节点时为该子节点，多个子节点时为各子节点叶子的并集
+     * <p>
+     * 每次调用对子树遍历一次，汇聚的分支只计算一次，结果按ID去重且只读。不缓存，修改子节点后结果随之变化；
+     * 需要查询同一棵树上多个节点时对根节点构建一次{@link LeafSetIndex}
+     */
     public List<EdgeTree> getLastChildren() {
-        //如果没有子节点，那么就没有叶子节点
-        if (CollectionUtils.isEmpty(children)) {
-            return new ArrayList<>();
-        }
-        //如果只有一个子节点，那么下一个节点就是叶子节点
-        if (children.size() == 1) {
-            return children;
-        }
-        List<EdgeTree> trees = new ArrayList<>();
-        for (EdgeTree child : children) {
-            trees.addAll(child.getLastChildren());
-        }
-        return trees;
-
+        return LeafSetIndex.of(this).lastChildren(id);
     }
 
     @Override
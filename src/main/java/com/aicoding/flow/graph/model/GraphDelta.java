@@ -0,0 +1,120 @@
+package com.aicoding.flow.graph.model;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.Data;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图变更，修改节点按删除旧节点、新增新节点表示
+ * @author gaoll
+ * @time 2025/6/5 10:30
+ **/
+@Data
+public class GraphDelta {
+
+    /**
+     * 上一次编译结果的摘要
+     */
+    private String digest;
+
+    private List<GraphModel.WorkNode> addedNodes;
+
+    private List<GraphModel.WorkNode> removedNodes;
+
+    private List<GraphModel.EdgeModel> addedEdges;
+
+    private List<GraphModel.EdgeModel> removedEdges;
+
+    /**
+     * 在上一次的图上应用变更，得到新图
+     */
+    public GraphModel apply(GraphModel previous) {
+        Map<String, GraphModel.WorkNode> nodes = new LinkedHashMap<>();
+        if (previous.getNodes() != null) {
+            for (GraphModel.WorkNode node : previous.getNodes()) {
+                nodes.put(node.getId(), node);
+            }
+        }
+        if (removedNodes != null) {
+            for (GraphModel.WorkNode node : removedNodes) {
+                nodes.remove(node.getId());
+            }
+        }
+        if (addedNodes != null) {
+            for (GraphModel.WorkNode node : addedNodes) {
+                nodes.put(node.getId(), node);
+            }
+        }
+        Map<String, GraphModel.EdgeModel> edges = new LinkedHashMap<>();
+        if (previous.getEdges() != null) {
+            for (GraphModel.EdgeModel edge : previous.getEdges()) {
+                edges.put(edgeKey(edge), edge);
+            }
+        }
+        if (removedEdges != null) {
+            for (GraphModel.EdgeModel edge : removedEdges) {
+                edges.remove(edgeKey(edge));
+            }
+        }
+        if (addedEdges != null) {
+            for (GraphModel.EdgeModel edge : addedEdges) {
+                edges.put(edgeKey(edge), edge);
+            }
+        }
+        //删除节点时一并删除其连线
+        if (!CollectionUtils.isEmpty(removedNodes)) {
+            edges.values().removeIf(edge -> !nodes.containsKey(edge.getSource()) || !nodes.containsKey(edge.getTarget()));
+        }
+        GraphModel graph = new GraphModel();
+        graph.setNodes(new ArrayList<>(nodes.values()));
+        graph.setEdges(new ArrayList<>(edges.values()));
+        return graph;
+    }
+
+    /**
+     * 受影响的节点：变更的节点、其所在循环，以及变更连线两端的节点（含条件分支）
+     */
+    public Set<String> affectedIds() {
+        Set<String> ids = new HashSet<>();
+        addNodeIds(ids, addedNodes);
+        addNodeIds(ids, removedNodes);
+        addEdgeIds(ids, addedEdges);
+        addEdgeIds(ids, removedEdges);
+        return ids;
+    }
+
+    private static void addNodeIds(Set<String> ids, List<GraphModel.WorkNode> nodes) {
+        if (nodes == null) {
+            return;
+        }
+        for (GraphModel.WorkNode node : nodes) {
+            ids.add(node.getId());
+            if (StrUtil.isNotEmpty(node.getParentId())) {
+                ids.add(node.getParentId());
+            }
+        }
+    }
+
+    private static void addEdgeIds(Set<String> ids, List<GraphModel.EdgeModel> edges) {
+        if (edges == null) {
+            return;
+        }
+        for (GraphModel.EdgeModel edge : edges) {
+            ids.add(edge.getSource());
+            ids.add(edge.getSourceId());
+            ids.add(edge.getTarget());
+            ids.add(edge.getTargetId());
+        }
+    }
+
+    private static String edgeKey(GraphModel.EdgeModel edge) {
+        return edge.getSourceId() + "->" + edge.getTargetId();
+    }
+}
@@ -1,11 +1,14 @@
 package com.aicoding.flow.graph.model;
 
+import com.aicoding.flow.graph.GraphModelReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import org.springframework.util.CollectionUtils;
 
 import java.util.List;
 
 @Data
+@JsonDeserialize(using = GraphModelReader.Deserializer.class)
 public class GraphModel {
     private List<EdgeModel> edges;
     private List<WorkNode> nodes;
@@ -74,6 +77,12 @@ public class GraphModel {
         private String method;
         private String requestBody;
         private List<InputVariable> params;
+        private List<InputVariable> headers;
+        private HttpCache cache;
+        private String code;
+        private String jsonValue;
+        private List<InputVariable> result;
+        private Long delayMs;
     }
 
     @Data
@@ -102,6 +111,13 @@ public class GraphModel {
         private String numberVarType;
     }
 
+    @Data
+    public static class HttpCache {
+        private long ttlMs;
+        private Integer maxEntries;
+        private Long maxBytes;
+    }
+
     @Data
     public static class LoopVariable {
         private String id;
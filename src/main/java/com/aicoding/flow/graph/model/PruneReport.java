@@ -0,0 +1,31 @@
+package com.aicoding.flow.graph.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译前剪枝移除的节点和连线
+ * @author gaoll
+ * @time 2025/6/13 10:05
+ **/
+@Data
+public class PruneReport {
+
+    /**
+     * 从开始节点不可达或到达不了结束节点的节点
+     */
+    private List<String> removedNodeIds = new ArrayList<>();
+
+    /**
+     * 端点被移除或不存在的连线，没有ID时为source->target
+     */
+    private List<String> removedEdgeIds = new ArrayList<>();
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return removedNodeIds.isEmpty() && removedEdgeIds.isEmpty();
+    }
+}
@@ -1,17 +1,53 @@
 package com.aicoding.flow.node;
 
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.node.code.ScriptRunner;
+import com.aicoding.flow.node.dsl.CodeNodeDsl;
+import com.aicoding.flow.node.model.ParamModel;
 import com.aicoding.flow.node.parent.CommonNodeComponent;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.aicoding.flow.workflow.store.StoredValue;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
+ * 代码节点，入参注入脚本变量，返回Map时每个键作为节点的输出变量，否则输出为result
+ *
  * @author gaoll
  * @time 2025/5/26 11:33
  **/
 @LiteflowComponent("codeNode")
 public class CodeNode extends CommonNodeComponent {
+
+    private static final String RESULT = "result";
+
+    @Autowired
+    private ScriptRunner scriptRunner;
+
     @Override
     public void doProcess() {
-
+        CodeNodeDsl nodeDsl = getBindParam(CodeNodeDsl.class);
+        FlowContextWrapper contextWrapper = getContextWrapper();
+        Map<String, Object> variables = new HashMap<>();
+        if (nodeDsl.getParams() != null) {
+            for (ParamModel param : nodeDsl.getParams()) {
+                Object value = VarConstant.SELECTOR.equals(param.getVarType())
+                        ? contextWrapper.value(param.getValueTemplate()) : param.getValue();
+                // 脚本只能处理堆上的值
+                variables.put(param.getName(), value instanceof StoredValue ? value.toString() : value);
+            }
+        }
+        Object result = scriptRunner.run(nodeDsl.getScript(), variables);
+        if (result instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+                contextWrapper.putVariable(nodeDsl.getId(), String.valueOf(entry.getKey()), entry.getValue());
+            }
+        } else {
+            contextWrapper.putVariable(nodeDsl.getId(), RESULT, result);
+        }
     }
 
 }
@@ -1,8 +1,11 @@
 package com.aicoding.flow.node;
 
 
+import com.aicoding.flow.node.condition.ConditionEvaluator;
+import com.aicoding.flow.node.dsl.ConditionNodeDsl;
 import com.aicoding.flow.node.parent.CommonBoolNodeComponent;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * 条件节点
@@ -12,10 +15,16 @@ import com.yomahub.liteflow.annotation.LiteflowComponent;
 @LiteflowComponent("conditionNode")
 public class ConditionNode extends CommonBoolNodeComponent {
 
+    @Autowired
+    private ConditionEvaluator conditionEvaluator;
+
     @Override
     public boolean doProcessBoolean() {
-
-        return false;
+        ConditionNodeDsl nodeDsl = getBindParam(ConditionNodeDsl.class);
+        if (nodeDsl.isElseFlag()) {
+            return true;
+        }
+        return conditionEvaluator.evaluate(getFlowChainId(), getTag(), nodeDsl, getContextWrapper());
     }
 
 }
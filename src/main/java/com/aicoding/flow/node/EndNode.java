@@ -1,6 +1,10 @@
 package com.aicoding.flow.node;
 
+import com.aicoding.flow.constants.EventConstant;
+import com.aicoding.flow.node.dsl.EndNodeDsl;
 import com.aicoding.flow.node.parent.CommonNodeComponent;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.aicoding.flow.workflow.model.MessageModel;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
 
 /**
@@ -9,9 +13,22 @@ import com.yomahub.liteflow.annotation.LiteflowComponent;
  **/
 @LiteflowComponent("endNode")
 public class EndNode extends CommonNodeComponent {
+
+    private static final String ANSWER = "answer";
+
     @Override
     public void doProcess() {
+        EndNodeDsl nodeDsl = getBindParam(EndNodeDsl.class);
+        FlowContextWrapper contextWrapper = getContextWrapper();
+        String answer = contextWrapper.reply(nodeDsl.getId(), nodeDsl.getReplyTemplate());
+        contextWrapper.putVariable(nodeDsl.getId(), ANSWER, answer);
 
+        MessageModel message = new MessageModel();
+        message.setEvent(EventConstant.MESSAGE);
+        message.setAnswer(answer);
+        message.setNodeId(nodeDsl.getId());
+        message.setNodeName(nodeDsl.getNodeName());
+        contextWrapper.getMessages().add(message);
     }
 
 }
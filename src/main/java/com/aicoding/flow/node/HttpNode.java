@@ -1,20 +1,139 @@
 package com.aicoding.flow.node;
 
+import cn.hutool.core.net.URLEncodeUtil;
+import cn.hutool.core.util.StrUtil;
+import com.aicoding.flow.node.dsl.HttpNodeDsl;
+import com.aicoding.flow.node.http.HttpResponseCache;
+import com.aicoding.flow.node.http.HttpResult;
 import com.aicoding.flow.node.parent.CommonNodeComponent;
+import com.aicoding.flow.utils.VariableTemplate;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.aicoding.flow.workflow.store.ValueStore;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.net.URIBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * http请求节点
+ * http请求节点，请求异步发出后节点立即结束，下游读取输出变量时才等待响应
  *
  * @author gaoll
  * @time 2025/5/22 16:43
  **/
 @LiteflowComponent("httpNode")
 public class HttpNode extends CommonNodeComponent {
+
+    private static final String STATUS_CODE = "status_code";
+
+    private static final String BODY = "body";
+
+    private static final String HEADERS = "headers";
+
+    @Autowired
+    private HttpResponseCache responseCache;
+
     @Override
     public void doProcess(){
+        HttpNodeDsl nodeDsl = getBindParam(HttpNodeDsl.class);
+        FlowContextWrapper contextWrapper = getContextWrapper();
+        SimpleHttpRequest request = buildRequest(nodeDsl, contextWrapper);
+        String chainId = getFlowChainId();
+        String tag = getTag();
+        // 顺序执行的http节点等前一个请求结束再发出，只有自动并行放入WHEN的请求同时发出。
+        // 响应体边接收边写入上下文的变量存储，较大的响应不在堆上保留完整内容，没有发出的请求不打开存储
+        CompletableFuture<HttpResult> response = contextWrapper.sequence(() -> {
+            ValueStore.Sink body = contextWrapper.openValue(true);
+            return responseCache.execute(chainId, tag, nodeDsl.getCache(), request, body);
+        });
+        contextWrapper.putAsync(nodeDsl.getId(), response.thenApply(HttpNode::outputs), STATUS_CODE, BODY, HEADERS);
+    }
 
+    @Override
+    protected boolean isAsync() {
+        return true;
+    }
+
+    private static SimpleHttpRequest buildRequest(HttpNodeDsl nodeDsl, FlowContextWrapper contextWrapper) {
+        VariableTemplate urlTemplate = nodeDsl.getUrlTemplate();
+        String url = urlTemplate == null ? null : contextWrapper.render(urlTemplate, urlEncoder(urlTemplate));
+        if (StrUtil.isBlank(url)) {
+            throw new RuntimeException("节点" + nodeDsl.getId() + "请求地址为空");
+        }
+        URIBuilder uri;
+        try {
+            uri = new URIBuilder(url.trim());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("请求地址" + url + "格式错误");
+        }
+        if (nodeDsl.getReqParams() != null) {
+            for (HttpNodeDsl.HttpParam param : nodeDsl.getReqParams()) {
+                uri.addParameter(param.getName(), contextWrapper.render(param.getValueTemplate()));
+            }
+        }
+        SimpleRequestBuilder builder = SimpleRequestBuilder.create(StrUtil.blankToDefault(nodeDsl.getMethod(), "GET").toUpperCase());
+        try {
+            builder.setUri(uri.build());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("请求地址" + url + "格式错误");
+        }
+        String contentType = null;
+        if (nodeDsl.getHeaders() != null) {
+            for (HttpNodeDsl.HttpHeader header : nodeDsl.getHeaders()) {
+                String value = contextWrapper.render(header.getValueTemplate());
+                if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getName())) {
+                    contentType = value;
+                } else {
+                    builder.addHeader(header.getName(), value);
+                }
+            }
+        }
+        String body = contextWrapper.render(nodeDsl.getBodyTemplate());
+        if (StrUtil.isNotEmpty(body)) {
+            builder.setBody(body, contentType != null ? ContentType.parse(contentType) : guessContentType(body));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 地址中路径、参数和锚点部分的变量按百分号编码，变量值中的空格、&、#、?等字符不改变地址结构；
+     * 协议和主机部分的变量（如整个地址或基础地址来自变量）原样拼接
+     */
+    private static VariableTemplate.Encoder urlEncoder(VariableTemplate template) {
+        StringBuilder prefix = new StringBuilder();
+        boolean[] encode = new boolean[template.getSlots().size()];
+        for (int i = 0; i < encode.length; i++) {
+            prefix.append(template.getText(i));
+            int scheme = prefix.indexOf("://");
+            String rest = scheme < 0 ? prefix.toString() : prefix.substring(scheme + 3);
+            encode[i] = StrUtil.containsAny(rest, '/', '?', '#');
+        }
+        return (i, text) -> encode[i] ? URLEncodeUtil.encodeAll(text, StandardCharsets.UTF_8) : text;
+    }
+
+    /**
+     * 没有指定Content-Type时，JSON文本按JSON发送，其余按纯文本发送
+     */
+    private static ContentType guessContentType(String body) {
+        String trimmed = body.trim();
+        return trimmed.startsWith("{") || trimmed.startsWith("[") ? ContentType.APPLICATION_JSON : ContentType.TEXT_PLAIN.withCharset(StandardCharsets.UTF_8);
+    }
 
+    private static Map<String, Object> outputs(HttpResult result) {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put(STATUS_CODE, result.getCode());
+        outputs.put(BODY, result.getBody());
+        outputs.put(HEADERS, new LinkedHashMap<>(result.getHeaders()));
+        return outputs;
     }
 
 }
@@ -1,9 +1,17 @@
 package com.aicoding.flow.node;
 
+import com.aicoding.flow.node.dsl.JsonExtractNodeDsl;
+import com.aicoding.flow.node.model.ParamModel;
 import com.aicoding.flow.node.parent.CommonNodeComponent;
+import com.aicoding.flow.workflow.FlowContextWrapper;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
 
 /**
+ * JSON提取节点，一次顺序读取提取全部结果字段
+ *
  * @author gaoll
  * @time 2025/5/27 9:10
  **/
@@ -11,8 +19,21 @@ import com.yomahub.liteflow.annotation.LiteflowComponent;
 public class JsonExtractNode extends CommonNodeComponent {
     @Override
     public void doProcess() {
-
-
+        JsonExtractNodeDsl nodeDsl = getBindParam(JsonExtractNodeDsl.class);
+        List<ParamModel> results = nodeDsl.getResult();
+        if (CollectionUtils.isEmpty(results)) {
+            return;
+        }
+        FlowContextWrapper contextWrapper = getContextWrapper();
+        // 单变量引用时取原始值，堆外存储的文本直接按流读取
+        Object[] values = nodeDsl.getExtractor().extract(contextWrapper.value(nodeDsl.getJsonValueTemplate()));
+        for (int i = 0; i < results.size(); i++) {
+            ParamModel result = results.get(i);
+            if (values[i] == null && result.isRequired()) {
+                throw new RuntimeException(result.getName() + "必填项，JSON中未找到" + result.getValue());
+            }
+            contextWrapper.putVariable(nodeDsl.getId(), result.getName(), values[i]);
+        }
     }
 
 }
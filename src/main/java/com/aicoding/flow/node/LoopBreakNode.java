@@ -0,0 +1,33 @@
+package com.aicoding.flow.node;
+
+import com.aicoding.flow.node.condition.ConditionEvaluator;
+import com.aicoding.flow.node.dsl.WhileConditionNodeDsl;
+import com.aicoding.flow.node.parent.CommonBoolNodeComponent;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.yomahub.liteflow.annotation.LiteflowComponent;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 循环终止条件，每轮循环体执行完成后按循环节点的终止条件判断，满足时结束循环
+ *
+ * @author gaoll
+ * @time 2025/6/27 10:20
+ **/
+@LiteflowComponent("loopBreakNode")
+public class LoopBreakNode extends CommonBoolNodeComponent {
+
+    @Autowired
+    private ConditionEvaluator conditionEvaluator;
+
+    @Override
+    public boolean doProcessBoolean() {
+        WhileConditionNodeDsl nodeDsl = getBindParam(WhileConditionNodeDsl.class);
+        FlowContextWrapper contextWrapper = getContextWrapper();
+        boolean stop = conditionEvaluator.evaluate(getFlowChainId(), getTag(), nodeDsl.getLogicalOperator(),
+                nodeDsl.getConditions(), null, contextWrapper);
+        if (stop) {
+            contextWrapper.exitLoop(getTag());
+        }
+        return stop;
+    }
+}
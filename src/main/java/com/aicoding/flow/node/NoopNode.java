@@ -0,0 +1,17 @@
+package com.aicoding.flow.node;
+
+import com.aicoding.flow.node.parent.CommonNodeComponent;
+import com.yomahub.liteflow.annotation.LiteflowComponent;
+
+/**
+ * 空节点，占位没有后续节点的条件分支及循环体
+ * @author gaoll
+ * @time 2025/6/4 14:02
+ **/
+@LiteflowComponent("noopNode")
+public class NoopNode extends CommonNodeComponent {
+    @Override
+    public void doProcess() {
+
+    }
+}
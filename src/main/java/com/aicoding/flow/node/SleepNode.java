@@ -1,10 +1,17 @@
 package com.aicoding.flow.node;
 
 import cn.hutool.core.thread.ThreadUtil;
+import com.aicoding.flow.node.dsl.SleepNodeDsl;
 import com.aicoding.flow.node.parent.CommonNodeComponent;
+import com.aicoding.flow.workflow.FlowContextWrapper;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
 
 /**
+ * 等待节点
+ * <p>
+ * 主流程顺序部分中的等待节点是挂起点，节点只记录等待时长，本段执行完成后释放线程，由定时器到期后继续执行；
+ * 分支、并行组和循环中的等待节点在当前线程等待
+ *
  * @author gaoll
  * @time 2025/5/21 18:16
  **/
@@ -12,6 +19,19 @@ import com.yomahub.liteflow.annotation.LiteflowComponent;
 public class SleepNode extends CommonNodeComponent {
     @Override
     public void doProcess(){
-        ThreadUtil.sleep(10000);
+        SleepNodeDsl nodeDsl = getBindParam(SleepNodeDsl.class);
+        FlowContextWrapper contextWrapper = getContextWrapper();
+        if (!contextWrapper.suspend(getTag(), nodeDsl.getDelayMs())) {
+            ThreadUtil.sleep(nodeDsl.getDelayMs());
+            contextWrapper.nodeFinished(getTag());
+        }
+    }
+
+    /**
+     * 挂起时等待结束后才发布节点完成事件
+     */
+    @Override
+    protected boolean isAsync() {
+        return true;
     }
 }
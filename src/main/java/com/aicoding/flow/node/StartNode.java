@@ -4,14 +4,12 @@ import com.aicoding.flow.node.dsl.CommonNodeDsl;
 import com.aicoding.flow.node.model.ParamModel;
 import com.aicoding.flow.node.parent.CommonNodeComponent;
 import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.aicoding.flow.workflow.VariableSlots;
 import com.aicoding.flow.workflow.model.InputParam;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
 import org.springframework.util.CollectionUtils;
 
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * 开始节点，放置相关参数
@@ -24,19 +22,28 @@ public class StartNode extends CommonNodeComponent {
     @Override
     public void doProcess(){
 
-        //开始节点，从上下文中获取数据，并放到节点中
+        //开始节点，从上下文中获取数据，按编译时分配的槽位写入
         CommonNodeDsl nodeDsl = getBindParam();
         FlowContextWrapper contextWrapper = getContextWrapper();
         List<InputParam> userInputs = contextWrapper.getUserInputs();
-        Map<String, InputParam>
-                userInputMap = userInputs.stream().collect(Collectors.toMap(InputParam::getName, Function.identity()));
+        VariableSlots.NodeSlots slots = contextWrapper.getSlots().node(nodeDsl.getId());
+        if (userInputs != null) {
+            for (InputParam userInput : userInputs) {
+                int slot = slots.indexOf(userInput.getName());
+                if (slot >= 0) {
+                    contextWrapper.set(slot, userInput.getValue());
+                } else {
+                    contextWrapper.putVariable(nodeDsl.getId(), userInput.getName(), userInput.getValue());
+                }
+            }
+        }
         List<ParamModel> params = nodeDsl.getParams();
 
         if(CollectionUtils.isEmpty(params)){
             return;
         }
         for (ParamModel param : params) {
-            if(param.isRequired() && !userInputMap.containsKey(param.getName())){
+            if(param.isRequired() && contextWrapper.getVariable(nodeDsl.getId(), param.getName()) == null){
                 throw new RuntimeException(param.getName()+"必填项");
             }
         }
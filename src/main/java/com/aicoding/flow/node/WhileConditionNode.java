@@ -1,19 +1,84 @@
 package com.aicoding.flow.node;
 
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.node.dsl.WhileConditionNodeDsl;
+import com.aicoding.flow.node.model.ParamModel;
 import com.aicoding.flow.node.parent.CommonBoolNodeComponent;
+import com.aicoding.flow.workflow.FlowContextWrapper;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
 
 /**
+ * 循环节点，每轮开始前判断是否继续，达到最大循环次数时结束循环
+ * <p>
+ * 一次循环执行只创建一个子作用域并在每轮复用，轮次和循环变量按槽位原地写入，每轮不分配新对象；
+ * 终止条件由BREAK中的{@link LoopBreakNode}在每轮循环体执行完成后判断
+ *
  * @author gaoll
  * @time 2025/5/21 17:48
  **/
 @LiteflowComponent("whileConditionNode")
 public class WhileConditionNode extends CommonBoolNodeComponent {
+
+    /**
+     * 轮次的装箱缓存，几万轮以内写入轮次不再装箱
+     */
+    private static final Integer[] INDEXES = new Integer[1 << 16];
+
+    /**
+     * 节点未设置循环次数时的最大循环次数
+     */
+    @Value("${workflow.loop.default-max-count:10000}")
+    private int defaultMaxCount;
+
     @Override
     public boolean doProcessBoolean() {
+        WhileConditionNodeDsl nodeDsl = getBindParam(WhileConditionNodeDsl.class);
+        FlowContextWrapper contextWrapper = getContextWrapper();
+        String loopId = getTag();
+        int round = contextWrapper.nextIteration(loopId);
+        Integer maxLoopCount = nodeDsl.getMaxLoopCount();
+        if (round >= (maxLoopCount != null && maxLoopCount > 0 ? maxLoopCount : defaultMaxCount)) {
+            contextWrapper.exitLoop(loopId);
+            return false;
+        }
+        int indexSlot = contextWrapper.getSlots().indexOf(loopId, VarConstant.LOOP_INDEX);
+        if (indexSlot >= 0) {
+            contextWrapper.set(indexSlot, index(round));
+        }
+        updateVariables(loopId, nodeDsl.getParams(), round, contextWrapper);
         return true;
     }
 
+    /**
+     * 常量循环变量只在首轮写入；引用变量的循环变量每轮开始时重新读取，可引用循环体内节点上一轮的输出（首轮为空）
+     */
+    private static void updateVariables(String loopId, List<ParamModel> params, int round, FlowContextWrapper contextWrapper) {
+        if (params == null) {
+            return;
+        }
+        for (int i = 0; i < params.size(); i++) {
+            ParamModel param = params.get(i);
+            if (VarConstant.SELECTOR.equals(param.getVarType())) {
+                contextWrapper.putVariable(loopId, param.getName(), contextWrapper.value(param.getValueTemplate()));
+            } else if (round == 0) {
+                contextWrapper.putVariable(loopId, param.getName(), param.getValue());
+            }
+        }
+    }
 
+    private static Integer index(int round) {
+        if (round >= INDEXES.length) {
+            return round;
+        }
+        Integer index = INDEXES[round];
+        if (index == null) {
+            index = round;
+            INDEXES[round] = index;
+        }
+        return index;
+    }
 
 }
@@ -0,0 +1,38 @@
+package com.aicoding.flow.node.code;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.crypto.digest.DigestUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.ssssssss.script.MagicScript;
+
+/**
+ * 编译后的脚本缓存，按脚本内容的SHA-256索引，相同脚本在所有链路中只解析一次
+ *
+ * @author gaoll
+ * @time 2025/6/20 14:10
+ **/
+@Component
+public class CompiledScriptCache {
+
+    private final LRUCache<String, MagicScript> scripts;
+
+    public CompiledScriptCache(@Value("${workflow.code.cache-size:1024}") int cacheSize) {
+        this.scripts = CacheUtil.newLRUCache(cacheSize);
+    }
+
+    /**
+     * 获取编译后的脚本，同一脚本并发首次访问时只编译一次
+     */
+    public MagicScript get(String script) {
+        if (script == null || script.trim().isEmpty()) {
+            throw new RuntimeException("代码节点脚本为空");
+        }
+        return scripts.get(DigestUtil.sha256Hex(script), () -> MagicScript.create(script, null));
+    }
+
+    public int size() {
+        return scripts.size();
+    }
+}
@@ -0,0 +1,281 @@
+package com.aicoding.flow.node.code;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.ssssssss.script.MagicScript;
+import org.ssssssss.script.MagicScriptContext;
+import org.ssssssss.script.MagicScriptEngine;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在独立的线程池中执行脚本，超过时间预算时中断并返回错误
+ * <p>
+ * 每个执行线程持有一个可复用的脚本上下文，执行前清空上一次注入的变量。
+ * 脚本引擎没有指令计数，不响应中断的脚本无法安全停止：超过宽限时间后执行线程被退役，线程池补充一个线程，
+ * 该脚本占用的执行名额直到脚本结束才归还，同时执行的脚本数相应减少，不会因死循环无限增加线程
+ *
+ * @author gaoll
+ * @time 2025/6/20 14:30
+ **/
+@Slf4j
+@Component
+public class ScriptRunner {
+
+    private static final ThreadLocal<ScriptRuntime> RUNTIME = ThreadLocal.withInitial(ScriptRuntime::new);
+
+    @Autowired
+    private CompiledScriptCache scriptCache;
+
+    @Value("${workflow.code.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${workflow.code.timeout-ms:3000}")
+    private long timeout;
+
+    /**
+     * 中断后仍未结束的脚本，等待该时间后退役执行线程
+     */
+    @Value("${workflow.code.stop-grace-ms:1000}")
+    private long stopGrace;
+
+    private ThreadPoolExecutor pool;
+
+    private ScheduledExecutorService watchdog;
+
+    /**
+     * 执行名额，脚本真正结束时归还，退役线程上的脚本一直占用
+     */
+    private Semaphore permits;
+
+    /**
+     * 已退役、脚本仍未结束的线程数
+     */
+    private final AtomicInteger retired = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrency);
+        // 名额先于提交获取，队列中最多是刚归还名额、线程还没取下一个任务的短暂积压；线程数随退役线程增加
+        pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                ThreadFactoryBuilder.create().setNamePrefix("workflow-code-").setDaemon(true).build());
+        pool.allowCoreThreadTimeOut(true);
+        watchdog = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("workflow-code-watchdog-").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * 执行脚本，脚本只在首次出现时编译
+     *
+     * @param variables 注入脚本的变量
+     */
+    public Object run(String script, Map<String, Object> variables) {
+        MagicScript compiled = scriptCache.get(script);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException(retired.get() > 0
+                        ? "代码节点执行过多，另有" + retired.get() + "个超时脚本未结束，请稍后重试"
+                        : "代码节点执行过多，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("代码执行被中断");
+        }
+        Execution execution = new Execution(compiled, variables);
+        Future<Object> future;
+        try {
+            future = pool.submit(execution::call);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw new RuntimeException("代码节点执行过多，请稍后重试");
+        }
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            abandon(execution);
+            watchdog.schedule(() -> retireIfRunning(execution), stopGrace, TimeUnit.MILLISECONDS);
+            throw new RuntimeException("代码执行超过" + timeout + "毫秒，已终止");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new RuntimeException("代码执行失败：" + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            abandon(execution);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("代码执行被中断");
+        }
+    }
+
+    /**
+     * 取消时脚本还没开始执行的，不会再执行，直接归还名额
+     */
+    private void abandon(Execution execution) {
+        if (execution.abandon()) {
+            permits.release();
+        }
+    }
+
+    /**
+     * 中断后仍在执行的脚本：执行线程退役，线程池补充一个线程；名额不归还，可同时执行的脚本数减一
+     */
+    private void retireIfRunning(Execution execution) {
+        if (!execution.retire()) {
+            return;
+        }
+        int count = retired.incrementAndGet();
+        resize(1);
+        log.error("script did not respond to interrupt, retired thread {}, {} retired threads still running, "
+                + "code node capacity {}/{}", execution.threadName(), count, maxConcurrency - count, maxConcurrency);
+    }
+
+    /**
+     * 退役线程上的脚本最终结束时归还名额，线程池收回补充的线程
+     */
+    private void finished(Execution execution) {
+        permits.release();
+        if (execution.isRetired()) {
+            retired.decrementAndGet();
+            resize(-1);
+            log.warn("retired script thread {} finished", execution.threadName());
+        }
+    }
+
+    private synchronized void resize(int delta) {
+        int size = pool.getMaximumPoolSize() + delta;
+        if (delta > 0) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * 一次脚本执行，记录执行线程，超时后不响应中断的脚本由watchdog退役
+     */
+    private class Execution {
+
+        private final MagicScript script;
+
+        private final Map<String, Object> variables;
+
+        private Thread thread;
+
+        private String threadName;
+
+        private boolean started;
+
+        private boolean abandoned;
+
+        private boolean retired;
+
+        Execution(MagicScript script, Map<String, Object> variables) {
+            this.script = script;
+            this.variables = variables;
+        }
+
+        Object call() {
+            synchronized (this) {
+                if (abandoned) {
+                    return null;
+                }
+                started = true;
+                thread = Thread.currentThread();
+                threadName = thread.getName();
+            }
+            try {
+                return RUNTIME.get().execute(script, variables);
+            } catch (RuntimeException | Error e) {
+                // 异常结束的上下文状态不确定，不再复用
+                RUNTIME.remove();
+                throw e;
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                }
+                finished(this);
+            }
+        }
+
+        /**
+         * 还没开始执行时标记放弃，之后不再执行
+         */
+        synchronized boolean abandon() {
+            if (started) {
+                return false;
+            }
+            abandoned = true;
+            return true;
+        }
+
+        /**
+         * 脚本仍在执行时标记退役
+         */
+        synchronized boolean retire() {
+            if (thread == null) {
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+
+        synchronized boolean isRetired() {
+            return retired;
+        }
+
+        synchronized String threadName() {
+            return threadName;
+        }
+    }
+
+    /**
+     * 线程复用的脚本上下文
+     */
+    private static class ScriptRuntime {
+
+        private final MagicScriptContext context = new MagicScriptContext();
+
+        private final Set<String> names = new HashSet<>();
+
+        Object execute(MagicScript script, Map<String, Object> variables) {
+            for (String name : names) {
+                if (!variables.containsKey(name)) {
+                    context.set(name, null);
+                }
+            }
+            names.clear();
+            for (Map.Entry<String, Object> entry : variables.entrySet()) {
+                context.set(entry.getKey(), entry.getValue());
+                names.add(entry.getKey());
+            }
+            return MagicScriptEngine.execute(script, context);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.aicoding.flow.node.condition;
+
+import com.aicoding.flow.graph.CompiledChainCache;
+import com.aicoding.flow.node.dsl.ConditionNodeDsl;
+import com.aicoding.flow.node.model.ConditionModel;
+import com.aicoding.flow.node.model.ConditionStat;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 条件分组求值，and遇到false、or遇到true立即返回，剩余条件不再读取变量
+ * <p>
+ * 条件没有副作用，分组内的执行顺序不影响结果，按运行统计把开销小、容易短路的条件排在前面。
+ * 统计按链路ID和节点标签保存，链路淘汰时一并清除
+ *
+ * @author gaoll
+ * @time 2025/6/19 15:10
+ **/
+@Component
+public class ConditionEvaluator {
+
+    private final int reorderInterval;
+
+    private final Map<String, Map<String, GroupStats>> statsByChain = new ConcurrentHashMap<>();
+
+    public ConditionEvaluator(CompiledChainCache chainCache,
+                              @Value("${workflow.condition.reorder-interval:1024}") int reorderInterval) {
+        this.reorderInterval = reorderInterval;
+        chainCache.addRemovalListener(statsByChain::remove);
+    }
+
+    public boolean evaluate(String chainId, String tag, ConditionNodeDsl nodeDsl, FlowContextWrapper contextWrapper) {
+        return evaluate(chainId, tag, nodeDsl.getLogicalOperator(), nodeDsl.getConditions(), nodeDsl.getChildren(), contextWrapper);
+    }
+
+    public boolean evaluate(String chainId, String tag, String logicalOperator, List<ConditionModel> conditions,
+                            List<ConditionNodeDsl> children, FlowContextWrapper contextWrapper) {
+        Map<String, GroupStats> chainStats = statsByChain.computeIfAbsent(chainId, k -> new ConcurrentHashMap<>());
+        GroupStats stats = chainStats.get(tag);
+        if (stats == null || !stats.matches(conditions, children)) {
+            stats = new GroupStats(logicalOperator, conditions, children, reorderInterval);
+            chainStats.put(tag, stats);
+        }
+        return evaluate(stats, conditions, children, contextWrapper);
+    }
+
+    private boolean evaluate(GroupStats stats, List<ConditionModel> conditions, List<ConditionNodeDsl> children,
+                             FlowContextWrapper contextWrapper) {
+        int[] order = stats.order;
+        boolean value;
+        if (order == stats.declared) {
+            value = evaluate(stats, order, conditions, children, contextWrapper);
+        } else {
+            try {
+                value = evaluate(stats, order, conditions, children, contextWrapper);
+            } catch (RuntimeException e) {
+                // 调整后的顺序先读取了失败的变量，按声明顺序重新判断，声明顺序下短路时结果不变，否则同样抛出
+                value = evaluate(stats, stats.declared, conditions, children, contextWrapper);
+            }
+        }
+        stats.completed();
+        return value;
+    }
+
+    private boolean evaluate(GroupStats stats, int[] order, List<ConditionModel> conditions, List<ConditionNodeDsl> children,
+                             FlowContextWrapper contextWrapper) {
+        if (order.length == 0) {
+            return false;
+        }
+        boolean or = stats.or;
+        for (int item : order) {
+            boolean value;
+            if (item < stats.conditionCount) {
+                value = conditions.get(item).isTrue(contextWrapper);
+            } else {
+                ConditionNodeDsl child = children.get(item - stats.conditionCount);
+                value = evaluate(stats.children[item - stats.conditionCount], child.getConditions(), child.getChildren(), contextWrapper);
+            }
+            stats.record(item, value);
+            if (value == or) {
+                return or;
+            }
+        }
+        return !or;
+    }
+
+    /**
+     * 条件命中统计，chainId为空时返回全部链路
+     */
+    public List<ConditionStat> stats(String chainId) {
+        List<ConditionStat> result = new ArrayList<>();
+        for (Map.Entry<String, Map<String, GroupStats>> chain : statsByChain.entrySet()) {
+            if (chainId != null && !chainId.equals(chain.getKey())) {
+                continue;
+            }
+            for (Map.Entry<String, GroupStats> group : chain.getValue().entrySet()) {
+                group.getValue().collect(chain.getKey(), group.getKey(), "", result);
+            }
+        }
+        return result;
+    }
+}
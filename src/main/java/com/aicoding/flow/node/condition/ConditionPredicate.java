@@ -0,0 +1,19 @@
+package com.aicoding.flow.node.condition;
+
+/**
+ * 编译后的条件判断
+ *
+ * @author gaoll
+ * @time 2025/6/19 9:40
+ **/
+@FunctionalInterface
+public interface ConditionPredicate {
+
+    ConditionPredicate FALSE = (left, right) -> false;
+
+    /**
+     * @param left  左侧值
+     * @param right 右侧值，右侧为常量时已在编译时解析，此参数忽略
+     */
+    boolean test(Object left, Object right);
+}
@@ -0,0 +1,288 @@
+package com.aicoding.flow.node.condition;
+
+import com.aicoding.flow.constants.OperatorConstant;
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.node.model.ConditionModel;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 按数据类型和操作把条件编译为判断对象，右侧常量在编译时解析
+ * <p>
+ * 数值比较优先走long/double，结果与按BigDecimal比较一致，无法精确比较时才转为BigDecimal，
+ * 整数、Double以及不超过18位的整数字符串比较时不分配对象
+ *
+ * @author gaoll
+ * @time 2025/6/19 9:40
+ **/
+public final class ConditionPredicates {
+
+    /**
+     * 绝对值不超过该值的整数可以用double精确表示
+     */
+    private static final long MAX_EXACT = 1L << 53;
+
+    private ConditionPredicates() {
+    }
+
+    public static ConditionPredicate compile(ConditionModel model) {
+        String operation = model.getOperation();
+        if (operation == null) {
+            return ConditionPredicate.FALSE;
+        }
+        if (OperatorConstant.EMPTY.equals(operation)) {
+            return (left, right) -> left == null;
+        }
+        if (OperatorConstant.NOT_EMPTY.equals(operation)) {
+            return (left, right) -> left != null;
+        }
+        boolean constant = !VarConstant.SELECTOR.equals(model.getRightVarType());
+        String text = model.getRightValueSelector();
+        if (VarConstant.NUMBER.equals(model.getDataType())) {
+            Comparison comparison = Comparison.of(operation);
+            if (comparison == null) {
+                return ConditionPredicate.FALSE;
+            }
+            if (constant) {
+                Numeric numeric = Numeric.parse(text);
+                return (left, right) -> left != null && comparison.test(compare(left, numeric));
+            }
+            return (left, right) -> left != null && right != null && comparison.test(compareValues(left, right));
+        }
+        if (VarConstant.STRING.equals(model.getDataType())) {
+            boolean contains = OperatorConstant.CONTAINS.equals(operation);
+            if (!contains && !OperatorConstant.NOT_CONTAINS.equals(operation)) {
+                return ConditionPredicate.FALSE;
+            }
+            if (constant) {
+                String part = text == null ? "" : text;
+                return (left, right) -> left != null && text(left).contains(part) == contains;
+            }
+            return (left, right) -> left != null && right != null && text(left).contains(text(right)) == contains;
+        }
+        return ConditionPredicate.FALSE;
+    }
+
+    private static String text(Object value) {
+        return value instanceof String ? (String) value : value.toString();
+    }
+
+    /**
+     * 比较运算，按比较结果判断
+     */
+    private enum Comparison {
+        EQ {
+            @Override
+            boolean test(int cmp) {
+                return cmp == 0;
+            }
+        },
+        NE {
+            @Override
+            boolean test(int cmp) {
+                return cmp != 0;
+            }
+        },
+        GE {
+            @Override
+            boolean test(int cmp) {
+                return cmp >= 0;
+            }
+        },
+        LE {
+            @Override
+            boolean test(int cmp) {
+                return cmp <= 0;
+            }
+        },
+        LT {
+            @Override
+            boolean test(int cmp) {
+                return cmp < 0;
+            }
+        },
+        GT {
+            @Override
+            boolean test(int cmp) {
+                return cmp > 0;
+            }
+        };
+
+        abstract boolean test(int cmp);
+
+        static Comparison of(String operation) {
+            switch (operation) {
+                case OperatorConstant.EQ:
+                    return EQ;
+                case OperatorConstant.NE:
+                    return NE;
+                case OperatorConstant.GE:
+                    return GE;
+                case OperatorConstant.LE:
+                    return LE;
+                case OperatorConstant.LT:
+                    return LT;
+                case OperatorConstant.GT:
+                    return GT;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * 编译时解析的数值常量
+     */
+    private static final class Numeric {
+
+        private final BigDecimal decimal;
+
+        /**
+         * 是否为long范围内的整数
+         */
+        private final boolean integral;
+
+        private final long longValue;
+
+        /**
+         * 是否可以用double比较，即double的十进制表示与常量相等且整数部分不超过2^53
+         */
+        private final boolean exactDouble;
+
+        private final double doubleValue;
+
+        private Numeric(BigDecimal decimal) {
+            this.decimal = decimal;
+            long value = 0;
+            boolean isLong;
+            try {
+                value = decimal.longValueExact();
+                isLong = true;
+            } catch (ArithmeticException e) {
+                isLong = false;
+            }
+            this.integral = isLong;
+            this.longValue = value;
+            this.doubleValue = decimal.doubleValue();
+            this.exactDouble = isLong ? Math.abs(value) <= MAX_EXACT
+                    : Math.abs(doubleValue) < MAX_EXACT && new BigDecimal(Double.toString(doubleValue)).compareTo(decimal) == 0;
+        }
+
+        static Numeric parse(String text) {
+            if (text == null) {
+                throw new RuntimeException("数值条件缺少比较值");
+            }
+            try {
+                return new Numeric(new BigDecimal(text.trim()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("条件常量不是数字：" + text);
+            }
+        }
+    }
+
+    private static int compare(Object value, Numeric constant) {
+        if (isIntegral(value)) {
+            return compareLong(((Number) value).longValue(), constant);
+        }
+        if (value instanceof Double && constant.exactDouble) {
+            return compareDouble(finite((Double) value), constant.doubleValue);
+        }
+        if (value instanceof CharSequence && isLong((CharSequence) value)) {
+            return compareLong(parseLong((CharSequence) value), constant);
+        }
+        return decimal(value).compareTo(constant.decimal);
+    }
+
+    private static int compareLong(long value, Numeric constant) {
+        if (constant.integral) {
+            return Long.compare(value, constant.longValue);
+        }
+        if (constant.exactDouble && Math.abs(value) <= MAX_EXACT) {
+            return compareDouble(value, constant.doubleValue);
+        }
+        return BigDecimal.valueOf(value).compareTo(constant.decimal);
+    }
+
+    /**
+     * 右侧为变量时两侧都在执行时解析
+     */
+    private static int compareValues(Object left, Object right) {
+        boolean leftLong = isIntegral(left) || left instanceof CharSequence && isLong((CharSequence) left);
+        boolean rightLong = isIntegral(right) || right instanceof CharSequence && isLong((CharSequence) right);
+        if (leftLong && rightLong) {
+            return Long.compare(toLong(left), toLong(right));
+        }
+        if (left instanceof Double && right instanceof Double) {
+            return compareDouble(finite((Double) left), finite((Double) right));
+        }
+        return decimal(left).compareTo(decimal(right));
+    }
+
+    /**
+     * 与BigDecimal一致，0.0与-0.0相等
+     */
+    private static int compareDouble(double left, double right) {
+        return left < right ? -1 : left > right ? 1 : 0;
+    }
+
+    private static double finite(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new RuntimeException("条件值不是数字：" + value);
+        }
+        return value;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : parseLong((CharSequence) value);
+    }
+
+    /**
+     * 可选符号加不超过18位数字，一定在long范围内
+     */
+    private static boolean isLong(CharSequence text) {
+        int length = text.length();
+        int start = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        if (length == start || length - start > 18) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseLong(CharSequence text) {
+        boolean negative = text.charAt(0) == '-';
+        int start = negative || text.charAt(0) == '+' ? 1 : 0;
+        long value = 0;
+        for (int i = start; i < text.length(); i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            finite(((Number) value).doubleValue());
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("条件值不是数字：" + value);
+        }
+    }
+}
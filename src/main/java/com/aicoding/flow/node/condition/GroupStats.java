@@ -0,0 +1,232 @@
+package com.aicoding.flow.node.condition;
+
+import com.aicoding.flow.constants.OperatorConstant;
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.node.dsl.ConditionNodeDsl;
+import com.aicoding.flow.node.model.ConditionModel;
+import com.aicoding.flow.node.model.ConditionStat;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个and/or分组的执行统计，分组内的条件和子分组统一编号，子分组排在条件之后
+ * <p>
+ * 按 开销/短路概率 从小到大排序，and分组的短路概率为结果为false的比例，or分组为结果为true的比例，
+ * 每执行一定次数后按统计重新排序。数值比较遇到非数字会抛异常，先执行它可能让原本短路的分组失败，
+ * 这类条件及包含它的子分组固定在声明的位置，只在相邻的不会抛异常的条件之间调整顺序
+ *
+ * @author gaoll
+ * @time 2025/6/19 15:30
+ **/
+class GroupStats {
+
+    private static final int CONDITION_COST = 1;
+
+    private static final int FETCH_COST = 2;
+
+    private static final int CONTAINS_COST = 3;
+
+    final boolean or;
+
+    final int conditionCount;
+
+    final GroupStats[] children;
+
+    private final String[] descriptions;
+
+    private final int[] costs;
+
+    /**
+     * 可能抛异常、不参与排序的条件
+     */
+    private final boolean[] pinned;
+
+    private final LongAdder[] evaluated;
+
+    private final LongAdder[] hits;
+
+    private final int reorderInterval;
+
+    private final AtomicInteger untilReorder;
+
+    /**
+     * 声明顺序
+     */
+    final int[] declared;
+
+    /**
+     * 当前执行顺序，元素为条件编号，与声明顺序相同时为同一个数组
+     */
+    volatile int[] order;
+
+    GroupStats(String logicalOperator, List<ConditionModel> conditions, List<ConditionNodeDsl> childGroups, int reorderInterval) {
+        this.or = OperatorConstant.OR.equals(logicalOperator);
+        this.conditionCount = conditions == null ? 0 : conditions.size();
+        int childCount = childGroups == null ? 0 : childGroups.size();
+        int size = conditionCount + childCount;
+        this.children = new GroupStats[childCount];
+        this.descriptions = new String[size];
+        this.costs = new int[size];
+        this.evaluated = new LongAdder[size];
+        this.hits = new LongAdder[size];
+        this.pinned = new boolean[size];
+        this.declared = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (i < conditionCount) {
+                ConditionModel condition = conditions.get(i);
+                descriptions[i] = condition.getLeftValueSelector() + " " + condition.getOperation()
+                        + (condition.getRightValueSelector() == null ? "" : " " + condition.getRightValueSelector());
+                costs[i] = cost(condition);
+                pinned[i] = mayThrow(condition);
+            } else {
+                ConditionNodeDsl child = childGroups.get(i - conditionCount);
+                children[i - conditionCount] = new GroupStats(child.getLogicalOperator(), child.getConditions(), child.getChildren(), reorderInterval);
+                descriptions[i] = "(" + child.getLogicalOperator() + ")";
+                costs[i] = children[i - conditionCount].totalCost();
+                pinned[i] = children[i - conditionCount].mayThrow();
+            }
+            evaluated[i] = new LongAdder();
+            hits[i] = new LongAdder();
+            declared[i] = i;
+        }
+        this.order = declared;
+        this.reorderInterval = reorderInterval;
+        this.untilReorder = new AtomicInteger(reorderInterval);
+    }
+
+    /**
+     * 条件和子分组数量与统计一致时才复用统计
+     */
+    boolean matches(List<ConditionModel> conditions, List<ConditionNodeDsl> childGroups) {
+        int childCount = childGroups == null ? 0 : childGroups.size();
+        if ((conditions == null ? 0 : conditions.size()) != conditionCount || childCount != children.length) {
+            return false;
+        }
+        for (int i = 0; i < childCount; i++) {
+            ConditionNodeDsl child = childGroups.get(i);
+            if (!children[i].matches(child.getConditions(), child.getChildren())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void record(int item, boolean value) {
+        evaluated[item].increment();
+        if (value) {
+            hits[item].increment();
+        }
+    }
+
+    /**
+     * 分组执行完一次，到达间隔时重新排序
+     */
+    void completed() {
+        if (untilReorder.decrementAndGet() == 0) {
+            reorder();
+            untilReorder.set(reorderInterval);
+        }
+    }
+
+    private void reorder() {
+        int size = costs.length;
+        double[] scores = new double[size];
+        Integer[] items = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            long total = evaluated[i].sum();
+            long positive = hits[i].sum();
+            long shortCircuit = or ? positive : total - positive;
+            // 加一平滑，没有统计时只按开销排序
+            scores[i] = costs[i] * (total + 2.0) / (shortCircuit + 1.0);
+            items[i] = i;
+        }
+        // 固定的条件把分组分成若干段，段内排序
+        int start = 0;
+        while (start < size) {
+            if (pinned[start]) {
+                start++;
+                continue;
+            }
+            int end = start;
+            while (end < size && !pinned[end]) {
+                end++;
+            }
+            Arrays.sort(items, start, end, Comparator.comparingDouble((Integer i) -> scores[i]).thenComparingInt(i -> i));
+            start = end;
+        }
+        int[] next = new int[size];
+        boolean same = true;
+        for (int i = 0; i < size; i++) {
+            next[i] = items[i];
+            same &= next[i] == i;
+        }
+        order = same ? declared : next;
+    }
+
+    /**
+     * 分组中有可能抛异常的条件
+     */
+    boolean mayThrow() {
+        for (boolean item : pinned) {
+            if (item) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 数值比较在值不是数字时抛异常，判空和字符串包含不会
+     */
+    private static boolean mayThrow(ConditionModel condition) {
+        String operation = condition.getOperation();
+        return VarConstant.NUMBER.equals(condition.getDataType())
+                && !OperatorConstant.EMPTY.equals(operation) && !OperatorConstant.NOT_EMPTY.equals(operation);
+    }
+
+    private int totalCost() {
+        int total = 0;
+        for (int cost : costs) {
+            total += cost;
+        }
+        return Math.max(total, CONDITION_COST);
+    }
+
+    private static int cost(ConditionModel condition) {
+        int cost = CONDITION_COST + FETCH_COST;
+        if (VarConstant.SELECTOR.equals(condition.getRightVarType())) {
+            cost += FETCH_COST;
+        }
+        if (VarConstant.STRING.equals(condition.getDataType())) {
+            cost += CONTAINS_COST;
+        }
+        return cost;
+    }
+
+    void collect(String chainId, String tag, String prefix, List<ConditionStat> stats) {
+        int[] current = order;
+        int[] rank = new int[current.length];
+        for (int i = 0; i < current.length; i++) {
+            rank[current[i]] = i;
+        }
+        for (int i = 0; i < costs.length; i++) {
+            ConditionStat stat = new ConditionStat();
+            stat.setChainId(chainId);
+            stat.setTag(tag);
+            stat.setPath(prefix + i);
+            stat.setCondition(descriptions[i]);
+            stat.setCost(costs[i]);
+            stat.setRank(rank[i]);
+            stat.setEvaluated(evaluated[i].sum());
+            stat.setHits(hits[i].sum());
+            stats.add(stat);
+            if (i >= conditionCount) {
+                children[i - conditionCount].collect(chainId, tag, prefix + i + "/", stats);
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.aicoding.flow.node.dsl;
 
+import com.aicoding.flow.utils.VariableTemplate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * @author gaoll
@@ -13,4 +17,12 @@ public class EndNodeDsl extends CommonNodeDsl{
      * 回复内容
      */
     private String reply;
+
+    /**
+     * 回复内容编译后的模板，生成绑定参数时编译
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient VariableTemplate replyTemplate;
 }
@@ -1,6 +1,10 @@
 package com.aicoding.flow.node.dsl;
 
+import com.aicoding.flow.utils.VariableTemplate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -21,11 +25,27 @@ public class HttpNodeDsl extends CommonNodeDsl{
      */
     private String url;
 
+    /**
+     * 请求地址编译后的模板，生成绑定参数时编译
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient VariableTemplate urlTemplate;
+
     /**
      * 请求体
      */
     private String body;
 
+    /**
+     * 请求体编译后的模板
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient VariableTemplate bodyTemplate;
+
     /**
      * 请求头
      */
@@ -36,14 +56,54 @@ public class HttpNodeDsl extends CommonNodeDsl{
      */
     private List<HttpParam> reqParams;
 
+    /**
+     * 响应缓存，为空时不缓存
+     */
+    private HttpCache cache;
+
     @Data
     public static class HttpParam{
         private String name;
         private String value;
+
+        /**
+         * 参数值编译后的模板
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private transient VariableTemplate valueTemplate;
     }
     @Data
     public static class HttpHeader{
         private String name;
         private String value;
+
+        /**
+         * 请求头值编译后的模板
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private transient VariableTemplate valueTemplate;
+    }
+
+    /**
+     * GET/HEAD请求的响应缓存，按渲染后的请求地址、请求头缓存2xx响应
+     */
+    @Data
+    public static class HttpCache{
+        /**
+         * 缓存时间，毫秒
+         */
+        private long ttlMs;
+        /**
+         * 最多缓存的响应数
+         */
+        private int maxEntries = 256;
+        /**
+         * 缓存响应的总字节数上限
+         */
+        private long maxBytes = 16L * 1024 * 1024;
     }
 }
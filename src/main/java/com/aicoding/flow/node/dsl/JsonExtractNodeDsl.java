@@ -1,7 +1,12 @@
 package com.aicoding.flow.node.dsl;
 
+import com.aicoding.flow.node.extract.JsonExtractor;
 import com.aicoding.flow.node.model.ParamModel;
+import com.aicoding.flow.utils.VariableTemplate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -14,9 +19,25 @@ public class JsonExtractNodeDsl extends CommonNodeDsl{
 
     private String jsonValue;
 
+    /**
+     * JSON文本编译后的模板，生成绑定参数时编译
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient VariableTemplate jsonValueTemplate;
+
     private String varType;
     /**
-     * 入参信息
+     * 提取结果，name为变量名，value为JSON路径，dataType为转换类型
      */
     private List<ParamModel> result;
+
+    /**
+     * 编译后的提取路径，生成绑定参数时编译，之后只读
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient JsonExtractor extractor;
 }
@@ -0,0 +1,20 @@
+package com.aicoding.flow.node.dsl;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 等待节点信息
+ *
+ * @author gaoll
+ * @time 2025/6/25 10:10
+ **/
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class SleepNodeDsl extends CommonNodeDsl {
+
+    /**
+     * 等待时长，毫秒
+     */
+    private long delayMs = 10000;
+}
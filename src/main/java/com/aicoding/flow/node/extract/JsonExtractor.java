@@ -0,0 +1,334 @@
+package com.aicoding.flow.node.extract;
+
+import cn.hutool.core.util.StrUtil;
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.node.model.ParamModel;
+import com.aicoding.flow.workflow.store.StoredValue;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的JSON提取器，全部提取路径合并为一棵前缀树
+ * <p>
+ * 提取时顺序读取一遍JSON，只进入前缀树上的字段，其余字段直接跳过，全部路径找到后立即停止，不构建完整的对象树
+ * <p>
+ * 路径格式：data.items[0].id，可以以$.开头
+ *
+ * @author gaoll
+ * @time 2025/6/20 9:30
+ **/
+public class JsonExtractor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private final PathNode root = new PathNode();
+
+    private final String[] dataTypes;
+
+    private final int targetCount;
+
+    private JsonExtractor(List<ParamModel> results) {
+        dataTypes = new String[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            ParamModel result = results.get(i);
+            dataTypes[i] = result.getDataType();
+            PathNode node = root;
+            node.count++;
+            for (Object segment : parsePath(StrUtil.blankToDefault(result.getValue(), result.getName()))) {
+                node = segment instanceof Integer ? node.index((Integer) segment) : node.field((String) segment);
+                node.count++;
+            }
+            node.targets.add(i);
+        }
+        this.targetCount = results.size();
+    }
+
+    public static JsonExtractor compile(List<ParamModel> results) {
+        return new JsonExtractor(results == null ? new ArrayList<>() : results);
+    }
+
+    /**
+     * 按结果参数的顺序返回提取到的值，未找到的为null
+     *
+     * @param source JSON文本、堆外存储的文本、字节数组，或已解析的Map/List
+     */
+    public Object[] extract(Object source) {
+        Object[] values = new Object[targetCount];
+        if (source == null || targetCount == 0) {
+            return values;
+        }
+        if (source instanceof Map || source instanceof List) {
+            resolve(root, source, values);
+            return values;
+        }
+        try (JsonParser parser = createParser(source)) {
+            if (parser.nextToken() != null) {
+                walk(parser, root, values, new int[]{targetCount});
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("JSON解析失败：" + e.getMessage(), e);
+        }
+        return values;
+    }
+
+    private static JsonParser createParser(Object source) throws IOException {
+        if (source instanceof StoredValue) {
+            return FACTORY.createParser(((StoredValue) source).openStream());
+        }
+        if (source instanceof byte[]) {
+            return FACTORY.createParser((byte[]) source);
+        }
+        return FACTORY.createParser(source.toString());
+    }
+
+    /**
+     * 解析器位于当前节点对应值的第一个token上，返回true表示全部路径已找到
+     *
+     * @param remaining 尚未找到的路径数
+     */
+    private boolean walk(JsonParser parser, PathNode node, Object[] values, int[] remaining) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (!node.targets.isEmpty()) {
+            if (node.count == 1) {
+                // 叶子节点按目标类型直接读取，对象按原文输出为字符串时不经过Map
+                int target = node.targets.get(0);
+                values[target] = read(parser, token, dataTypes[target]);
+            } else {
+                // 同时提取对象和对象内部的字段时，只物化这一棵子树
+                resolve(node, MAPPER.readValue(parser, Object.class), values);
+            }
+            remaining[0] -= node.count;
+            return remaining[0] <= 0;
+        }
+        if (token == JsonToken.START_OBJECT && node.fields != null) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                PathNode child = node.fields.get(parser.getCurrentName());
+                parser.nextToken();
+                if (child == null) {
+                    parser.skipChildren();
+                } else if (walk(parser, child, values, remaining)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (token == JsonToken.START_ARRAY && node.indexes != null) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                PathNode child = node.indexes.get(index++);
+                if (child == null) {
+                    parser.skipChildren();
+                } else if (walk(parser, child, values, remaining)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        parser.skipChildren();
+        return false;
+    }
+
+    /**
+     * 在已解析的对象上按前缀树取值
+     */
+    private void resolve(PathNode node, Object value, Object[] values) {
+        for (int target : node.targets) {
+            values[target] = coerce(value, dataTypes[target]);
+        }
+        if (node.fields != null && value instanceof Map) {
+            for (Map.Entry<String, PathNode> entry : node.fields.entrySet()) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                if (map.containsKey(entry.getKey())) {
+                    resolve(entry.getValue(), map.get(entry.getKey()), values);
+                }
+            }
+        }
+        if (node.indexes != null && value instanceof List) {
+            List<?> list = (List<?>) value;
+            for (Map.Entry<Integer, PathNode> entry : node.indexes.entrySet()) {
+                if (entry.getKey() < list.size()) {
+                    resolve(entry.getValue(), list.get(entry.getKey()), values);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从解析器读取当前值并转换为目标类型
+     */
+    private static Object read(JsonParser parser, JsonToken token, String dataType) throws IOException {
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            if (VarConstant.STRING.equals(dataType)) {
+                StringWriter writer = new StringWriter();
+                try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+                    generator.copyCurrentStructure(parser);
+                }
+                return writer.toString();
+            }
+            return coerce(MAPPER.readValue(parser, Object.class), dataType);
+        }
+        switch (token) {
+            case VALUE_NUMBER_INT:
+                return coerce(parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        ? parser.getBigIntegerValue() : (Object) parser.getLongValue(), dataType);
+            case VALUE_NUMBER_FLOAT:
+                return coerce(parser.getDoubleValue(), dataType);
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return coerce(token == JsonToken.VALUE_TRUE, dataType);
+            case VALUE_STRING:
+                return coerce(parser.getText(), dataType);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 按参数类型转换：number为Long、Double或BigDecimal，string为文本，对象按JSON输出，boolean为Boolean，其他类型保持原值
+     */
+    static Object coerce(Object value, String dataType) {
+        if (value == null || dataType == null) {
+            return value;
+        }
+        switch (dataType) {
+            case VarConstant.NUMBER:
+                if (value instanceof Number) {
+                    return value;
+                }
+                if (value instanceof Boolean) {
+                    return (Boolean) value ? 1L : 0L;
+                }
+                return toNumber(value.toString());
+            case VarConstant.STRING:
+                if (value instanceof Map || value instanceof List) {
+                    try {
+                        return MAPPER.writeValueAsString(value);
+                    } catch (IOException e) {
+                        throw new RuntimeException("JSON序列化失败", e);
+                    }
+                }
+                return value.toString();
+            case VarConstant.BOOLEAN:
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue() != 0;
+                }
+                return Boolean.parseBoolean(value.toString().trim());
+            default:
+                return value;
+        }
+    }
+
+    private static Object toNumber(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(trimmed);
+        } catch (NumberFormatException e) {
+            try {
+                return new BigDecimal(trimmed);
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException(text + "不是有效的数字");
+            }
+        }
+    }
+
+    /**
+     * 拆分路径，字段名为String，数组下标为Integer
+     */
+    static List<Object> parsePath(String path) {
+        List<Object> segments = new ArrayList<>();
+        String text = path.trim();
+        if (text.equals("$")) {
+            return segments;
+        }
+        if (text.startsWith("$.")) {
+            text = text.substring(2);
+        } else if (text.startsWith("$[")) {
+            text = text.substring(1);
+        }
+        int i = 0;
+        StringBuilder field = new StringBuilder();
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                addField(segments, field);
+                i++;
+            } else if (c == '[') {
+                addField(segments, field);
+                int end = text.indexOf(']', i);
+                if (end < 0) {
+                    throw new RuntimeException("JSON路径" + path + "格式错误");
+                }
+                String index = text.substring(i + 1, end).trim();
+                if (index.length() > 1 && (index.charAt(0) == '\'' || index.charAt(0) == '"')) {
+                    segments.add(index.substring(1, index.length() - 1));
+                } else {
+                    try {
+                        segments.add(Integer.parseInt(index));
+                    } catch (NumberFormatException e) {
+                        throw new RuntimeException("JSON路径" + path + "下标错误");
+                    }
+                }
+                i = end + 1;
+            } else {
+                field.append(c);
+                i++;
+            }
+        }
+        addField(segments, field);
+        return segments;
+    }
+
+    private static void addField(List<Object> segments, StringBuilder field) {
+        if (field.length() > 0) {
+            segments.add(field.toString());
+            field.setLength(0);
+        }
+    }
+
+    /**
+     * 前缀树节点，count为以该节点或其子节点结尾的路径数
+     */
+    private static class PathNode {
+
+        private Map<String, PathNode> fields;
+
+        private Map<Integer, PathNode> indexes;
+
+        private final List<Integer> targets = new ArrayList<>(1);
+
+        private int count;
+
+        PathNode field(String name) {
+            if (fields == null) {
+                fields = new HashMap<>();
+            }
+            return fields.computeIfAbsent(name, k -> new PathNode());
+        }
+
+        PathNode index(int index) {
+            if (indexes == null) {
+                indexes = new HashMap<>();
+            }
+            return indexes.computeIfAbsent(index, k -> new PathNode());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.aicoding.flow.node.http;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 非阻塞的HTTP客户端，按目标主机维护连接池并保持长连接，TLS连接通过ALPN协商HTTP/2
+ * <p>
+ * 请求由IO线程收发，响应体在IO线程上边接收边交给consumer，结果在回调线程池中完成，调用线程不等待
+ *
+ * @author gaoll
+ * @time 2025/6/23 9:40
+ **/
+@Slf4j
+@Component
+public class HttpExecutor {
+
+    @Value("${workflow.http.connect-timeout-ms:5000}")
+    private long connectTimeout;
+
+    @Value("${workflow.http.response-timeout-ms:30000}")
+    private long responseTimeout;
+
+    @Value("${workflow.http.max-conn-total:200}")
+    private int maxConnTotal;
+
+    @Value("${workflow.http.max-conn-per-route:20}")
+    private int maxConnPerRoute;
+
+    @Value("${workflow.http.idle-timeout-ms:60000}")
+    private long idleTimeout;
+
+    @Value("${workflow.http.io-threads:0}")
+    private int ioThreads;
+
+    @Value("${workflow.http.callback-threads:8}")
+    private int callbackThreads;
+
+    private CloseableHttpAsyncClient client;
+
+    private ExecutorService callbackPool;
+
+    @PostConstruct
+    public void init() {
+        IOReactorConfig.Builder reactor = IOReactorConfig.custom().setSoTimeout(Timeout.ofMilliseconds(responseTimeout));
+        if (ioThreads > 0) {
+            reactor.setIoThreadCount(ioThreads);
+        }
+        client = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnTotal)
+                        .setMaxConnPerRoute(maxConnPerRoute)
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .setIOReactorConfig(reactor.build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeout))
+                .build();
+        client.start();
+        // 回调中会写入上下文和推送流式消息，不能占用IO线程
+        callbackPool = ExecutorBuilder.create()
+                .setCorePoolSize(callbackThreads)
+                .setMaxPoolSize(callbackThreads)
+                .setWorkQueue(new LinkedBlockingQueue<>())
+                .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("workflow-http-").setDaemon(true).build())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        client.close(CloseMode.GRACEFUL);
+        callbackPool.shutdown();
+    }
+
+    /**
+     * 发送请求，响应由consumer在IO线程上边接收边处理，返回的future在回调线程池中完成，取消时同时取消请求
+     */
+    public <T> CompletableFuture<T> execute(SimpleHttpRequest request, AsyncResponseConsumer<T> consumer) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<T> future = client.execute(SimpleRequestProducer.create(request), consumer, new FutureCallback<T>() {
+            @Override
+            public void completed(T response) {
+                callbackPool.execute(() -> result.complete(response));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                callbackPool.execute(() -> result.completeExceptionally(
+                        new RuntimeException("请求" + request.getScheme() + "://" + request.getAuthority() + request.getRequestUri()
+                                + "失败：" + e.getMessage(), e)));
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        result.whenComplete((response, e) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,314 @@
+package com.aicoding.flow.node.http;
+
+import com.aicoding.flow.graph.CompiledChainCache;
+import com.aicoding.flow.node.dsl.HttpNodeDsl;
+import com.aicoding.flow.node.model.HttpCacheStat;
+import com.aicoding.flow.workflow.store.ValueStore;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.core5.http.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GET/HEAD请求的合并与响应缓存
+ * <p>
+ * 请求地址、请求头相同且尚未收到响应的进行中请求共用一次上游调用；节点配置了缓存时，2xx响应在有效期内直接复用。
+ * 响应体边接收边写入各调用方的变量存储，只有开启缓存的节点在堆上保留一份不超过字节上限的副本。缓存和统计按链路ID和节点标签保存，链路淘汰时一并清除
+ *
+ * @author gaoll
+ * @time 2025/6/24 10:00
+ **/
+@Component
+public class HttpResponseCache {
+
+    private final HttpExecutor httpExecutor;
+
+    private final boolean coalesce;
+
+    private final Map<String, ResponseBodyConsumer> inflight = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, NodeCache>> cachesByChain = new ConcurrentHashMap<>();
+
+    public HttpResponseCache(HttpExecutor httpExecutor, CompiledChainCache chainCache,
+                             @Value("${workflow.http.coalesce:true}") boolean coalesce) {
+        this.httpExecutor = httpExecutor;
+        this.coalesce = coalesce;
+        chainCache.addRemovalListener(cachesByChain::remove);
+    }
+
+    /**
+     * 发送请求，响应体边接收边写入body，可缓存的请求先查节点缓存，再合并到进行中的相同请求
+     */
+    public CompletableFuture<HttpResult> execute(String chainId, String tag, HttpNodeDsl.HttpCache config,
+                                                 SimpleHttpRequest request, ValueStore.Sink body) {
+        if (!isIdempotent(request)) {
+            return fetch(null, request, body, null);
+        }
+        NodeCache cache = nodeCache(chainId, tag, config);
+        String key = requestKey(request);
+        Entry cached = cache.get(key);
+        if (cached != null) {
+            return replay(cached, body);
+        }
+        return fetch(key, request, body, cache);
+    }
+
+    /**
+     * 相同请求在收到响应之前只发送一次，每个调用方拿到独立的future，响应体分别写入各自的存储
+     *
+     * @param key 请求的合并键，不可合并的请求为空
+     */
+    private CompletableFuture<HttpResult> fetch(String key, SimpleHttpRequest request, ValueStore.Sink body, NodeCache cache) {
+        long copyLimit = cache != null && cache.ttlMs > 0 ? cache.config.getMaxBytes() : 0;
+        ResponseBodyConsumer consumer;
+        CompletableFuture<HttpResult> response;
+        if (key == null || !coalesce) {
+            consumer = new ResponseBodyConsumer();
+            response = consumer.subscribe(body, copyLimit);
+            send(request, consumer, null);
+        } else {
+            for (;;) {
+                ResponseBodyConsumer created = new ResponseBodyConsumer();
+                ResponseBodyConsumer existing = inflight.putIfAbsent(key, created);
+                if (existing == null) {
+                    consumer = created;
+                    response = created.subscribe(body, copyLimit);
+                    send(request, created, key);
+                    break;
+                }
+                response = existing.subscribe(body, copyLimit);
+                if (response != null) {
+                    consumer = existing;
+                    cache.coalesced.increment();
+                    break;
+                }
+                // 已开始接收响应，前面的内容无法补发，移除后重新发起
+                inflight.remove(key, existing);
+            }
+        }
+        if (copyLimit <= 0) {
+            return response;
+        }
+        return response.thenApply(result -> {
+            byte[] copy = consumer.bodyCopy();
+            if (copy != null && result.getCode() >= 200 && result.getCode() < 300) {
+                cache.put(key, new Entry(result.getCode(), result.getHeaders(), copy));
+            }
+            return result;
+        });
+    }
+
+    private void send(SimpleHttpRequest request, ResponseBodyConsumer consumer, String key) {
+        httpExecutor.execute(request, consumer).whenComplete((v, e) -> {
+            // 先移除再完成，完成之后到达的请求重新发起
+            if (key != null) {
+                inflight.remove(key, consumer);
+            }
+            consumer.complete(e);
+        });
+    }
+
+    /**
+     * 缓存命中，把缓存的响应体写入调用方的存储
+     */
+    private static CompletableFuture<HttpResult> replay(Entry entry, ValueStore.Sink body) {
+        CompletableFuture<HttpResult> result = new CompletableFuture<>();
+        try {
+            body.write(ByteBuffer.wrap(entry.body));
+            result.complete(new HttpResult(entry.code, entry.headers, body.finish()));
+        } catch (RuntimeException e) {
+            body.abort();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private NodeCache nodeCache(String chainId, String tag, HttpNodeDsl.HttpCache config) {
+        Map<String, NodeCache> chainCaches = cachesByChain.computeIfAbsent(chainId, k -> new ConcurrentHashMap<>());
+        NodeCache cache = chainCaches.get(tag);
+        if (cache == null || !cache.matches(config)) {
+            cache = new NodeCache(config);
+            chainCaches.put(tag, cache);
+        }
+        return cache;
+    }
+
+    public static boolean isIdempotent(SimpleHttpRequest request) {
+        return ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) && request.getBody() == null;
+    }
+
+    /**
+     * 方法、完整地址和按名称排序的请求头
+     */
+    static String requestKey(SimpleHttpRequest request) {
+        StringBuilder key = new StringBuilder(128)
+                .append(request.getMethod()).append(' ')
+                .append(request.getScheme()).append("://").append(request.getAuthority()).append(request.getRequestUri());
+        Header[] headers = request.getHeaders();
+        if (headers.length > 0) {
+            headers = headers.clone();
+            Arrays.sort(headers, Comparator.comparing((Header header) -> header.getName().toLowerCase()).thenComparing(Header::getValue));
+            for (Header header : headers) {
+                key.append('\n').append(header.getName().toLowerCase()).append(':').append(header.getValue());
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * 缓存统计，chainId为空时返回全部链路
+     */
+    public List<HttpCacheStat> stats(String chainId) {
+        List<HttpCacheStat> result = new ArrayList<>();
+        for (Map.Entry<String, Map<String, NodeCache>> chain : cachesByChain.entrySet()) {
+            if (chainId != null && !chainId.equals(chain.getKey())) {
+                continue;
+            }
+            for (Map.Entry<String, NodeCache> node : chain.getValue().entrySet()) {
+                result.add(node.getValue().stat(chain.getKey(), node.getKey()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 单个节点的LRU缓存，条数和字节数任一超限时淘汰最久未使用的响应，过期响应在读取时移除
+     * <p>
+     * 加锁使用ReentrantLock，虚拟线程等锁时不占住载体线程
+     */
+    private static class NodeCache {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final HttpNodeDsl.HttpCache config;
+
+        private final long ttlMs;
+
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long bytes;
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder evictions = new LongAdder();
+
+        private final LongAdder coalesced = new LongAdder();
+
+        NodeCache(HttpNodeDsl.HttpCache config) {
+            this.config = config;
+            this.ttlMs = config == null ? 0 : config.getTtlMs();
+        }
+
+        boolean matches(HttpNodeDsl.HttpCache other) {
+            return config == null ? other == null : config.equals(other);
+        }
+
+        Entry get(String key) {
+            if (ttlMs <= 0) {
+                return null;
+            }
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.expireAt > System.currentTimeMillis()) {
+                    hits.increment();
+                    return entry;
+                }
+                if (entry != null) {
+                    entries.remove(key);
+                    bytes -= entry.size;
+                }
+            } finally {
+                lock.unlock();
+            }
+            misses.increment();
+            return null;
+        }
+
+        void put(String key, Entry entry) {
+            long size = sizeOf(key, entry);
+            if (size > config.getMaxBytes()) {
+                return;
+            }
+            lock.lock();
+            try {
+                entry.size = size;
+                entry.expireAt = System.currentTimeMillis() + ttlMs;
+                Entry previous = entries.put(key, entry);
+                bytes += size - (previous == null ? 0 : previous.size);
+                Iterator<Entry> eldest = entries.values().iterator();
+                while ((entries.size() > config.getMaxEntries() || bytes > config.getMaxBytes()) && eldest.hasNext()) {
+                    bytes -= eldest.next().size;
+                    eldest.remove();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static long sizeOf(String key, Entry entry) {
+            long size = key.length() * 2L + 64 + entry.body.length;
+            for (Map.Entry<String, String> header : entry.headers.entrySet()) {
+                size += (header.getKey().length() + header.getValue().length()) * 2L;
+            }
+            return size;
+        }
+
+        HttpCacheStat stat(String chainId, String tag) {
+            HttpCacheStat stat = new HttpCacheStat();
+            stat.setChainId(chainId);
+            stat.setTag(tag);
+            stat.setTtlMs(ttlMs);
+            lock.lock();
+            try {
+                stat.setEntries(entries.size());
+                stat.setBytes(bytes);
+            } finally {
+                lock.unlock();
+            }
+            stat.setHits(hits.sum());
+            stat.setMisses(misses.sum());
+            stat.setEvictions(evictions.sum());
+            stat.setCoalesced(coalesced.sum());
+            return stat;
+        }
+    }
+
+    /**
+     * 缓存的响应，响应体为UTF-8编码
+     */
+    private static class Entry {
+
+        private final int code;
+
+        private final Map<String, String> headers;
+
+        private final byte[] body;
+
+        private long size;
+
+        private long expireAt;
+
+        Entry(int code, Map<String, String> headers, byte[] body) {
+            this.code = code;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
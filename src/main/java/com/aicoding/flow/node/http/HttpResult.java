@@ -0,0 +1,29 @@
+package com.aicoding.flow.node.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * http节点的响应，响应体已写入调用方的变量存储
+ *
+ * @author gaoll
+ * @time 2025/6/26 10:20
+ **/
+@Data
+@AllArgsConstructor
+public class HttpResult {
+
+    private int code;
+
+    /**
+     * 小写的响应头名称 -> 第一个值，合并的请求共用同一个Map，不能修改
+     */
+    private Map<String, String> headers;
+
+    /**
+     * 响应体，String或堆外存储的StoredValue
+     */
+    private Object body;
+}
@@ -0,0 +1,257 @@
+package com.aicoding.flow.node.http;
+
+import com.aicoding.flow.workflow.store.ValueStore;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 边接收边写入的响应消费者，响应体在IO线程上按块写入每个订阅方的变量存储，不在堆上缓存完整响应
+ * <p>
+ * 合并的相同请求在收到响应之前加入为订阅方，各自写入自己流程的存储；节点开启缓存时另外保留一份不超过上限的副本。
+ * 响应体统一按UTF-8文本保存，其他字符集边接收边转码
+ *
+ * @author gaoll
+ * @time 2025/6/26 10:30
+ **/
+class ResponseBodyConsumer implements AsyncResponseConsumer<Void> {
+
+    private final List<Subscriber> subscribers = new ArrayList<>();
+
+    /**
+     * 已收到响应或请求已结束，不能再加入订阅方
+     */
+    private boolean started;
+
+    /**
+     * 写入结束，之后IO线程上迟到的数据直接丢弃
+     */
+    private boolean finished;
+
+    private long copyLimit;
+
+    private ByteArrayOutputStream copy;
+
+    private byte[] bodyCopy;
+
+    private int code;
+
+    private Map<String, String> headers = Collections.emptyMap();
+
+    /**
+     * 非UTF-8文本的解码器，undecoded为上一块末尾不完整的字节
+     */
+    private CharsetDecoder decoder;
+
+    private ByteBuffer undecoded;
+
+    private FutureCallback<Void> resultCallback;
+
+    /**
+     * 加入为订阅方，已开始接收响应时返回空
+     *
+     * @param body      响应体写入的位置
+     * @param copyLimit 需要保留响应体副本时副本的字节上限，0为不需要
+     */
+    synchronized CompletableFuture<HttpResult> subscribe(ValueStore.Sink body, long copyLimit) {
+        if (started) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(body);
+        subscribers.add(subscriber);
+        this.copyLimit = Math.max(this.copyLimit, copyLimit);
+        return subscriber.result;
+    }
+
+    /**
+     * 请求结束后的响应体副本，UTF-8编码，请求失败、超过上限或不需要副本时为空
+     */
+    byte[] bodyCopy() {
+        return bodyCopy;
+    }
+
+    @Override
+    public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context,
+                                FutureCallback<Void> resultCallback) {
+        synchronized (this) {
+            started = true;
+            if (copyLimit > 0) {
+                copy = new ByteArrayOutputStream();
+            }
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            headers.putIfAbsent(header.getName().toLowerCase(), header.getValue());
+        }
+        this.code = response.getCode();
+        this.headers = Collections.unmodifiableMap(headers);
+        this.resultCallback = resultCallback;
+        if (entityDetails == null) {
+            resultCallback.completed(null);
+            return;
+        }
+        Charset charset = charset(entityDetails.getContentType());
+        if (!StandardCharsets.UTF_8.equals(charset) && !StandardCharsets.US_ASCII.equals(charset)) {
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        // 数据收到后立即写出，不需要限制接收窗口
+        capacityChannel.update(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void consume(ByteBuffer src) {
+        write(decoder == null ? src : transcode(src, false));
+        src.position(src.limit());
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) {
+        if (decoder != null) {
+            write(transcode(ByteBuffer.allocate(0), true));
+        }
+        resultCallback.completed(null);
+    }
+
+    @Override
+    public void failed(Exception cause) {
+    }
+
+    @Override
+    public void releaseResources() {
+    }
+
+    /**
+     * 写入每个订阅方，单个订阅方写入失败（如所在流程已结束）不影响其他订阅方
+     */
+    private synchronized void write(ByteBuffer chunk) {
+        if (finished) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.error == null) {
+                try {
+                    subscriber.body.write(chunk.duplicate());
+                } catch (RuntimeException e) {
+                    subscriber.error = e;
+                }
+            }
+        }
+        if (copy != null) {
+            if (copy.size() + (long) chunk.remaining() > copyLimit) {
+                copy = null;
+            } else {
+                byte[] data = new byte[chunk.remaining()];
+                chunk.duplicate().get(data);
+                copy.write(data, 0, data.length);
+            }
+        }
+    }
+
+    /**
+     * 解码本块和上一块剩余的字节，返回UTF-8编码的结果，多字节字符被截断的部分留到下一块
+     */
+    private ByteBuffer transcode(ByteBuffer src, boolean endOfStream) {
+        ByteBuffer in = src;
+        if (undecoded != null) {
+            in = ByteBuffer.allocate(undecoded.remaining() + src.remaining());
+            in.put(undecoded).put(src.duplicate());
+            in.flip();
+        }
+        CharBuffer chars = CharBuffer.allocate((int) (in.remaining() * decoder.maxCharsPerByte()) + 16);
+        decoder.decode(in, chars, endOfStream);
+        if (endOfStream) {
+            decoder.flush(chars);
+        }
+        if (in.hasRemaining()) {
+            undecoded = ByteBuffer.allocate(in.remaining());
+            undecoded.put(in);
+            undecoded.flip();
+        } else {
+            undecoded = null;
+        }
+        chars.flip();
+        return StandardCharsets.UTF_8.encode(chars);
+    }
+
+    /**
+     * 请求结束，在回调线程上完成各订阅方的响应，失败时丢弃已写入的内容
+     *
+     * @param error 请求失败的原因，成功时为空
+     */
+    synchronized void complete(Throwable error) {
+        started = true;
+        finished = true;
+        if (error == null && copy != null) {
+            bodyCopy = copy.toByteArray();
+        }
+        copy = null;
+        for (Subscriber subscriber : subscribers) {
+            Throwable cause = error != null ? error : subscriber.error;
+            if (cause == null) {
+                try {
+                    subscriber.result.complete(new HttpResult(code, headers, subscriber.body.finish()));
+                    continue;
+                } catch (RuntimeException e) {
+                    cause = e;
+                }
+            }
+            subscriber.body.abort();
+            subscriber.result.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 响应没有声明或声明了无法识别的字符集时按UTF-8解码
+     */
+    private static Charset charset(String contentType) {
+        try {
+            ContentType type = ContentType.parse(contentType);
+            return type == null || type.getCharset() == null ? StandardCharsets.UTF_8 : type.getCharset();
+        } catch (RuntimeException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static class Subscriber {
+
+        private final ValueStore.Sink body;
+
+        private final CompletableFuture<HttpResult> result = new CompletableFuture<>();
+
+        private RuntimeException error;
+
+        Subscriber(ValueStore.Sink body) {
+            this.body = body;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.aicoding.flow.node.model;
 
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.node.condition.ConditionPredicate;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.aicoding.flow.utils.VariableTemplate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
-
-import java.math.BigDecimal;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * 条件模型
@@ -39,50 +44,33 @@ public class ConditionModel {
     private String rightValueSelector;
 
     /**
-     * 右侧真实数值
+     * 编译后的判断，生成绑定参数时编译，之后只读
      */
-    private Object rightRealValue;
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient ConditionPredicate predicate;
 
     /**
-     * 左侧真实数值
+     * 两侧选择器编译后的模板，生成绑定参数时编译
      */
-    private Object leftRealValue;
-
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient VariableTemplate leftTemplate;
 
-    public boolean isTrue(){
-        if(operation.equals("empty")){
-            return leftRealValue==null;
-        }
-        if(operation.equals("not empty")){
-            return leftRealValue!=null;
-        }
-        if(dataType.equals("number")){
-            BigDecimal leftValue= new BigDecimal(leftRealValue.toString());
-            BigDecimal rightValue=new BigDecimal(rightRealValue.toString());
-            if(operation.equals("=")){
-                return leftValue.compareTo(rightValue)==0;
-            }else if(operation.equals("!=")){
-                return leftValue.compareTo(rightValue)!=0;
-            }else if(operation.equals("≥")){
-                return leftValue.compareTo(rightValue)>=0;
-            }else if(operation.equals("≤")){
-                return leftValue.compareTo(rightValue)<=0;
-            }else if(operation.equals("<")){
-                return leftValue.compareTo(rightValue)<0;
-            }else if(operation.equals(">")){
-                return leftValue.compareTo(rightValue)>0;
-            }
-        }else if(dataType.equals("string")){
-            if(operation.equals("contains")){
-                return leftRealValue.toString().contains(rightRealValue.toString());
-            }else if(operation.equals("!contains")){
-                return !leftRealValue.toString().contains(rightRealValue.toString());
-            }
-        }
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient VariableTemplate rightTemplate;
 
-        return false;
+    /**
+     * 从上下文中读取两侧的值并判断，右侧为常量时使用编译时解析的值
+     */
+    @JsonIgnore
+    public boolean isTrue(FlowContextWrapper context) {
+        Object left = context.value(leftTemplate);
+        Object right = VarConstant.SELECTOR.equals(rightVarType) ? context.value(rightTemplate) : null;
+        return predicate.test(left, right);
     }
-
-
-
 }
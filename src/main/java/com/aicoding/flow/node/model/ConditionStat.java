@@ -0,0 +1,49 @@
+package com.aicoding.flow.node.model;
+
+import lombok.Data;
+
+/**
+ * 条件命中统计
+ * @author gaoll
+ * @time 2025/6/19 15:20
+ **/
+@Data
+public class ConditionStat {
+
+    private String chainId;
+
+    /**
+     * 条件节点标签，即 节点ID-分支ID
+     */
+    private String tag;
+
+    /**
+     * 条件在分组中的位置，嵌套分组用/分隔，如 1/0 表示第二个子分组的第一个条件
+     */
+    private String path;
+
+    /**
+     * 条件描述：左侧 操作 右侧
+     */
+    private String condition;
+
+    /**
+     * 估算开销
+     */
+    private int cost;
+
+    /**
+     * 当前在分组内的执行顺序
+     */
+    private int rank;
+
+    /**
+     * 执行次数
+     */
+    private long evaluated;
+
+    /**
+     * 结果为true的次数
+     */
+    private long hits;
+}
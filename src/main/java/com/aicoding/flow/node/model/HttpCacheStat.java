@@ -0,0 +1,48 @@
+package com.aicoding.flow.node.model;
+
+import lombok.Data;
+
+/**
+ * http节点的请求合并和响应缓存统计
+ * @author gaoll
+ * @time 2025/6/24 10:30
+ **/
+@Data
+public class HttpCacheStat {
+
+    private String chainId;
+
+    /**
+     * http节点标签
+     */
+    private String tag;
+
+    /**
+     * 缓存时间，毫秒，0表示未开启缓存
+     */
+    private long ttlMs;
+
+    /**
+     * 当前缓存的响应数
+     */
+    private int entries;
+
+    /**
+     * 当前缓存的响应字节数
+     */
+    private long bytes;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * 因超出条数或字节上限被淘汰的响应数
+     */
+    private long evictions;
+
+    /**
+     * 合并到相同的进行中请求的次数
+     */
+    private long coalesced;
+}
@@ -1,6 +1,10 @@
 package com.aicoding.flow.node.model;
 
+import com.aicoding.flow.utils.VariableTemplate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * 参数模型
@@ -38,4 +42,12 @@ public class ParamModel {
      * 数据值
      */
     private String value;
+
+    /**
+     * 变量类型为selector时，数据值编译后的模板
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient VariableTemplate valueTemplate;
 }
@@ -1,8 +1,10 @@
 package com.aicoding.flow.node.parent;
 
+import com.aicoding.flow.graph.BindParamCache;
 import com.aicoding.flow.node.dsl.CommonNodeDsl;
 import com.aicoding.flow.workflow.FlowContextWrapper;
 import com.yomahub.liteflow.core.NodeBooleanComponent;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * @author gaoll
@@ -10,6 +12,9 @@ import com.yomahub.liteflow.core.NodeBooleanComponent;
  **/
 public abstract class CommonBoolNodeComponent extends NodeBooleanComponent implements INode{
 
+    @Autowired
+    private BindParamCache bindParamCache;
+
     @Override
     public boolean processBoolean() throws Exception {
         return doProcessBoolean();
@@ -22,17 +27,27 @@ public abstract class CommonBoolNodeComponent extends NodeBooleanComponent imple
         return getContextWrapper(this);
     }
 
+    protected String getFlowChainId() {
+        return getFlowChainId(this);
+    }
+
     protected CommonNodeDsl getBindParam() {
-        return getBindParam(this);
+        return getBindParam(CommonNodeDsl.class);
     }
 
+    /**
+     * 绑定参数按链路缓存，同一节点多次执行不再重复反序列化
+     */
     protected <T> T getBindParam(Class<T> clazz) {
-        return getBindParam(this, clazz);
+        return bindParamCache.get(this, clazz);
     }
 
+    /**
+     * 返回true时LiteFlow会在本节点之后结束整个流程
+     */
     @Override
     public boolean isEnd() {
-        return true;
+        return false;
     }
 
 
@@ -1,36 +1,61 @@
 package com.aicoding.flow.node.parent;
 
+import com.aicoding.flow.graph.BindParamCache;
 import com.aicoding.flow.node.dsl.CommonNodeDsl;
 import com.aicoding.flow.workflow.FlowContextWrapper;
 import com.yomahub.liteflow.core.NodeComponent;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * @author gaoll
  * @time 2025/5/22 19:02
  **/
 public abstract class CommonNodeComponent extends NodeComponent implements INode{
+
+    @Autowired
+    private BindParamCache bindParamCache;
     @Override
     public void process() throws Exception {
         doProcess();
+        if (!isAsync()) {
+            getContextWrapper().nodeFinished(getTag());
+        }
     }
 
     public abstract void doProcess();
 
+    /**
+     * 异步节点在输出完成时自行发布节点完成事件
+     */
+    protected boolean isAsync() {
+        return false;
+    }
+
+    protected String getFlowChainId() {
+        return getFlowChainId(this);
+    }
+
     protected FlowContextWrapper getContextWrapper() {
         return getContextWrapper(this);
     }
 
     protected CommonNodeDsl getBindParam() {
-        return getBindParam(this);
+        return getBindParam(CommonNodeDsl.class);
     }
 
+    /**
+     * 绑定参数按链路缓存，同一节点多次执行不再重复反序列化
+     */
     protected <T> T getBindParam(Class<T> clazz) {
-        return getBindParam(this, clazz);
+        return bindParamCache.get(this, clazz);
     }
 
+    /**
+     * 返回true时LiteFlow会在本节点之后结束整个流程
+     */
     @Override
     public boolean isEnd() {
-        return true;
+        return false;
     }
 
 }
@@ -1,17 +1,32 @@
 package com.aicoding.flow.node.parent;
 
+import cn.hutool.core.lang.Tuple;
 import com.aicoding.flow.constants.NodeConstant;
+import com.aicoding.flow.graph.model.CompiledChain;
 import com.aicoding.flow.node.dsl.CommonNodeDsl;
 import com.aicoding.flow.workflow.FlowContextWrapper;
 import com.yomahub.liteflow.core.NodeComponent;
 
+import java.util.List;
+
 /**
  * @author gaoll
  * @time 2025/5/23 9:21
  **/
 public interface INode {
+    /**
+     * 流程只传入一个上下文，直接取第一个；LiteFlow按类型查找上下文每次调用都会创建Stream
+     */
     default FlowContextWrapper getContextWrapper(NodeComponent node) {
-        return node.getContextBean(FlowContextWrapper.class);
+        List<Tuple> contexts = node.getSlot().getContextBeanList();
+        Object context = contexts.isEmpty() ? null : contexts.get(0).get(1);
+        return context instanceof FlowContextWrapper ? (FlowContextWrapper) context : node.getContextBean(FlowContextWrapper.class);
+    }
+    /**
+     * 所属流程的链路ID，分段执行时为完整链路的ID
+     */
+    default String getFlowChainId(NodeComponent node) {
+        return CompiledChain.ownerChainId(node.getCurrChainId());
     }
     default <T> T getBindParam(NodeComponent node,  Class<T> clazz) {
         return node.getBindData(NodeConstant.PARAM, clazz);
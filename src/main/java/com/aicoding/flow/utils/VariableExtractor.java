@@ -5,12 +5,9 @@ import lombok.Data;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 public class VariableExtractor {
-    private static Pattern pattern = Pattern.compile("\\{\\{#([^#]+)#}}");
-
 
     public static void main(String[] args) {
 
@@ -22,31 +19,36 @@ public class VariableExtractor {
 
 
     public static List<RespModel> extractorResp(String lineString) {
-        List<RespModel> strs = new ArrayList<>();
-
-
-        Matcher matcher = pattern.matcher(lineString);
-        int lastEnd = 0;
-
-        while (matcher.find()) {
+        VariableTemplate template = VariableTemplate.compile(lineString);
+        List<VariableTemplate.Slot> slots = template.getSlots();
+        List<RespModel> strs = new ArrayList<>(slots.size() * 2 + 1);
+        for (int i = 0; i < slots.size(); i++) {
             // 添加匹配前的文本部分（包含换行符）
-            if (matcher.start() > lastEnd) {
-                strs.add(new RespModel(VarConstant.TEXT, lineString.substring(lastEnd, matcher.start())));
+            if (!template.getText(i).isEmpty()) {
+                strs.add(new RespModel(VarConstant.TEXT, template.getText(i)));
             }
-
             // 添加匹配的选择器部分
-            strs.add(new RespModel(VarConstant.SELECTOR, matcher.group(0)));
-            lastEnd = matcher.end();
+            strs.add(new RespModel(VarConstant.SELECTOR, slots.get(i).getRaw()));
         }
-
         // 添加剩余的文本部分（包含最后的换行符）
-        if (lastEnd < lineString.length()) {
-            strs.add(new RespModel(VarConstant.TEXT, lineString.substring(lastEnd)));
+        if (!template.getText(slots.size()).isEmpty()) {
+            strs.add(new RespModel(VarConstant.TEXT, template.getText(slots.size())));
         }
-
         return strs;
     }
 
+    /**
+     * 提取文本中选择器引用的节点ID，如{{#1747878290364.name#}}中的1747878290364
+     */
+    public static void extractNodeIds(String lineString, Set<String> nodeIds) {
+        if (lineString == null || !lineString.contains(VarConstant.SELECTOR_START)) {
+            return;
+        }
+        for (VariableTemplate.Slot slot : VariableTemplate.compile(lineString).getSlots()) {
+            nodeIds.add(slot.getNodeId());
+        }
+    }
+
     @Data
     public static class RespModel {
         private String type;
@@ -0,0 +1,292 @@
+package com.aicoding.flow.utils;
+
+import cn.hutool.json.JSONUtil;
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.workflow.VariableSlots;
+import com.aicoding.flow.workflow.store.StoredValue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 预编译的变量模板，如"他的名字是：{{#1747878290364.name#}}"
+ * <p>
+ * 编译时一次性拆分为文本片段和变量槽位，渲染时按顺序拼接，不再做正则匹配。
+ * 节点参数中的模板在生成绑定参数时编译并保存在参数对象上，执行时不再按文本查找
+ *
+ * @author gaoll
+ * @time 2025/6/16 9:40
+ **/
+public class VariableTemplate {
+
+    private static final String[] EMPTY_PATH = new String[0];
+
+    /**
+     * texts[i]为第i个变量之前的文本，最后一个为末尾文本，长度为slots.length+1
+     */
+    private final String[] texts;
+
+    private final Slot[] slots;
+
+    private final List<Slot> slotList;
+
+    private final int textLength;
+
+    /**
+     * 绑定的槽位表，未绑定时为空
+     */
+    private final VariableSlots boundSlots;
+
+    /**
+     * 绑定后每个变量的下标
+     */
+    private final int[] indexes;
+
+    private VariableTemplate(List<String> texts, List<Slot> slots) {
+        this.texts = texts.toArray(new String[0]);
+        this.slots = slots.toArray(new Slot[0]);
+        this.slotList = Collections.unmodifiableList(Arrays.asList(this.slots));
+        int length = 0;
+        for (String text : texts) {
+            length += text.length();
+        }
+        this.textLength = length;
+        this.boundSlots = null;
+        this.indexes = null;
+    }
+
+    private VariableTemplate(VariableTemplate template, VariableSlots boundSlots, int[] indexes) {
+        this.texts = template.texts;
+        this.slots = template.slots;
+        this.slotList = template.slotList;
+        this.textLength = template.textLength;
+        this.boundSlots = boundSlots;
+        this.indexes = indexes;
+    }
+
+    /**
+     * 编译模板，null按空文本处理
+     */
+    public static VariableTemplate compile(String template) {
+        if (template == null) {
+            template = "";
+        }
+        List<String> texts = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        int textStart = 0;
+        int from = 0;
+        while (true) {
+            int start = template.indexOf(VarConstant.SELECTOR_START, from);
+            if (start < 0) {
+                break;
+            }
+            int selectorStart = start + VarConstant.SELECTOR_START.length();
+            int end = template.indexOf(VarConstant.SELECTOR_END, selectorStart);
+            if (end < 0) {
+                break;
+            }
+            //选择器不能为空，也不能包含#，否则从下一个字符继续查找
+            int hash = template.indexOf('#', selectorStart);
+            if (end == selectorStart || hash < end) {
+                from = start + 1;
+                continue;
+            }
+            texts.add(template.substring(textStart, start));
+            slots.add(new Slot(template.substring(start, end + VarConstant.SELECTOR_END.length()),
+                    template.substring(selectorStart, end)));
+            textStart = end + VarConstant.SELECTOR_END.length();
+            from = textStart;
+        }
+        texts.add(template.substring(textStart));
+        return new VariableTemplate(texts, slots);
+    }
+
+    /**
+     * 绑定到槽位表，返回的模板与原模板共用文本和变量
+     */
+    public VariableTemplate bind(VariableSlots slots, int[] indexes) {
+        return new VariableTemplate(this, slots, indexes);
+    }
+
+    /**
+     * 绑定到该槽位表时的变量下标，未绑定或绑定的是其他槽位表时为空
+     */
+    public int[] indexes(VariableSlots slots) {
+        return boundSlots == slots ? indexes : null;
+    }
+
+    public List<Slot> getSlots() {
+        return slotList;
+    }
+
+    /**
+     * 第i个变量之前的文本，i等于变量个数时为末尾文本
+     */
+    public String getText(int i) {
+        return texts[i];
+    }
+
+    public boolean hasSlots() {
+        return slots.length > 0;
+    }
+
+    /**
+     * 模板是否恰好是一个变量，没有其他文本
+     */
+    public boolean isSingleSlot() {
+        return slots.length == 1 && textLength == 0;
+    }
+
+    /**
+     * 单变量模板返回变量的原始值，否则返回渲染后的字符串
+     */
+    public Object value(Resolver resolver) {
+        if (isSingleSlot()) {
+            return resolver.resolve(0, slots[0]);
+        }
+        return render(resolver);
+    }
+
+    public String render(Resolver resolver) {
+        if (slots.length == 0) {
+            return texts[0];
+        }
+        StringBuilder out = new StringBuilder(textLength + slots.length * 16);
+        render(resolver, out);
+        return out.toString();
+    }
+
+    public void render(Resolver resolver, StringBuilder out) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(texts[i]);
+            appendValue(out, resolver.resolve(i, slots[i]));
+        }
+        out.append(texts[slots.length]);
+    }
+
+    public void render(Resolver resolver, Appendable out) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(texts[i]);
+            Object value = resolver.resolve(i, slots[i]);
+            if (value instanceof CharSequence) {
+                out.append((CharSequence) value);
+            } else if (value instanceof StoredValue) {
+                ((StoredValue) value).appendTo(out);
+            } else if (value != null) {
+                out.append(toText(value));
+            }
+        }
+        out.append(texts[slots.length]);
+    }
+
+    /**
+     * 按渲染规则追加变量值，null不输出，对象输出为JSON，堆外存储的值分段解码追加
+     */
+    public static void appendValue(StringBuilder out, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof CharSequence) {
+            out.append((CharSequence) value);
+        } else if (value instanceof StoredValue) {
+            ((StoredValue) value).appendTo(out);
+        } else if (value instanceof Integer || value instanceof Long) {
+            out.append(((Number) value).longValue());
+        } else {
+            out.append(toText(value));
+        }
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return value.toString();
+        }
+        return JSONUtil.toJsonStr(value);
+    }
+
+    /**
+     * 变量槽位，选择器在编译时拆分为节点ID、变量名和后续路径
+     */
+    public static class Slot {
+
+        /**
+         * 原始文本，如{{#1747878290364.name#}}
+         */
+        private final String raw;
+
+        private final String selector;
+
+        private final String nodeId;
+
+        private final String name;
+
+        /**
+         * 变量内部的取值路径，如{{#node.body.data.id#}}中的data、id
+         */
+        private final String[] path;
+
+        /**
+         * 节点ID.变量名，作为上下文中的查找键
+         */
+        private final String key;
+
+        Slot(String raw, String selector) {
+            this.raw = raw;
+            this.selector = selector;
+            String[] parts = selector.split("\\.", -1);
+            this.nodeId = parts[0];
+            this.name = parts.length > 1 ? parts[1] : "";
+            this.path = parts.length > 2 ? Arrays.copyOfRange(parts, 2, parts.length) : EMPTY_PATH;
+            this.key = parts.length > 1 ? nodeId + "." + name : nodeId;
+        }
+
+        public String getRaw() {
+            return raw;
+        }
+
+        public String getSelector() {
+            return selector;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String[] getPath() {
+            return path;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * 变量取值
+     */
+    public interface Resolver {
+        /**
+         * @param i    变量在模板中的序号
+         * @param slot 变量
+         */
+        Object resolve(int i, Slot slot);
+    }
+
+    /**
+     * 变量值的转义，模板中的固定文本不转义
+     */
+    public interface Encoder {
+        /**
+         * @param i    变量在模板中的序号
+         * @param text 按渲染规则转为文本的变量值
+         */
+        String encode(int i, String text);
+    }
+}
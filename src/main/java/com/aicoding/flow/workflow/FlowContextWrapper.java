@@ -1,9 +1,29 @@
 package com.aicoding.flow.workflow;
 
+import cn.hutool.core.io.IoUtil;
+import com.aicoding.flow.utils.VariableTemplate;
 import com.aicoding.flow.workflow.model.InputParam;
+import com.aicoding.flow.workflow.model.MessageModel;
+import com.aicoding.flow.workflow.store.StoredValue;
+import com.aicoding.flow.workflow.store.ValueStore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * @author gaoll
@@ -13,4 +33,372 @@ import java.util.List;
 public class FlowContextWrapper {
 
     private List<InputParam> userInputs;
+
+    /**
+     * 编译时分配的变量槽位
+     */
+    private final VariableSlots slots;
+
+    /**
+     * 根作用域，按槽位下标保存变量值，没有分配槽位的变量以 节点ID.变量名 为键保存
+     */
+    private final VariableScope root;
+
+    /**
+     * 回复节点输出的消息
+     */
+    private final List<MessageModel> messages = new CopyOnWriteArrayList<>();
+
+    /**
+     * 流式执行时的回复输出进度，非流式执行为空
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ReplyStreamer replyStreamer;
+
+    /**
+     * 流式执行时异步节点完成后在此发布节点完成事件，不占用异步回调线程
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Executor streamExecutor;
+
+    /**
+     * 大变量值的堆外存储，为空时变量值全部保存在堆上
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ValueStore valueStore;
+
+    /**
+     * 异步节点尚未完成的输出，流程结束前全部等待完成
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Queue<CompletableFuture<?>> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 流式执行时异步节点完成事件的发布，流程结束事件在全部发布之后输出
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Queue<CompletableFuture<?>> publishing = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 分段执行时的挂起点，非分段执行为空
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<String> suspendPoints;
+
+    /**
+     * 当前段结束时挂起的等待时长，由执行线程在段结束后取走
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile Long suspendDelay;
+
+    public FlowContextWrapper() {
+        this(VariableSlots.EMPTY);
+    }
+
+    public FlowContextWrapper(VariableSlots slots) {
+        this.slots = slots;
+        this.root = new VariableScope(slots.size());
+    }
+
+    /**
+     * 当前线程所在的作用域，并行分支和循环轮次中为对应的子作用域
+     */
+    public VariableScope scope() {
+        VariableScope scope = VariableScope.current();
+        return scope != null && scope.getRoot() == root ? scope : root;
+    }
+
+    public Object get(int slot) {
+        return PendingValue.resolve(scope().get(slot));
+    }
+
+    public void set(int slot, Object value) {
+        scope().set(slot, offload(value));
+    }
+
+    public void putVariable(String nodeId, String name, Object value) {
+        value = offload(value);
+        int slot = slots.indexOf(nodeId, name);
+        if (slot >= 0) {
+            scope().set(slot, value);
+        } else {
+            scope().putVariable(nodeId + "." + name, value);
+        }
+    }
+
+    public Object getVariable(String nodeId, String name) {
+        int slot = slots.indexOf(nodeId, name);
+        return PendingValue.resolve(slot >= 0 ? scope().get(slot) : scope().getVariable(nodeId + "." + name));
+    }
+
+    /**
+     * 保存异步节点的输出，节点线程立即返回，读取这些变量时才等待结果
+     * <p>
+     * 结果完成后再发布节点完成事件，流程结束前等待全部异步输出完成
+     *
+     * @param outputs 按变量名返回的输出
+     * @param names   输出的变量名，未完成前即可被下游引用
+     */
+    public void putAsync(String nodeId, CompletableFuture<Map<String, Object>> outputs, String... names) {
+        CompletableFuture<Map<String, Object>> stored = outputs.thenApply(values -> {
+            values.replaceAll((name, value) -> offload(value));
+            return values;
+        });
+        pending.add(stored);
+        for (String name : names) {
+            putVariable(nodeId, name, new PendingValue(stored.thenApply(values -> values.get(name))));
+        }
+        // 直接发布节点输出，不在回调线程上读取作用域：作用域可能正在被流程线程合并，循环作用域每轮还会清空。
+        // 输出消息可能因客户端接收慢而阻塞，转到流式执行的线程池，不阻塞http回调线程
+        if (replyStreamer != null) {
+            ReplyStreamer streamer = replyStreamer;
+            VariableSlots.NodeSlots nodeSlots = slots.node(nodeId);
+            publishing.add(stored.thenAcceptAsync(values -> streamer.nodeFinished(nodeId, slot -> values.get(nodeSlots.nameOf(slot))),
+                    streamExecutor));
+        }
+    }
+
+    /**
+     * 按执行顺序串联异步请求：同一作用域中之前发出的请求全部结束后才发出，节点线程不等待；
+     * 并行分支的请求互不等待。之前的请求失败时不再发出，返回同样的失败；流程结束取消后也不再发出
+     *
+     * @param request 发出请求，在之前的请求结束的线程上调用，不能读取作用域
+     */
+    public <T> CompletableFuture<T> sequence(Supplier<CompletableFuture<T>> request) {
+        VariableScope scope = scope();
+        CompletableFuture<?> previous = scope.getRequests();
+        CompletableFuture<T> result;
+        if (previous == null || (previous.isDone() && !previous.isCompletedExceptionally())) {
+            result = request.get();
+        } else {
+            CompletableFuture<T> chained = new CompletableFuture<>();
+            previous.whenComplete((v, e) -> {
+                if (e != null) {
+                    chained.completeExceptionally(e);
+                    return;
+                }
+                if (chained.isDone()) {
+                    return;
+                }
+                CompletableFuture<T> sent;
+                try {
+                    sent = request.get();
+                } catch (Throwable t) {
+                    chained.completeExceptionally(t);
+                    return;
+                }
+                chained.whenComplete((r, x) -> {
+                    if (chained.isCancelled()) {
+                        sent.cancel(true);
+                    }
+                });
+                sent.whenComplete((r, x) -> {
+                    if (x != null) {
+                        chained.completeExceptionally(x);
+                    } else {
+                        chained.complete(r);
+                    }
+                });
+            });
+            result = chained;
+        }
+        scope.setRequests(result);
+        return result;
+    }
+
+    /**
+     * 等待全部异步输出完成，任一失败时流程失败
+     */
+    public void awaitPending() {
+        for (CompletableFuture<?> future : pending) {
+            PendingValue.join(future);
+        }
+    }
+
+    /**
+     * 异步节点完成事件全部发布后结束，发布失败（客户端断开）同样视为结束，不阻塞调用线程
+     */
+    public CompletableFuture<Void> published() {
+        return CompletableFuture.allOf(publishing.toArray(new CompletableFuture<?>[0])).handle((v, e) -> null);
+    }
+
+    /**
+     * 等待节点请求挂起，节点是当前段的挂起点时记录等待时长，本段执行完成后释放线程，等待结束再执行下一段
+     *
+     * @return 是否已挂起，否则节点需要在当前线程等待
+     */
+    public boolean suspend(String nodeId, long delayMs) {
+        if (suspendPoints == null || !suspendPoints.contains(nodeId)) {
+            return false;
+        }
+        suspendDelay = delayMs;
+        return true;
+    }
+
+    /**
+     * 取走当前段结束时的等待时长，没有挂起时为空
+     */
+    Long takeSuspendDelay() {
+        Long delay = suspendDelay;
+        suspendDelay = null;
+        return delay;
+    }
+
+    /**
+     * 从流中读取变量值，较大的内容直接写入堆外存储，返回值再通过putVariable保存
+     *
+     * @param text 内容是否为UTF-8文本
+     */
+    public Object readValue(InputStream in, boolean text) {
+        if (valueStore != null) {
+            return valueStore.write(in, text);
+        }
+        return text ? IoUtil.read(in, StandardCharsets.UTF_8) : IoUtil.readBytes(in);
+    }
+
+    /**
+     * 打开分块写入的变量值，用于异步推送的内容（如HTTP响应体），规则与{@link #readValue(InputStream, boolean)}相同
+     *
+     * @param text 内容是否为UTF-8文本
+     */
+    public ValueStore.Sink openValue(boolean text) {
+        return valueStore != null ? valueStore.open(text) : ValueStore.heap(text);
+    }
+
+    /**
+     * 流程执行结束，释放堆外存储中的变量值
+     */
+    public void release() {
+        CompletableFuture<?> future;
+        while ((future = pending.poll()) != null) {
+            future.cancel(true);
+        }
+        if (valueStore != null) {
+            valueStore.close();
+        }
+    }
+
+    private Object offload(Object value) {
+        return valueStore == null ? value : valueStore.offload(value);
+    }
+
+    /**
+     * 循环条件判断时调用，进入循环时为本次循环创建子作用域，之后每轮把上一轮的变量合并回外层并复用该作用域
+     *
+     * @param loopId 循环节点ID
+     * @return 即将执行的轮次，从0开始
+     */
+    public int nextIteration(String loopId) {
+        VariableScope scope = scope();
+        if (loopId.equals(scope.getOwner())) {
+            return scope.nextRound();
+        }
+        VariableScope.attach(scope.fork(loopId));
+        return 0;
+    }
+
+    /**
+     * 循环结束，最后一轮的变量合并回外层
+     */
+    public void exitLoop(String loopId) {
+        VariableScope scope = scope();
+        if (loopId.equals(scope.getOwner())) {
+            scope = scope.mergeIntoParent();
+        }
+        VariableScope.attach(scope.isRoot() ? null : scope);
+    }
+
+    /**
+     * 节点执行完成，流式执行时发布节点产生的变量
+     */
+    public void nodeFinished(String nodeId) {
+        if (replyStreamer != null && nodeId != null) {
+            replyStreamer.nodeFinished(nodeId, scope());
+        }
+    }
+
+    /**
+     * 渲染回复内容，流式执行时输出尚未输出的部分
+     */
+    public String reply(String nodeId, VariableTemplate template) {
+        String answer = render(template);
+        if (replyStreamer != null) {
+            replyStreamer.finish(nodeId, this, scope(), answer);
+        }
+        return answer;
+    }
+
+    /**
+     * 渲染模板，模板在生成绑定参数时已编译，变量按槽位下标读取
+     */
+    public String render(VariableTemplate compiled) {
+        if (compiled == null) {
+            return null;
+        }
+        int[] indexes = slots.bind(compiled);
+        VariableScope scope = scope();
+        return compiled.render((i, slot) -> read(scope, indexes[i], slot));
+    }
+
+    /**
+     * 渲染模板，变量值转为文本后经encoder转义再拼接，如URL中的变量按百分号编码
+     */
+    public String render(VariableTemplate compiled, VariableTemplate.Encoder encoder) {
+        if (compiled == null) {
+            return null;
+        }
+        int[] indexes = slots.bind(compiled);
+        VariableScope scope = scope();
+        return compiled.render((i, slot) -> {
+            StringBuilder text = new StringBuilder();
+            VariableTemplate.appendValue(text, read(scope, indexes[i], slot));
+            return encoder.encode(i, text.toString());
+        });
+    }
+
+    /**
+     * 单变量模板返回变量的原始值，否则返回渲染后的字符串
+     */
+    public Object value(VariableTemplate compiled) {
+        if (compiled == null) {
+            return null;
+        }
+        int[] indexes = slots.bind(compiled);
+        VariableScope scope = scope();
+        if (compiled.isSingleSlot()) {
+            // 条件和循环每次判断都会读取，单变量直接读取，不创建回调
+            return read(scope, indexes[0], compiled.getSlots().get(0));
+        }
+        return compiled.value((i, slot) -> read(scope, indexes[i], slot));
+    }
+
+    Object read(VariableScope scope, int index, VariableTemplate.Slot slot) {
+        return path(index >= 0 ? scope.get(index) : scope.getVariable(slot.getKey()), slot);
+    }
+
+    /**
+     * 变量内部的路径逐层从Map中读取，堆外存储的JSON文本流式读取路径上的值
+     */
+    static Object path(Object value, VariableTemplate.Slot slot) {
+        value = PendingValue.resolve(value);
+        if (value instanceof StoredValue && slot.getPath().length > 0) {
+            return ((StoredValue) value).path(slot.getPath());
+        }
+        for (String key : slot.getPath()) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map<?, ?>) value).get(key);
+        }
+        return value;
+    }
 }
@@ -0,0 +1,109 @@
+package com.aicoding.flow.workflow;
+
+import com.aicoding.flow.workflow.model.MessageModel;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 流式执行的消息通道，节点线程写入有界队列，同一时刻只有一个写入线程负责把队列中的消息交给客户端
+ * <p>
+ * 客户端接收慢时发送线程阻塞，队列写满后其他节点线程在写入时等待，超时则中断流程
+ *
+ * @author gaoll
+ * @time 2025/6/20 9:40
+ **/
+public class MessageStream {
+
+    private final BlockingQueue<MessageModel> queue;
+
+    private final long offerTimeoutMs;
+
+    private final Consumer<MessageModel> consumer;
+
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private volatile boolean cancelled;
+
+    public MessageStream(int capacity, long offerTimeoutMs, Consumer<MessageModel> consumer) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.consumer = consumer;
+    }
+
+    public void emit(MessageModel message) {
+        if (cancelled) {
+            throw new RuntimeException("客户端已断开，流式输出已取消");
+        }
+        try {
+            if (!queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                cancel();
+                throw new RuntimeException("客户端接收过慢，流式输出已中断");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("流式输出被中断", e);
+        }
+        // 没有线程在发送时由当前线程发送，释放锁后再检查一次，避免漏掉其他线程刚写入的消息
+        while (!queue.isEmpty() && sendLock.tryLock()) {
+            try {
+                send();
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 发送剩余消息并结束
+     */
+    public void close() {
+        sendLock.lock();
+        try {
+            if (!cancelled) {
+                send();
+            }
+            done.complete(null);
+        } catch (RuntimeException e) {
+            done.completeExceptionally(e);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * 客户端断开或超时，丢弃未发送的消息，之后的写入直接失败
+     */
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 全部消息发送完成或发送失败时结束
+     */
+    public CompletableFuture<Void> getDone() {
+        return done;
+    }
+
+    private void send() {
+        for (MessageModel message = queue.poll(); message != null && !cancelled; message = queue.poll()) {
+            try {
+                consumer.accept(message);
+            } catch (RuntimeException e) {
+                cancel();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.aicoding.flow.workflow;
+
+import com.yomahub.liteflow.thread.ExecutorBuilder;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 自动并行的WHEN分组使用的线程池，分组内多为http等IO节点，线程数按CPU核数放大
+ * 同时配置为全局WHEN线程池，每个分支在独立的变量作用域中执行；虚拟线程模式下每个分支一个虚拟线程
+ * @author gaoll
+ * @time 2025/6/9 11:02
+ **/
+public class ParallelExecutorBuilder implements ExecutorBuilder {
+
+    @Override
+    public ExecutorService buildExecutor() {
+        if (VirtualThreads.isEnabled()) {
+            return new ScopedExecutorService(VirtualThreads.newExecutor("workflow-parallel-"));
+        }
+        int size = Runtime.getRuntime().availableProcessors() * 4;
+        return new ScopedExecutorService(buildDefaultExecutor(size, size, 1024, "workflow-parallel-thread-"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.aicoding.flow.workflow;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 异步节点尚未完成的输出变量，节点线程不等待结果，读取变量时才等待
+ *
+ * @author gaoll
+ * @time 2025/6/23 10:15
+ **/
+public final class PendingValue {
+
+    private final CompletableFuture<?> future;
+
+    PendingValue(CompletableFuture<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * 等待中的变量返回结果，其他值原样返回
+     */
+    public static Object resolve(Object value) {
+        return value instanceof PendingValue ? ((PendingValue) value).get() : value;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public Object get() {
+        return join(future);
+    }
+
+    static Object join(CompletableFuture<?> future) {
+        try {
+            return future.join();
+        } catch (CancellationException e) {
+            throw new RuntimeException("流程已结束，异步节点已取消");
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.aicoding.flow.workflow;
+
+import com.aicoding.flow.constants.NodeTypeConstant;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.utils.VariableTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 回复节点的流式输出计划，编译时确定哪些回复可以提前输出
+ * <p>
+ * 主流程中一定会执行的回复节点（从开始节点出发绕过它到达不了任何终点），且它上游的回复节点也都一定执行时，
+ * 不必等到节点本身执行：变量所属节点一执行完，回复中到该变量为止的内容就可以输出。
+ * 上游回复输出完之后才开始输出下游回复，保证顺序与非流式一致。
+ * 只有主流程中非循环节点、且位于回复上游的节点产生的变量可以提前输出，其余变量等回复节点执行时再输出
+ *
+ * @author gaoll
+ * @time 2025/6/20 10:20
+ **/
+public class ReplyPlan {
+
+    public static final ReplyPlan EMPTY = new ReplyPlan(Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap());
+
+    private static final int[] NONE = new int[0];
+
+    /**
+     * 节点ID -> 回复
+     */
+    private final Map<String, Reply> replies;
+
+    /**
+     * 可提前输出的回复，按上下游顺序排列
+     */
+    private final List<Reply> eager;
+
+    /**
+     * 节点ID -> 该节点执行完后可以发布的变量下标
+     */
+    private final Map<String, int[]> published;
+
+    private ReplyPlan(Map<String, Reply> replies, List<Reply> eager, Map<String, int[]> published) {
+        this.replies = replies;
+        this.eager = eager;
+        this.published = published;
+    }
+
+    public static ReplyPlan build(GraphModel graph, VariableSlots slots) {
+        if (graph.getNodes() == null) {
+            return EMPTY;
+        }
+        Map<String, GraphModel.WorkNode> main = new LinkedHashMap<>();
+        Map<String, Reply> replies = new LinkedHashMap<>();
+        String start = null;
+        for (GraphModel.WorkNode node : graph.getNodes()) {
+            if (isReply(node)) {
+                String text = node.getData() == null ? null : node.getData().getAnswer();
+                VariableTemplate template = VariableTemplate.compile(text);
+                replies.put(node.getId(), new Reply(node.getId(), node.getTitle(), template, slots.bind(template)));
+            }
+            if (!StringUtils.hasText(node.getParentId())) {
+                main.put(node.getId(), node);
+                if (NodeTypeConstant.START.equals(node.getType())) {
+                    start = node.getId();
+                }
+            }
+        }
+        Map<String, List<String>> successors = new HashMap<>();
+        Map<String, List<String>> predecessors = new HashMap<>();
+        if (graph.getEdges() != null) {
+            for (GraphModel.EdgeModel edge : graph.getEdges()) {
+                if (main.containsKey(edge.getSource()) && main.containsKey(edge.getTarget())) {
+                    successors.computeIfAbsent(edge.getSource(), k -> new ArrayList<>()).add(edge.getTarget());
+                    predecessors.computeIfAbsent(edge.getTarget(), k -> new ArrayList<>()).add(edge.getSource());
+                }
+            }
+        }
+        if (start == null) {
+            return new ReplyPlan(replies, Collections.emptyList(), Collections.emptyMap());
+        }
+        Map<String, Set<String>> ancestors = new HashMap<>();
+        Set<String> certain = new HashSet<>();
+        for (Reply reply : replies.values()) {
+            if (main.containsKey(reply.nodeId)) {
+                ancestors.put(reply.nodeId, reach(reply.nodeId, predecessors, null));
+                if (isCertain(start, reply.nodeId, successors)) {
+                    certain.add(reply.nodeId);
+                }
+            }
+        }
+        List<Reply> eager = new ArrayList<>();
+        Map<String, List<Integer>> published = new HashMap<>();
+        for (Reply reply : replies.values()) {
+            if (!certain.contains(reply.nodeId)) {
+                continue;
+            }
+            Set<String> upstream = ancestors.get(reply.nodeId);
+            boolean upstreamCertain = true;
+            for (String id : upstream) {
+                if (replies.containsKey(id) && !certain.contains(id)) {
+                    upstreamCertain = false;
+                    break;
+                }
+            }
+            if (upstreamCertain) {
+                eager.add(reply);
+            }
+        }
+        // 按上游回复数量排序即为上下游顺序
+        eager.sort((a, b) -> Integer.compare(upstreamReplies(a, ancestors, replies), upstreamReplies(b, ancestors, replies)));
+        for (int i = 0; i < eager.size(); i++) {
+            Reply reply = eager.get(i);
+            Set<String> upstream = ancestors.get(reply.nodeId);
+            List<Integer> after = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                if (upstream.contains(eager.get(j).nodeId)) {
+                    after.add(j);
+                }
+            }
+            reply.eagerIndex = i;
+            reply.after = toArray(after);
+            List<VariableTemplate.Slot> templateSlots = reply.template.getSlots();
+            int limit = 0;
+            while (limit < templateSlots.size()) {
+                String owner = templateSlots.get(limit).getNodeId();
+                GraphModel.WorkNode node = main.get(owner);
+                if (reply.indexes[limit] < 0 || node == null || NodeTypeConstant.LOOP.equals(node.getType()) || !upstream.contains(owner)) {
+                    break;
+                }
+                List<Integer> indexes = published.computeIfAbsent(owner, k -> new ArrayList<>());
+                if (!indexes.contains(reply.indexes[limit])) {
+                    indexes.add(reply.indexes[limit]);
+                }
+                limit++;
+            }
+            reply.eagerLimit = limit;
+        }
+        Map<String, int[]> publishedSlots = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : published.entrySet()) {
+            publishedSlots.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        return new ReplyPlan(replies, eager, publishedSlots);
+    }
+
+    public Reply reply(String nodeId) {
+        return replies.get(nodeId);
+    }
+
+    public List<Reply> getEager() {
+        return eager;
+    }
+
+    /**
+     * 节点执行完后可以发布的变量下标
+     */
+    public int[] published(String nodeId) {
+        int[] slots = published.get(nodeId);
+        return slots == null ? NONE : slots;
+    }
+
+    private static boolean isReply(GraphModel.WorkNode node) {
+        return NodeTypeConstant.END.equals(node.getType()) || NodeTypeConstant.ANSWER.equals(node.getType());
+    }
+
+    /**
+     * 从开始节点出发绕过该节点，到达不了任何终点时该节点一定执行
+     */
+    private static boolean isCertain(String start, String nodeId, Map<String, List<String>> successors) {
+        if (start.equals(nodeId)) {
+            return true;
+        }
+        for (String id : reach(start, successors, nodeId)) {
+            if (!successors.containsKey(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从from出发可达的节点（不含from），不经过skip
+     */
+    private static Set<String> reach(String from, Map<String, List<String>> edges, String skip) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>(edges.getOrDefault(from, Collections.emptyList()));
+        while (!stack.isEmpty()) {
+            String id = stack.pop();
+            if (id.equals(skip) || id.equals(from) || !visited.add(id)) {
+                continue;
+            }
+            stack.addAll(edges.getOrDefault(id, Collections.emptyList()));
+        }
+        return visited;
+    }
+
+    private static int upstreamReplies(Reply reply, Map<String, Set<String>> ancestors, Map<String, Reply> replies) {
+        int count = 0;
+        for (String id : ancestors.get(reply.nodeId)) {
+            if (replies.containsKey(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * 回复节点的模板及变量下标
+     */
+    public static class Reply {
+
+        final String nodeId;
+
+        final String nodeName;
+
+        final VariableTemplate template;
+
+        final int[] indexes;
+
+        /**
+         * 在可提前输出的回复中的序号，不能提前输出时为-1
+         */
+        int eagerIndex = -1;
+
+        /**
+         * 需要先输出完的上游回复序号
+         */
+        int[] after = NONE;
+
+        /**
+         * 前eagerLimit个变量可以提前输出
+         */
+        int eagerLimit;
+
+        Reply(String nodeId, String nodeName, VariableTemplate template, int[] indexes) {
+            this.nodeId = nodeId;
+            this.nodeName = nodeName;
+            this.template = template;
+            this.indexes = indexes;
+        }
+
+        public boolean isEager() {
+            return eagerIndex >= 0;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.aicoding.flow.workflow;
+
+import com.aicoding.flow.constants.EventConstant;
+import com.aicoding.flow.utils.VariableTemplate;
+import com.aicoding.flow.workflow.model.MessageModel;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * 一次流式执行中回复节点的输出进度
+ * <p>
+ * 节点执行完时发布它产生的变量，可提前输出的回复按模板顺序输出到第一个还没有值的变量为止；
+ * 回复节点执行时输出剩余内容
+ *
+ * @author gaoll
+ * @time 2025/6/20 11:10
+ **/
+public class ReplyStreamer {
+
+    /**
+     * 已发布但值为null
+     */
+    private static final Object NULL = new Object();
+
+    private final ReplyPlan plan;
+
+    private final MessageStream stream;
+
+    /**
+     * 按变量下标保存已发布的值，未发布为null
+     */
+    private final AtomicReferenceArray<Object> published;
+
+    private final Progress[] progresses;
+
+    public ReplyStreamer(ReplyPlan plan, int slotCount, MessageStream stream) {
+        this.plan = plan;
+        this.stream = stream;
+        this.published = new AtomicReferenceArray<>(slotCount);
+        List<ReplyPlan.Reply> eager = plan.getEager();
+        this.progresses = new Progress[eager.size()];
+        for (int i = 0; i < progresses.length; i++) {
+            progresses[i] = new Progress(eager.get(i));
+        }
+    }
+
+    /**
+     * 流程开始，输出可提前输出的回复中第一个变量之前的文本
+     */
+    public void start() {
+        advance();
+    }
+
+    /**
+     * 节点执行完，发布它的变量并推进可提前输出的回复
+     */
+    void nodeFinished(String nodeId, VariableScope scope) {
+        nodeFinished(nodeId, scope::get);
+    }
+
+    /**
+     * 节点执行完，按下标读取它的变量发布
+     */
+    void nodeFinished(String nodeId, IntFunction<Object> values) {
+        MessageModel message = message(EventConstant.NODE_FINISHED, nodeId, null, null);
+        stream.emit(message);
+        int[] slots = plan.published(nodeId);
+        if (slots.length == 0) {
+            return;
+        }
+        for (int slot : slots) {
+            Object value = values.apply(slot);
+            published.set(slot, value == null ? NULL : value);
+        }
+        advance();
+    }
+
+    /**
+     * 回复节点执行，输出还没有输出的内容
+     */
+    void finish(String nodeId, FlowContextWrapper context, VariableScope scope, String answer) {
+        ReplyPlan.Reply reply = plan.reply(nodeId);
+        if (reply == null || !reply.isEager()) {
+            if (answer != null && !answer.isEmpty()) {
+                stream.emit(message(EventConstant.MESSAGE, nodeId, reply == null ? null : reply.nodeName, answer));
+            }
+            return;
+        }
+        progresses[reply.eagerIndex].advance(context, scope);
+        advance();
+    }
+
+    private void advance() {
+        for (Progress progress : progresses) {
+            if (!progress.streamed && upstreamStreamed(progress.reply)) {
+                progress.advance(null, null);
+            }
+        }
+    }
+
+    private boolean upstreamStreamed(ReplyPlan.Reply reply) {
+        for (int index : reply.after) {
+            if (!progresses[index].streamed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageModel message(String event, String nodeId, String nodeName, String answer) {
+        MessageModel message = new MessageModel();
+        message.setEvent(event);
+        message.setAnswer(answer);
+        message.setNodeId(nodeId);
+        message.setNodeName(nodeName);
+        return message;
+    }
+
+    /**
+     * 单个回复的输出位置
+     */
+    private final class Progress {
+
+        private final ReplyPlan.Reply reply;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 下一个要输出的变量序号
+         */
+        private int position;
+
+        /**
+         * position之前的文本是否已输出
+         */
+        private boolean textSent;
+
+        private volatile boolean streamed;
+
+        Progress(ReplyPlan.Reply reply) {
+            this.reply = reply;
+        }
+
+        /**
+         * @param context 回复节点执行时传入，从作用域读取全部变量；为空时只输出已发布的变量
+         */
+        void advance(FlowContextWrapper context, VariableScope scope) {
+            lock.lock();
+            try {
+                if (streamed) {
+                    return;
+                }
+                VariableTemplate template = reply.template;
+                List<VariableTemplate.Slot> slots = template.getSlots();
+                StringBuilder out = new StringBuilder();
+                while (true) {
+                    if (!textSent) {
+                        out.append(template.getText(position));
+                        textSent = true;
+                    }
+                    if (position == slots.size()) {
+                        streamed = true;
+                        break;
+                    }
+                    VariableTemplate.Slot slot = slots.get(position);
+                    Object value;
+                    if (context != null) {
+                        value = context.read(scope, reply.indexes[position], slot);
+                    } else {
+                        Object raw = position < reply.eagerLimit ? published.get(reply.indexes[position]) : null;
+                        if (raw == null) {
+                            break;
+                        }
+                        value = FlowContextWrapper.path(raw == NULL ? null : raw, slot);
+                    }
+                    VariableTemplate.appendValue(out, value);
+                    position++;
+                    textSent = false;
+                }
+                if (out.length() > 0) {
+                    stream.emit(message(EventConstant.MESSAGE, reply.nodeId, reply.nodeName, out.toString()));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.aicoding.flow.workflow;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为每个提交的并行分支创建子作用域，分支结束后登记到提交方作用域等待合并
+ *
+ * @author gaoll
+ * @time 2025/6/18 11:30
+ **/
+public class ScopedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    public ScopedExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        VariableScope parent = VariableScope.current();
+        if (parent == null) {
+            delegate.execute(command);
+            return;
+        }
+        // 在提交线程上创建，创建顺序即分支顺序
+        VariableScope child = parent.forkBranch();
+        try {
+            delegate.execute(() -> {
+                VariableScope previous = VariableScope.attach(child);
+                try {
+                    command.run();
+                } finally {
+                    VariableScope.attach(previous);
+                    child.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            child.complete();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
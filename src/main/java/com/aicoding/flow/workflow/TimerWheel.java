@@ -0,0 +1,232 @@
+package com.aicoding.flow.workflow;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 哈希时间轮，只用一个线程驱动任意数量的定时任务，每个等待中的任务只占用一个链表节点
+ * <p>
+ * 时间轮由wheelSize个槽组成，每tick前进一格；任务按到期的tick数取模放入对应的槽，
+ * 超过一圈的任务记录剩余圈数，指针经过时减一，到零时交给executor执行。到期精度为一个tick。
+ * 停止时尚未到期的任务不会丢弃，全部交还调用方
+ *
+ * @author gaoll
+ * @time 2025/6/25 10:30
+ **/
+@Slf4j
+public class TimerWheel {
+
+    private final long tickNanos;
+
+    private final Slot[] wheel;
+
+    private final int mask;
+
+    private final Executor executor;
+
+    /**
+     * 新加入的任务，由时间轮线程在每个tick开始时放入槽中，调用方不需要加锁
+     */
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final long startTime = System.nanoTime();
+
+    private final Thread worker;
+
+    private volatile boolean closed;
+
+    /**
+     * @param tickMs    每格的时长
+     * @param wheelSize 槽数，向上取整为2的幂
+     * @param executor  到期任务的执行线程池，时间轮线程本身不执行任务
+     */
+    public TimerWheel(long tickMs, int wheelSize, Executor executor, String threadName) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new RuntimeException("时间轮的tick和槽数必须大于0");
+        }
+        int n = 1;
+        while (n < wheelSize) {
+            n <<= 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.wheel = new Slot[n];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Slot();
+        }
+        this.mask = wheel.length - 1;
+        this.executor = executor;
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 延迟delayMs后在executor中执行task
+     */
+    public void schedule(Runnable task, long delayMs) {
+        if (closed) {
+            throw new RuntimeException("定时器已关闭");
+        }
+        long deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        Timeout timeout = new Timeout(task, deadline);
+        size.incrementAndGet();
+        added.add(timeout);
+        // 与停止并发时，未被停止方取走的任务由调用方处理，取走的随其他未到期任务一起交还
+        if (closed && added.remove(timeout)) {
+            size.decrementAndGet();
+            throw new RuntimeException("定时器已关闭");
+        }
+    }
+
+    /**
+     * 等待中的任务数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 停止时间轮，等待时间轮线程退出后返回全部尚未到期的任务，这些任务不会再执行
+     */
+    public List<Runnable> shutdownNow() {
+        closed = true;
+        worker.interrupt();
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> pending = new ArrayList<>(size.get());
+        for (Slot slot : wheel) {
+            for (Timeout timeout = slot.head; timeout != null; timeout = timeout.next) {
+                pending.add(timeout.task);
+            }
+            slot.head = null;
+            slot.tail = null;
+        }
+        for (Timeout timeout = added.poll(); timeout != null; timeout = added.poll()) {
+            pending.add(timeout.task);
+        }
+        size.addAndGet(-pending.size());
+        return pending;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep;
+            while ((sleep = deadline - (System.nanoTime() - startTime)) > 0 && !closed) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (closed) {
+                break;
+            }
+            transfer(tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    /**
+     * 新任务放入到期tick所在的槽，已经过期的放入当前槽
+     */
+    private void transfer(long tick) {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            long expireTick = timeout.deadline / tickNanos;
+            timeout.rounds = (expireTick - tick) / wheel.length;
+            wheel[(int) (Math.max(expireTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Slot slot) {
+        Timeout prev = null;
+        Timeout timeout = slot.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds <= 0) {
+                slot.remove(prev, timeout);
+                size.decrementAndGet();
+                dispatch(timeout.task);
+            } else {
+                timeout.rounds--;
+                prev = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.error("timer task rejected", e);
+        }
+    }
+
+    private static final class Timeout {
+
+        final Runnable task;
+
+        final long deadline;
+
+        long rounds;
+
+        Timeout next;
+
+        Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 单向链表，只由时间轮线程访问
+     */
+    private static final class Slot {
+
+        Timeout head;
+
+        Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout prev, Timeout timeout) {
+            if (prev == null) {
+                head = timeout.next;
+            } else {
+                prev.next = timeout.next;
+            }
+            if (tail == timeout) {
+                tail = prev;
+            }
+            timeout.next = null;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.aicoding.flow.workflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分层变量作用域，子作用域只记录自己写入的变量，读取时沿父链向上查找
+ * <p>
+ * 并行分支各用一个子作用域，创建为O(1)，写入互不可见；一次循环执行只创建一个子作用域，每轮结束时合并回外层后清空复用；
+ * 分支结束后登记到父作用域，父作用域下次读写时按分支创建顺序合并，结果与线程调度无关。
+ * 分支执行期间父作用域只读，无需加锁。生成的WHEN都等待全部分支完成，
+ * 父作用域读写时若仍有分支未登记（分支已返回但尚未执行到登记），等待最后一个分支登记时唤醒，等待被中断时不合并。
+ * 作用域只由执行流程的线程读写，异步回调不读取作用域
+ *
+ * @author gaoll
+ * @time 2025/6/18 10:10
+ **/
+public class VariableScope {
+
+    private static final ThreadLocal<VariableScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 子作用域中显式写入的null，与未写入区分
+     */
+    private static final Object NULL = new Object();
+
+    private final VariableScope parent;
+
+    private final VariableScope root;
+
+    private final int size;
+
+    /**
+     * 在父作用域中的创建序号，决定合并顺序
+     */
+    private final int seq;
+
+    /**
+     * 所属循环ID，并行分支为空
+     */
+    private final String owner;
+
+    private Object[] local;
+
+    private Map<String, Object> overflow;
+
+    /**
+     * 循环作用域当前的轮次，从0开始
+     */
+    private int round;
+
+    /**
+     * 本作用域最后发出的异步请求，结束时之前的请求都已结束；为空时沿父链查找，合并时与父作用域的请求合并
+     */
+    private CompletableFuture<?> requests;
+
+    private final AtomicInteger forks = new AtomicInteger();
+
+    /**
+     * 已创建但尚未结束的并行分支数
+     */
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final Queue<VariableScope> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 等待并行分支全部登记，只在有分支未结束时使用
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition allFinished = lock.newCondition();
+
+    /**
+     * 根作用域
+     */
+    public VariableScope(int size) {
+        this.parent = null;
+        this.root = this;
+        this.size = size;
+        this.seq = 0;
+        this.owner = null;
+        this.local = new Object[size];
+        this.overflow = new ConcurrentHashMap<>();
+    }
+
+    private VariableScope(VariableScope parent, int seq, String owner) {
+        this.parent = parent;
+        this.root = parent.root;
+        this.size = parent.size;
+        this.seq = seq;
+        this.owner = owner;
+    }
+
+    /**
+     * 当前线程绑定的作用域，没有时为空
+     */
+    public static VariableScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 绑定到当前线程，返回之前绑定的作用域，用于恢复
+     */
+    public static VariableScope attach(VariableScope scope) {
+        VariableScope previous = CURRENT.get();
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+        return previous;
+    }
+
+    public VariableScope getParent() {
+        return parent;
+    }
+
+    public VariableScope getRoot() {
+        return root;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * 创建子作用域
+     *
+     * @param owner 所属循环ID，并行分支为空
+     */
+    public VariableScope fork(String owner) {
+        return new VariableScope(this, forks.getAndIncrement(), owner);
+    }
+
+    /**
+     * 创建并行分支的子作用域，分支结束时需调用{@link #complete()}
+     */
+    public VariableScope forkBranch() {
+        running.incrementAndGet();
+        return fork(null);
+    }
+
+    /**
+     * 并行分支执行结束，等待父作用域合并
+     */
+    public void complete() {
+        parent.finished.add(this);
+        if (parent.running.decrementAndGet() == 0) {
+            parent.lock.lock();
+            try {
+                parent.allFinished.signalAll();
+            } finally {
+                parent.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 立即合并到父作用域并返回父作用域，用于退出循环
+     */
+    public VariableScope mergeIntoParent() {
+        settle();
+        parent.settle();
+        mergeInto(parent);
+        return parent;
+    }
+
+    /**
+     * 循环进入下一轮：本轮写入的变量合并到父作用域，清空后继续作为下一轮的作用域，不创建新对象
+     *
+     * @return 下一轮的轮次
+     */
+    public int nextRound() {
+        settle();
+        parent.settle();
+        mergeInto(parent);
+        if (local != null) {
+            Arrays.fill(local, null);
+        }
+        if (overflow != null) {
+            overflow.clear();
+        }
+        return ++round;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * 按执行顺序在此之前发出的异步请求，全部结束时完成，没有时为空
+     */
+    public CompletableFuture<?> getRequests() {
+        settle();
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            if (scope.requests != null) {
+                return scope.requests;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 记录新发出的异步请求，请求需在{@link #getRequests()}结束后才发出
+     */
+    public void setRequests(CompletableFuture<?> requests) {
+        settle();
+        this.requests = requests;
+    }
+
+    public Object get(int slot) {
+        settle();
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            Object[] values = scope.local;
+            if (values != null && values[slot] != null) {
+                return values[slot] == NULL ? null : values[slot];
+            }
+        }
+        return null;
+    }
+
+    public void set(int slot, Object value) {
+        settle();
+        if (local == null) {
+            local = new Object[size];
+        }
+        local[slot] = value == null && parent != null ? NULL : value;
+    }
+
+    public Object getVariable(String key) {
+        settle();
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            Object value = scope.overflow == null ? null : scope.overflow.get(key);
+            if (value != null) {
+                return value == NULL ? null : value;
+            }
+        }
+        return null;
+    }
+
+    public void putVariable(String key, Object value) {
+        settle();
+        if (parent == null) {
+            if (value == null) {
+                overflow.remove(key);
+            } else {
+                overflow.put(key, value);
+            }
+            return;
+        }
+        if (overflow == null) {
+            overflow = new HashMap<>();
+        }
+        overflow.put(key, value == null ? NULL : value);
+    }
+
+    /**
+     * 按创建顺序合并已结束的子作用域
+     */
+    private void settle() {
+        if (running.get() > 0) {
+            awaitBranches();
+        }
+        if (finished.isEmpty()) {
+            return;
+        }
+        List<VariableScope> children = new ArrayList<>();
+        for (VariableScope child = finished.poll(); child != null; child = finished.poll()) {
+            children.add(child);
+        }
+        children.sort(Comparator.comparingInt(child -> child.seq));
+        for (VariableScope child : children) {
+            child.settle();
+            child.mergeInto(this);
+        }
+    }
+
+    /**
+     * 等待全部并行分支登记，被中断时抛出异常，不合并只执行了一部分的分支
+     */
+    private void awaitBranches() {
+        lock.lock();
+        try {
+            while (running.get() > 0) {
+                allFinished.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待并行分支结束时被中断", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void mergeInto(VariableScope target) {
+        if (requests != null) {
+            //分支的请求已串联在分叉前的请求之后，并行分支的请求全部结束后外层的下一个请求才发出
+            target.requests = target.requests == null ? requests : CompletableFuture.allOf(target.requests, requests);
+            requests = null;
+        }
+        if (local != null) {
+            for (int slot = 0; slot < size; slot++) {
+                Object value = local[slot];
+                if (value != null) {
+                    if (target.local == null) {
+                        target.local = new Object[size];
+                    }
+                    target.local[slot] = value == NULL && target.parent == null ? null : value;
+                }
+            }
+        }
+        if (overflow != null) {
+            for (Map.Entry<String, Object> entry : overflow.entrySet()) {
+                Object value = entry.getValue();
+                if (target.parent == null) {
+                    if (value == NULL) {
+                        target.overflow.remove(entry.getKey());
+                    } else {
+                        target.overflow.put(entry.getKey(), value);
+                    }
+                } else {
+                    if (target.overflow == null) {
+                        target.overflow = new HashMap<>();
+                    }
+                    target.overflow.put(entry.getKey(), value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.aicoding.flow.workflow;
+
+import cn.hutool.json.JSONUtil;
+import com.aicoding.flow.constants.NodeTypeConstant;
+import com.aicoding.flow.constants.VarConstant;
+import com.aicoding.flow.graph.model.GraphModel;
+import com.aicoding.flow.utils.VariableTemplate;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 变量槽位表，编译时为流程中声明和引用的每个变量（节点ID.变量名）分配一个数组下标
+ * <p>
+ * 执行时上下文按下标读写变量，模板中的变量在首次渲染时绑定到下标，之后不再按字符串查找
+ *
+ * @author gaoll
+ * @time 2025/6/17 9:30
+ **/
+public class VariableSlots {
+
+    public static final VariableSlots EMPTY = new VariableSlots(Collections.emptyMap());
+
+    private static final int[] NO_SLOTS = new int[0];
+
+    /**
+     * 节点ID -> 该节点的变量
+     */
+    private final Map<String, NodeSlots> nodes;
+
+    private final int size;
+
+    /**
+     * 模板 -> 模板中每个变量的下标，未分配的为-1
+     */
+    private final Map<VariableTemplate, int[]> bindings = new ConcurrentHashMap<>();
+
+    private VariableSlots(Map<String, List<String>> names) {
+        Map<String, NodeSlots> nodes = new HashMap<>(names.size() * 2);
+        int next = 0;
+        for (Map.Entry<String, List<String>> entry : names.entrySet()) {
+            List<String> nodeNames = entry.getValue();
+            int[] slots = new int[nodeNames.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = next++;
+            }
+            nodes.put(entry.getKey(), new NodeSlots(nodeNames.toArray(new String[0]), slots));
+        }
+        this.nodes = nodes;
+        this.size = next;
+    }
+
+    /**
+     * 按节点顺序收集变量：开始节点的入参、回复节点的answer、循环变量，以及各节点配置中引用的变量
+     */
+    public static VariableSlots build(GraphModel graph) {
+        Map<String, List<String>> names = new LinkedHashMap<>();
+        if (graph.getNodes() == null) {
+            return new VariableSlots(names);
+        }
+        for (GraphModel.WorkNode node : graph.getNodes()) {
+            GraphModel.WorkNodeData data = node.getData();
+            if (data == null) {
+                continue;
+            }
+            if (NodeTypeConstant.START.equals(node.getType()) && data.getVariables() != null) {
+                for (GraphModel.InputVariable variable : data.getVariables()) {
+                    add(names, node.getId(), variable.getVariable());
+                }
+            }
+            if (NodeTypeConstant.END.equals(node.getType()) || NodeTypeConstant.ANSWER.equals(node.getType())) {
+                add(names, node.getId(), "answer");
+            }
+            if (data.getLoopVariables() != null) {
+                for (GraphModel.LoopVariable variable : data.getLoopVariables()) {
+                    add(names, node.getId(), variable.getLabel());
+                }
+            }
+        }
+        for (GraphModel.WorkNode node : graph.getNodes()) {
+            GraphModel.WorkNodeData data = node.getData();
+            if (data == null) {
+                continue;
+            }
+            String json = JSONUtil.toJsonStr(data);
+            if (json.contains(VarConstant.SELECTOR_START)) {
+                for (VariableTemplate.Slot slot : VariableTemplate.compile(json).getSlots()) {
+                    add(names, slot.getNodeId(), slot.getName());
+                }
+            }
+            addSelectors(names, data.getBreakConditions());
+            if (data.getCases() != null) {
+                for (GraphModel.ConditionCase conditionCase : data.getCases()) {
+                    addSelectors(names, conditionCase.getConditions());
+                }
+            }
+        }
+        return new VariableSlots(names);
+    }
+
+    private static void addSelectors(Map<String, List<String>> names, List<GraphModel.BreakCondition> conditions) {
+        if (conditions == null) {
+            return;
+        }
+        for (GraphModel.BreakCondition condition : conditions) {
+            List<String> selector = condition.getVariableSelector();
+            if (!CollectionUtils.isEmpty(selector)) {
+                add(names, selector.get(0), selector.size() > 1 ? selector.get(1) : "");
+            }
+        }
+    }
+
+    private static void add(Map<String, List<String>> names, String nodeId, String name) {
+        if (nodeId == null || name == null) {
+            return;
+        }
+        List<String> nodeNames = names.computeIfAbsent(nodeId, k -> new ArrayList<>());
+        if (!nodeNames.contains(name)) {
+            nodeNames.add(name);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 节点的变量，没有时为空
+     */
+    public NodeSlots node(String nodeId) {
+        NodeSlots slots = nodes.get(nodeId);
+        return slots == null ? NodeSlots.EMPTY : slots;
+    }
+
+    /**
+     * 变量的下标，未分配时为-1
+     */
+    public int indexOf(String nodeId, String name) {
+        return node(nodeId).indexOf(name);
+    }
+
+    /**
+     * 模板中每个变量的下标，绑定参数中的模板在编译时已绑定，直接返回；其他模板按模板缓存
+     */
+    public int[] bind(VariableTemplate template) {
+        if (!template.hasSlots()) {
+            return NO_SLOTS;
+        }
+        int[] bound = template.indexes(this);
+        if (bound != null) {
+            return bound;
+        }
+        bound = bindings.get(template);
+        if (bound != null) {
+            return bound;
+        }
+        return bindings.computeIfAbsent(template, this::indexes);
+    }
+
+    /**
+     * 生成绑定参数时把模板绑定到本槽位表，下标随模板保存在参数对象上
+     */
+    public VariableTemplate bound(VariableTemplate template) {
+        return template.hasSlots() ? template.bind(this, indexes(template)) : template;
+    }
+
+    private int[] indexes(VariableTemplate template) {
+        List<VariableTemplate.Slot> slots = template.getSlots();
+        int[] indexes = new int[slots.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = indexOf(slots.get(i).getNodeId(), slots.get(i).getName());
+        }
+        return indexes;
+    }
+
+    /**
+     * 单个节点的变量名及下标，变量数很少，按名称顺序查找
+     */
+    public static class NodeSlots {
+
+        static final NodeSlots EMPTY = new NodeSlots(new String[0], NO_SLOTS);
+
+        private final String[] names;
+
+        private final int[] slots;
+
+        NodeSlots(String[] names, int[] slots) {
+            this.names = names;
+            this.slots = slots;
+        }
+
+        public int indexOf(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return slots[i];
+                }
+            }
+            return -1;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        /**
+         * 下标对应的变量名，不属于该节点时为空
+         */
+        public String nameOf(int slot) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == slot) {
+                    return names[i];
+                }
+            }
+            return null;
+        }
+
+        public String name(int i) {
+            return names[i];
+        }
+
+        public int slot(int i) {
+            return slots[i];
+        }
+    }
+}
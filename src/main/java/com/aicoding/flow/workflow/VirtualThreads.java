@@ -0,0 +1,94 @@
+package com.aicoding.flow.workflow;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程执行模式，项目按Java 8编译，JDK21以上通过反射创建虚拟线程
+ * <p>
+ * 开启后流程执行线程、WHEN分支和挂起后的恢复都改为每个任务一个虚拟线程，节点在IO上等待时不占用平台线程；
+ * JDK不支持时保持平台线程池。虚拟线程在synchronized中阻塞会占住载体线程，节点执行路径上的锁使用ReentrantLock
+ *
+ * @author gaoll
+ * @time 2025/6/26 9:40
+ **/
+@Slf4j
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method NAME;
+
+    private static final Method FACTORY;
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    private static volatile boolean enabled;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newExecutor = Class.forName("java.util.concurrent.Executors")
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前JDK是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 按配置开启虚拟线程模式，JDK不支持时记录警告并保持关闭
+     *
+     * @return 是否已开启
+     */
+    public static boolean enable(boolean enable) {
+        if (enable && !isSupported()) {
+            log.warn("virtual threads require JDK 21+, running on {} with platform threads", System.getProperty("java.version"));
+        }
+        enabled = enable && isSupported();
+        return enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器，线程名为 namePrefix + 序号
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new RuntimeException("当前JDK不支持虚拟线程");
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, FACTORY.invoke(builder));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException("创建虚拟线程执行器失败", e);
+        }
+    }
+}
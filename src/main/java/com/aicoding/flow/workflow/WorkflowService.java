@@ -0,0 +1,348 @@
+package com.aicoding.flow.workflow;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.aicoding.flow.constants.EventConstant;
+import com.aicoding.flow.graph.CompiledChainCache;
+import com.aicoding.flow.graph.model.CompiledChain;
+import com.aicoding.flow.workflow.model.InputParam;
+import com.aicoding.flow.workflow.model.MessageModel;
+import com.aicoding.flow.workflow.store.ValueStore;
+import com.yomahub.liteflow.core.FlowExecutor;
+import com.yomahub.liteflow.flow.LiteflowResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 执行已编译的流程
+ *
+ * @author gaoll
+ * @time 2025/6/17 14:20
+ **/
+@Slf4j
+@Service
+public class WorkflowService {
+
+    @Autowired
+    private FlowExecutor flowExecutor;
+
+    @Autowired
+    private CompiledChainCache chainCache;
+
+    @Value("${workflow.stream.max-concurrency:64}")
+    private int streamConcurrency;
+
+    @Value("${workflow.stream.buffer-size:256}")
+    private int streamBufferSize;
+
+    @Value("${workflow.stream.offer-timeout-ms:30000}")
+    private long streamOfferTimeout;
+
+    @Value("${workflow.value-store.threshold:1048576}")
+    private int valueThreshold;
+
+    @Value("${workflow.value-store.max-direct-bytes:268435456}")
+    private long maxDirectBytes;
+
+    @Value("${workflow.value-store.spill-dir:${java.io.tmpdir}}")
+    private String spillDir;
+
+    @Value("${workflow.sleep.suspend:true}")
+    private boolean suspend;
+
+    @Value("${workflow.sleep.tick-ms:10}")
+    private long tickMs;
+
+    @Value("${workflow.sleep.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${workflow.sleep.resume-threads:16}")
+    private int resumeThreads;
+
+    @Value("${workflow.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService streamPool;
+
+    /**
+     * 虚拟线程模式下非流式执行也在虚拟线程中进行，平台线程模式为空，在调用线程执行
+     */
+    private ExecutorService runPool;
+
+    /**
+     * 挂起的流程到期后在此继续执行，队列不设上限，到期的流程不会被拒绝
+     */
+    private ExecutorService resumePool;
+
+    private TimerWheel timerWheel;
+
+    @PostConstruct
+    public void init() {
+        if (VirtualThreads.enable(virtualThreads)) {
+            // 流式执行不再需要限制线程数，恢复也不再排队
+            runPool = VirtualThreads.newExecutor("workflow-run-");
+            streamPool = VirtualThreads.newExecutor("workflow-stream-");
+            resumePool = VirtualThreads.newExecutor("workflow-resume-");
+            timerWheel = new TimerWheel(tickMs, wheelSize, resumePool, "workflow-timer");
+            return;
+        }
+        streamPool = ExecutorBuilder.create()
+                .setCorePoolSize(streamConcurrency)
+                .setMaxPoolSize(streamConcurrency)
+                .setWorkQueue(new LinkedBlockingQueue<>(streamConcurrency * 4))
+                .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("workflow-stream-").build())
+                .setAllowCoreThreadTimeOut(true)
+                .build();
+        resumePool = ExecutorBuilder.create()
+                .setCorePoolSize(resumeThreads)
+                .setMaxPoolSize(resumeThreads)
+                .setWorkQueue(new LinkedBlockingQueue<>())
+                .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("workflow-resume-").build())
+                .setAllowCoreThreadTimeOut(true)
+                .build();
+        timerWheel = new TimerWheel(tickMs, wheelSize, resumePool, "workflow-timer");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 尚未到期的流程不再继续，以异常结束，由结束回调释放上下文
+        List<Runnable> suspended = timerWheel.shutdownNow();
+        for (Runnable task : suspended) {
+            if (task instanceof Resume) {
+                ((Resume) task).abort();
+            }
+        }
+        if (!suspended.isEmpty()) {
+            log.warn("aborted {} suspended runs on shutdown", suspended.size());
+        }
+        resumePool.shutdown();
+        streamPool.shutdown();
+        if (runPool != null) {
+            runPool.shutdown();
+        }
+    }
+
+    /**
+     * 执行链路，上下文按编译时的变量槽位创建，返回时堆外存储的变量值已释放，回复消息不受影响
+     */
+    public FlowContextWrapper execute(String chainId, List<InputParam> userInputs) {
+        return (FlowContextWrapper) PendingValue.join(executeAsync(chainId, userInputs));
+    }
+
+    /**
+     * 异步执行，第一段在调用线程执行（虚拟线程模式下在新的虚拟线程中执行），挂起后不占用线程，等待结束后在恢复线程池中继续执行
+     */
+    public CompletableFuture<FlowContextWrapper> executeAsync(String chainId, List<InputParam> userInputs) {
+        CompiledChain chain = getChain(chainId);
+        FlowContextWrapper contextWrapper = createContext(chain);
+        contextWrapper.setUserInputs(userInputs);
+        CompletableFuture<Void> done = runPool == null ? run(chain, contextWrapper, () -> false)
+                : CompletableFuture.supplyAsync(() -> run(chain, contextWrapper, () -> false), runPool).thenCompose(Function.identity());
+        return done
+                .whenComplete((v, e) -> contextWrapper.release())
+                .thenApply(v -> contextWrapper);
+    }
+
+    /**
+     * 流式执行，节点执行完成和回复内容按产生顺序交给consumer，consumer在节点线程或流式线程池中调用，同一时刻只有一个线程调用
+     *
+     * @return 消息通道，客户端断开时调用cancel中断流程
+     */
+    public MessageStream stream(String chainId, List<InputParam> userInputs, Consumer<MessageModel> consumer) {
+        CompiledChain chain = getChain(chainId);
+        FlowContextWrapper contextWrapper = createContext(chain);
+        contextWrapper.setUserInputs(userInputs);
+        MessageStream stream = new MessageStream(streamBufferSize, streamOfferTimeout, consumer);
+        ReplyPlan plan = chain.getReplyPlan() == null ? ReplyPlan.EMPTY : chain.getReplyPlan();
+        ReplyStreamer replyStreamer = new ReplyStreamer(plan, contextWrapper.getSlots().size(), stream);
+        contextWrapper.setReplyStreamer(replyStreamer);
+        contextWrapper.setStreamExecutor(this::dispatchStream);
+        try {
+            streamPool.execute(() -> {
+                CompletableFuture<Void> done;
+                try {
+                    replyStreamer.start();
+                    done = run(chain, contextWrapper, stream::isCancelled);
+                } catch (RuntimeException e) {
+                    done = new CompletableFuture<>();
+                    done.completeExceptionally(e);
+                }
+                // 异步节点的完成事件在流式线程池中发布，全部发布后再输出结束事件，执行线程不等待发布
+                done.whenComplete((v, e) -> contextWrapper.published().thenRun(() -> {
+                    try {
+                        if (e == null) {
+                            stream.emit(event(EventConstant.WORKFLOW_FINISHED, null));
+                        } else if (!stream.isCancelled()) {
+                            log.warn("stream chain {} failed", chainId, e);
+                            stream.emit(event(EventConstant.ERROR, e.getMessage()));
+                        }
+                    } finally {
+                        contextWrapper.release();
+                        stream.close();
+                    }
+                }));
+            });
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("流式执行的流程过多，请稍后重试");
+        }
+        return stream;
+    }
+
+    /**
+     * 异步节点完成后的流式输出，流式线程池队列已满时到恢复线程池排队，不丢弃也不占用回调线程
+     */
+    private void dispatchStream(Runnable task) {
+        try {
+            streamPool.execute(task);
+        } catch (RejectedExecutionException e) {
+            resumePool.execute(task);
+        }
+    }
+
+    public FlowContextWrapper createContext(String chainId) {
+        return createContext(getChain(chainId));
+    }
+
+    private FlowContextWrapper createContext(CompiledChain chain) {
+        FlowContextWrapper contextWrapper = new FlowContextWrapper(slots(chain));
+        contextWrapper.setValueStore(new ValueStore(valueThreshold, maxDirectBytes, Paths.get(spillDir)));
+        return contextWrapper;
+    }
+
+    /**
+     * 执行流程，有挂起点时按段执行：每段结束时若有节点挂起，把后续执行放到时间轮上，到期后在恢复线程池中执行下一段，
+     * 等待期间流程只占用内存；全部执行完成后等待异步节点的输出
+     *
+     * @param cancelled 等待结束时检查，已取消的流程不再继续执行
+     */
+    private CompletableFuture<Void> run(CompiledChain chain, FlowContextWrapper contextWrapper, BooleanSupplier cancelled) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!suspend || !chain.isSegmented()) {
+            try {
+                runChain(chain.getChainId(), chain.getChainId(), contextWrapper);
+                contextWrapper.awaitPending();
+                done.complete(null);
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+            return done;
+        }
+        contextWrapper.setSuspendPoints(new HashSet<>(chain.getSuspendNodeIds()));
+        runSegment(chain, 0, contextWrapper, cancelled, done);
+        return done;
+    }
+
+    /**
+     * 执行第index段，第index段以挂起点结尾，挂起点之后的部分在定时器到期后执行
+     */
+    private void runSegment(CompiledChain chain, int index, FlowContextWrapper contextWrapper,
+                            BooleanSupplier cancelled, CompletableFuture<Void> done) {
+        try {
+            if (cancelled.getAsBoolean()) {
+                throw new RuntimeException("流程" + chain.getChainId() + "已取消");
+            }
+            if (index > 0) {
+                contextWrapper.nodeFinished(chain.getSuspendNodeIds().get(index - 1));
+            }
+            if (chain.getSegments().get(index) != null) {
+                runChain(chain.getChainId(), chain.segmentChainId(index), contextWrapper);
+            }
+            Long delay = contextWrapper.takeSuspendDelay();
+            if (delay == null) {
+                contextWrapper.awaitPending();
+                done.complete(null);
+                return;
+            }
+            timerWheel.schedule(new Resume(chain, index + 1, contextWrapper, cancelled, done), delay);
+        } catch (RuntimeException e) {
+            done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 等待到期后继续执行下一段
+     */
+    private final class Resume implements Runnable {
+
+        private final CompiledChain chain;
+
+        private final int index;
+
+        private final FlowContextWrapper contextWrapper;
+
+        private final BooleanSupplier cancelled;
+
+        private final CompletableFuture<Void> done;
+
+        Resume(CompiledChain chain, int index, FlowContextWrapper contextWrapper,
+               BooleanSupplier cancelled, CompletableFuture<Void> done) {
+            this.chain = chain;
+            this.index = index;
+            this.contextWrapper = contextWrapper;
+            this.cancelled = cancelled;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            runSegment(chain, index, contextWrapper, cancelled, done);
+        }
+
+        /**
+         * 服务关闭时结束等待中的流程
+         */
+        void abort() {
+            done.completeExceptionally(new RuntimeException("服务已关闭，流程" + chain.getChainId() + "未执行完成"));
+        }
+    }
+
+    /**
+     * 执行期间根作用域绑定到当前线程，并行分支由此派生子作用域
+     */
+    private void runChain(String flowChainId, String chainId, FlowContextWrapper contextWrapper) {
+        VariableScope previous = VariableScope.attach(contextWrapper.getRoot());
+        LiteflowResponse response;
+        try {
+            response = flowExecutor.execute2Resp(chainId, null, contextWrapper);
+        } finally {
+            VariableScope.attach(previous);
+        }
+        if (!response.isSuccess()) {
+            throw new RuntimeException("流程" + flowChainId + "执行失败：" + response.getMessage(), response.getCause());
+        }
+    }
+
+    private CompiledChain getChain(String chainId) {
+        CompiledChain chain = chainCache.getByChainId(chainId);
+        if (chain == null) {
+            throw new RuntimeException("流程" + chainId + "不存在，请先编译");
+        }
+        return chain;
+    }
+
+    private static VariableSlots slots(CompiledChain chain) {
+        return chain.getSlots() == null ? VariableSlots.EMPTY : chain.getSlots();
+    }
+
+    private static MessageModel event(String event, String answer) {
+        MessageModel message = new MessageModel();
+        message.setEvent(event);
+        message.setAnswer(answer);
+        return message;
+    }
+}
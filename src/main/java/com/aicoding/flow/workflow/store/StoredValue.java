@@ -0,0 +1,298 @@
+package com.aicoding.flow.workflow.store;
+
+import cn.hutool.core.codec.Base64;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 存放在堆外内存或映射文件中的大变量值，读取时按需解码，不整体复制到堆上
+ * <p>
+ * 流程执行结束时由{@link ValueStore}统一释放，释放后不能再读取
+ *
+ * @author gaoll
+ * @time 2025/6/19 10:20
+ **/
+public final class StoredValue {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final int CHUNK = 8192;
+
+    private final ByteBuffer buffer;
+
+    private final boolean text;
+
+    /**
+     * 溢写的临时文件，堆外内存中的值为空
+     */
+    private final Path file;
+
+    private volatile boolean released;
+
+    /**
+     * 释放时可能删除文件，使用ReentrantLock，虚拟线程在文件IO期间不占住载体线程
+     */
+    private final ReentrantLock releaseLock = new ReentrantLock();
+
+    StoredValue(ByteBuffer buffer, boolean text, Path file) {
+        this.buffer = buffer;
+        this.text = text;
+        this.file = file;
+    }
+
+    /**
+     * 字节数
+     */
+    public int size() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 是否为UTF-8文本，否则为二进制内容
+     */
+    public boolean isText() {
+        return text;
+    }
+
+    /**
+     * 是否已溢写到映射文件
+     */
+    public boolean isMapped() {
+        return file != null;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * 以流的方式读取，每次调用返回独立的读取位置
+     */
+    public InputStream openStream() {
+        ByteBuffer view = view();
+        return new InputStream() {
+            @Override
+            public int read() {
+                checkReleased();
+                return view.hasRemaining() ? view.get() & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                checkReleased();
+                if (!view.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, view.remaining());
+                view.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return view.remaining();
+            }
+        };
+    }
+
+    /**
+     * 分段解码追加到out，文本按UTF-8解码，二进制内容输出为Base64
+     */
+    public void appendTo(Appendable out) throws IOException {
+        ByteBuffer view = view();
+        if (!text) {
+            // 3的倍数分段编码，拼接结果与整体编码一致
+            byte[] chunk = new byte[CHUNK / 4 * 3];
+            while (view.hasRemaining()) {
+                checkReleased();
+                int n = Math.min(chunk.length, view.remaining());
+                view.get(chunk, 0, n);
+                out.append(Base64.encode(n == chunk.length ? chunk : Arrays.copyOf(chunk, n)));
+            }
+            return;
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(CHUNK);
+        CoderResult result;
+        do {
+            checkReleased();
+            // 输入完整地在缓冲区中，溢出时先输出已解码的部分
+            result = decoder.decode(view, chars, true);
+            drain(chars, out);
+        } while (result.isOverflow());
+        decoder.flush(chars);
+        drain(chars, out);
+    }
+
+    public void appendTo(StringBuilder out) {
+        try {
+            appendTo((Appendable) out);
+        } catch (IOException e) {
+            throw new RuntimeException("读取变量值失败", e);
+        }
+    }
+
+    private static void drain(CharBuffer chars, Appendable out) throws IOException {
+        chars.flip();
+        out.append(chars);
+        chars.clear();
+    }
+
+    /**
+     * 流式读取JSON文本中的路径，只解析路径上的对象，不是JSON或路径不存在时返回空
+     */
+    public Object path(String[] keys) {
+        if (!text) {
+            return null;
+        }
+        try (JsonParser parser = MAPPER.getFactory().createParser(openStream())) {
+            JsonToken token = parser.nextToken();
+            for (String key : keys) {
+                if (token != JsonToken.START_OBJECT || !seek(parser, key)) {
+                    return null;
+                }
+                token = parser.nextToken();
+            }
+            return token == null ? null : MAPPER.readValue(parser, Object.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 在当前对象中定位到字段，跳过其他字段的值
+     */
+    private static boolean seek(JsonParser parser, String key) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (key.equals(parser.getCurrentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * 复制到堆上，仅用于确实需要完整值的场景
+     */
+    public byte[] toBytes() {
+        ByteBuffer view = view();
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 完整的文本值，二进制内容为Base64
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(text ? size() : size() / 3 * 4 + 4);
+        appendTo(out);
+        return out.toString();
+    }
+
+    private ByteBuffer view() {
+        checkReleased();
+        ByteBuffer view = buffer.duplicate();
+        view.clear();
+        return view;
+    }
+
+    private void checkReleased() {
+        if (released) {
+            throw new RuntimeException("流程已结束，变量值已释放");
+        }
+    }
+
+    /**
+     * 释放堆外内存或解除映射并删除临时文件
+     *
+     * @return 是否由本次调用释放
+     */
+    boolean release() {
+        releaseLock.lock();
+        try {
+            if (released) {
+                return false;
+            }
+            released = true;
+            Cleaner.clean(buffer);
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+            }
+            return true;
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    /**
+     * 直接调用缓冲区的Cleaner立即释放，JDK9以上通过Unsafe.invokeCleaner，JDK8通过DirectBuffer.cleaner
+     */
+    private static final class Cleaner {
+
+        private static final Object UNSAFE;
+
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> type = Class.forName("sun.misc.Unsafe");
+                Field field = type.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                unsafe = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void clean(ByteBuffer buffer) {
+            if (!buffer.isDirect()) {
+                return;
+            }
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                    return;
+                }
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 无法立即释放时交给GC回收
+            }
+        }
+    }
+}
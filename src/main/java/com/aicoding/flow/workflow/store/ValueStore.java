@@ -0,0 +1,335 @@
+package com.aicoding.flow.workflow.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一次流程执行的大变量存储，超过阈值的文本和二进制值放到堆外内存，堆外内存用量超过上限时溢写到临时文件并映射读取
+ * <p>
+ * 流程执行结束时调用close，立即释放堆外内存、解除映射并删除临时文件
+ *
+ * @author gaoll
+ * @time 2025/6/19 10:40
+ **/
+public class ValueStore implements Closeable {
+
+    /**
+     * 所有流程共用的堆外内存用量
+     */
+    private static final AtomicLong DIRECT_BYTES = new AtomicLong();
+
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final int threshold;
+
+    private final long maxDirectBytes;
+
+    private final Path spillDir;
+
+    private final Queue<StoredValue> values = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean closed;
+
+    /**
+     * @param threshold      文本字符数或二进制字节数达到该值时移出堆
+     * @param maxDirectBytes 堆外内存总用量上限，超过后溢写到文件
+     * @param spillDir       溢写目录
+     */
+    public ValueStore(int threshold, long maxDirectBytes, Path spillDir) {
+        this.threshold = threshold;
+        this.maxDirectBytes = maxDirectBytes;
+        this.spillDir = spillDir;
+    }
+
+    /**
+     * 当前所有流程占用的堆外内存字节数
+     */
+    public static long directBytes() {
+        return DIRECT_BYTES.get();
+    }
+
+    /**
+     * 超过阈值的String和byte[]转为StoredValue，其他值原样返回
+     */
+    public Object offload(Object value) {
+        if (value instanceof String) {
+            String text = (String) value;
+            return text.length() < threshold ? text : store(text.getBytes(StandardCharsets.UTF_8), true);
+        }
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            return bytes.length < threshold ? bytes : store(bytes, false);
+        }
+        return value;
+    }
+
+    /**
+     * 从流中读取变量值，不足阈值时返回String或byte[]，否则边读边写入临时文件，不在堆上缓存完整内容
+     *
+     * @param text 内容是否为UTF-8文本
+     */
+    public Object write(InputStream in, boolean text) {
+        Sink sink = open(text);
+        byte[] buffer = new byte[COPY_BUFFER];
+        try {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                sink.write(ByteBuffer.wrap(buffer, 0, n));
+            }
+        } catch (IOException e) {
+            sink.abort();
+            throw new RuntimeException("读取变量值失败", e);
+        }
+        return sink.finish();
+    }
+
+    /**
+     * 打开一个分块写入的变量值，数据由调用方推送（如异步HTTP响应体），写入规则与{@link #write(InputStream, boolean)}相同
+     *
+     * @param text 内容是否为UTF-8文本
+     */
+    public Sink open(boolean text) {
+        checkClosed();
+        return new SpillSink(text);
+    }
+
+    /**
+     * 不使用堆外存储时的分块写入，内容全部保存在堆上
+     */
+    public static Sink heap(boolean text) {
+        return new HeapSink(text);
+    }
+
+    private StoredValue store(byte[] bytes, boolean text) {
+        checkClosed();
+        if (reserve(bytes.length)) {
+            try {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+                buffer.put(bytes);
+                return register(new StoredValue(buffer, text, null));
+            } catch (OutOfMemoryError e) {
+                // 超出JVM堆外内存限制时改为溢写
+                DIRECT_BYTES.addAndGet(-bytes.length);
+            }
+        }
+        try {
+            return spill(bytes, text);
+        } catch (IOException e) {
+            throw new RuntimeException("变量值溢写失败", e);
+        }
+    }
+
+    private boolean reserve(int size) {
+        long used;
+        do {
+            used = DIRECT_BYTES.get();
+            if (used + size > maxDirectBytes) {
+                return false;
+            }
+        } while (!DIRECT_BYTES.compareAndSet(used, used + size));
+        return true;
+    }
+
+    /**
+     * 写入临时文件后以只读方式映射，映射在通道关闭后仍然有效
+     */
+    private StoredValue spill(byte[] bytes, boolean text) throws IOException {
+        Path file = Files.createTempFile(spillDir, "workflow-", ".val");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.wrap(bytes));
+            return register(new StoredValue(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), text, file));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer chunk) throws IOException {
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+    }
+
+    private StoredValue register(StoredValue value) {
+        values.add(value);
+        if (closed) {
+            release(value);
+            throw new RuntimeException("流程已结束，不能再保存变量值");
+        }
+        return value;
+    }
+
+    private void checkClosed() {
+        if (closed) {
+            throw new RuntimeException("流程已结束，不能再保存变量值");
+        }
+    }
+
+    private static void release(StoredValue value) {
+        if (value.release() && !value.isMapped()) {
+            DIRECT_BYTES.addAndGet(-value.size());
+        }
+    }
+
+    /**
+     * 释放本次执行保存的全部变量值
+     */
+    @Override
+    public void close() {
+        closed = true;
+        StoredValue value;
+        while ((value = values.poll()) != null) {
+            release(value);
+        }
+    }
+
+    /**
+     * 分块写入的变量值，写入和结束由同一线程依次调用，失败时调用abort丢弃已写入的内容
+     */
+    public interface Sink {
+
+        /**
+         * 写入缓冲区中剩余的全部字节
+         */
+        void write(ByteBuffer chunk);
+
+        /**
+         * 写入结束，返回String、byte[]或StoredValue
+         */
+        Object finish();
+
+        /**
+         * 丢弃已写入的内容，可重复调用
+         */
+        void abort();
+    }
+
+    /**
+     * 不足阈值的内容保存在堆上，达到阈值后连同已写入部分溢写到临时文件
+     */
+    private class SpillSink implements Sink {
+
+        private final boolean text;
+
+        private final byte[] head = new byte[threshold];
+
+        private int length;
+
+        private Path file;
+
+        private FileChannel channel;
+
+        SpillSink(boolean text) {
+            this.text = text;
+        }
+
+        @Override
+        public void write(ByteBuffer chunk) {
+            checkClosed();
+            try {
+                if (channel == null) {
+                    int n = Math.min(chunk.remaining(), head.length - length);
+                    chunk.get(head, length, n);
+                    length += n;
+                    if (length < head.length) {
+                        return;
+                    }
+                    file = Files.createTempFile(spillDir, "workflow-", ".val");
+                    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    writeFully(channel, ByteBuffer.wrap(head, 0, length));
+                }
+                writeFully(channel, chunk);
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new RuntimeException("变量值超过2GB，无法保存");
+                }
+            } catch (IOException e) {
+                abort();
+                throw new RuntimeException("变量值溢写失败", e);
+            } catch (RuntimeException e) {
+                abort();
+                throw e;
+            }
+        }
+
+        @Override
+        public Object finish() {
+            if (channel == null) {
+                return text ? new String(head, 0, length, StandardCharsets.UTF_8) : Arrays.copyOf(head, length);
+            }
+            try {
+                StoredValue value = new StoredValue(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), text, file);
+                channel.close();
+                channel = null;
+                return register(value);
+            } catch (IOException e) {
+                abort();
+                throw new RuntimeException("变量值溢写失败", e);
+            } catch (RuntimeException e) {
+                abort();
+                throw e;
+            }
+        }
+
+        @Override
+        public void abort() {
+            length = 0;
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+            channel = null;
+            file = null;
+        }
+    }
+
+    private static class HeapSink implements Sink {
+
+        private final boolean text;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        HeapSink(boolean text) {
+            this.text = text;
+        }
+
+        @Override
+        public void write(ByteBuffer chunk) {
+            if (chunk.hasArray()) {
+                out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                chunk.position(chunk.limit());
+            } else {
+                byte[] bytes = new byte[chunk.remaining()];
+                chunk.get(bytes);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+
+        @Override
+        public Object finish() {
+            return text ? new String(out.toByteArray(), StandardCharsets.UTF_8) : out.toByteArray();
+        }
+
+        @Override
+        public void abort() {
+            out.reset();
+        }
+    }
+}
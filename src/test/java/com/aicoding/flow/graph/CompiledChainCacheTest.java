@@ -0,0 +1,70 @@
+package com.aicoding.flow.graph;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 同一摘要并发编译时的失败传递
+ *
+ * @author gaoll
+ * @time 2025/6/27 9:30
+ **/
+public class CompiledChainCacheTest {
+
+    @Test(timeout = 10000)
+    public void errorReleasesWaitingCallers() throws Exception {
+        CompiledChainCache cache = new CompiledChainCache(16);
+        CountDownLatch compiling = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> owner = executor.submit(() -> cache.computeIfAbsent("d", key -> {
+                compiling.countDown();
+                try {
+                    waiting.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new StackOverflowError("deep graph");
+            }));
+            compiling.await();
+            Future<?> waiter = executor.submit(() -> cache.computeIfAbsent("d", key -> {
+                throw new AssertionError("同一摘要不应重复编译");
+            }));
+            // 等待线程进入等待后再让编译失败
+            TimeUnit.MILLISECONDS.sleep(200);
+            waiting.countDown();
+            assertThrowsStackOverflow(owner);
+            assertThrowsStackOverflow(waiter);
+        } finally {
+            executor.shutdownNow();
+        }
+        // 失败的编译不留在进行中，之后的调用重新编译
+        try {
+            cache.computeIfAbsent("d", key -> {
+                throw new IllegalStateException("retry");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("retry"));
+        }
+    }
+
+    private static void assertThrowsStackOverflow(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof StackOverflowError);
+        }
+    }
+}
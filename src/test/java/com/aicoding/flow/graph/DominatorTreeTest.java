@@ -0,0 +1,113 @@
+package com.aicoding.flow.graph;
+
+import com.aicoding.flow.constants.NodeTypeConstant;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 支配树与后支配树，图的构造方式与ElCompiler相同：条件分支为虚拟CASE节点，叶子节点连接到虚拟出口
+ *
+ * @author gaoll
+ * @time 2025/6/27 16:10
+ **/
+public class DominatorTreeTest {
+
+    private static final String EXIT = "\u0000exit";
+
+    /**
+     * s -> c，c的分支a经过x汇合到m，空的else分支直接到m，m并行分叉到h1、h2后结束
+     */
+    private static CompactGraph graph() {
+        CompactGraph.Builder builder = new CompactGraph.Builder(8);
+        int s = builder.addNode("s", NodeTypeConstant.START);
+        int c = builder.addNode("c", NodeTypeConstant.IF_ELSE);
+        int ca = builder.addNode("c-a", NodeTypeConstant.CASE);
+        int cf = builder.addNode("c-false", NodeTypeConstant.CASE);
+        int x = builder.addNode("x", NodeTypeConstant.CODE);
+        int m = builder.addNode("m", NodeTypeConstant.CODE);
+        int h1 = builder.addNode("h1", NodeTypeConstant.HTTP_REQUEST);
+        int h2 = builder.addNode("h2", NodeTypeConstant.HTTP_REQUEST);
+        int exit = builder.addNode(EXIT, null);
+        builder.addEdge(s, c);
+        builder.addEdge(c, ca);
+        builder.addEdge(c, cf);
+        builder.addEdge(ca, x);
+        builder.addEdge(x, m);
+        builder.addEdge(cf, m);
+        builder.addEdge(m, h1);
+        builder.addEdge(m, h2);
+        builder.addEdge(h1, exit);
+        builder.addEdge(h2, exit);
+        return builder.build();
+    }
+
+    @Test
+    public void dominators() {
+        CompactGraph graph = graph();
+        DominatorTree dom = new DominatorTree(graph, graph.indexOf("s"));
+        int c = graph.indexOf("c");
+        int m = graph.indexOf("m");
+        assertEquals(graph.indexOf("s"), dom.idom(graph.indexOf("s")));
+        assertEquals(c, dom.idom(graph.indexOf("c-a")));
+        assertEquals(c, dom.idom(graph.indexOf("c-false")));
+        assertEquals(c, dom.idom(m));
+        assertEquals(m, dom.idom(graph.indexOf(EXIT)));
+        assertTrue(dom.dominates(c, m));
+        assertFalse(dom.dominates(graph.indexOf("x"), m));
+        assertFalse(dom.dominates(graph.indexOf("h1"), graph.indexOf(EXIT)));
+    }
+
+    @Test
+    public void postDominatorsThroughCasesAndExit() {
+        CompactGraph graph = graph();
+        int exit = graph.indexOf(EXIT);
+        DominatorTree postDom = new DominatorTree(graph.reverse(), exit);
+        int m = graph.indexOf("m");
+        //条件节点的汇合点
+        assertEquals(m, postDom.idom(graph.indexOf("c")));
+        assertEquals(graph.indexOf("x"), postDom.idom(graph.indexOf("c-a")));
+        assertEquals(m, postDom.idom(graph.indexOf("c-false")));
+        //并行分支没有汇合，汇合点为虚拟出口
+        assertEquals(exit, postDom.idom(m));
+        assertEquals(exit, postDom.idom(graph.indexOf("h1")));
+        assertTrue(postDom.dominates(exit, graph.indexOf("s")));
+        assertTrue(postDom.dominates(m, graph.indexOf("c-a")));
+        assertFalse(postDom.dominates(graph.indexOf("h1"), m));
+    }
+
+    @Test
+    public void unreachableNode() {
+        CompactGraph.Builder builder = new CompactGraph.Builder(4);
+        int s = builder.addNode("s", NodeTypeConstant.START);
+        int a = builder.addNode("a", NodeTypeConstant.CODE);
+        int orphan = builder.addNode("o", NodeTypeConstant.CODE);
+        builder.addEdge(s, a);
+        builder.addEdge(orphan, a);
+        DominatorTree dom = new DominatorTree(builder.build(), s);
+        assertTrue(dom.isReachable(a));
+        assertEquals(s, dom.idom(a));
+        assertFalse(dom.isReachable(orphan));
+        assertFalse(dom.dominates(orphan, a));
+    }
+
+    @Test
+    public void cycle() {
+        CompactGraph.Builder builder = new CompactGraph.Builder(4);
+        int s = builder.addNode("s", NodeTypeConstant.START);
+        int a = builder.addNode("a", NodeTypeConstant.CODE);
+        int b = builder.addNode("b", NodeTypeConstant.CODE);
+        builder.addEdge(s, a);
+        builder.addEdge(a, b);
+        builder.addEdge(b, a);
+        try {
+            new DominatorTree(builder.build(), s);
+            fail("存在环时应失败");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("存在环"));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.aicoding.flow.graph;
+
+import cn.hutool.core.io.IoUtil;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 流程图转换为EL的结果，test/resources/el下的.json为流程图，同名.el为期望的EL
+ *
+ * @author gaoll
+ * @time 2025/6/27 14:30
+ **/
+public class ElCompilerTest {
+
+    private static final String START = "{\"id\":\"s\",\"type\":\"start\",\"data\":{\"variables\":[]}}";
+
+    private static final String ANSWER = "{\"id\":\"a\",\"type\":\"answer\",\"data\":{\"answer\":\"done\"}}";
+
+    @Test
+    public void sequence() {
+        assertGolden("sequence");
+    }
+
+    @Test
+    public void ifElifElseMerge() {
+        assertGolden("if_elif_else");
+    }
+
+    @Test
+    public void nestedBranch() {
+        assertGolden("nested_branch");
+    }
+
+    @Test
+    public void loop() {
+        assertGolden("loop");
+    }
+
+    @Test
+    public void crossBranchEdge() {
+        assertRejected("cross_branch", "跨分支连线");
+    }
+
+    @Test
+    public void crossingEdges() {
+        assertRejected("crossing", "交叉连线");
+    }
+
+    @Test
+    public void cycle() {
+        assertRejected("cycle", "存在环");
+    }
+
+    @Test
+    public void iteration() {
+        assertRejected("iteration", "迭代节点");
+    }
+
+    /**
+     * 5万个节点的顺序链，编译过程不能递归到栈溢出
+     */
+    @Test(timeout = 60000)
+    public void longChain() {
+        int n = 50000;
+        StringBuilder nodes = new StringBuilder(START);
+        StringBuilder edges = new StringBuilder();
+        String prev = "s";
+        for (int i = 0; i < n; i++) {
+            nodes.append(',').append(code("n" + i));
+            edges.append(edge(prev, null, "n" + i)).append(',');
+            prev = "n" + i;
+        }
+        nodes.append(',').append(ANSWER);
+        edges.append(edge(prev, null, "a"));
+        String el = compile(nodes, edges);
+        assertTrue(el.startsWith("THEN(startNode"));
+        assertTrue(el.contains("codeNode.tag(\"n" + (n - 1) + "\")"));
+    }
+
+    /**
+     * 逐层嵌套2000层的条件分支，每层在内层汇合之后再汇合，编译不能栈溢出，嵌套的区域也不能逐层保留内层的完整EL
+     */
+    @Test(timeout = 60000)
+    public void deepNestedBranch() {
+        int depth = 2000;
+        StringBuilder nodes = new StringBuilder(START);
+        StringBuilder edges = new StringBuilder(edge("s", null, "c0")).append(',');
+        for (int i = 0; i < depth; i++) {
+            nodes.append(',').append(condition("c" + i)).append(',').append(code("x" + i)).append(',').append(code("m" + i));
+            String inner = i + 1 < depth ? "c" + (i + 1) : "leaf";
+            String innerMerge = i + 1 < depth ? "m" + (i + 1) : "leaf";
+            edges.append(edge("c" + i, "t", inner)).append(',')
+                    .append(edge("c" + i, "false", "x" + i)).append(',')
+                    .append(edge(innerMerge, null, "m" + i)).append(',')
+                    .append(edge("x" + i, null, "m" + i)).append(',');
+        }
+        nodes.append(',').append(code("leaf")).append(',').append(ANSWER);
+        edges.append(edge("m0", null, "a"));
+        String el = compile(nodes, edges);
+        assertTrue(el.startsWith("THEN(startNode"));
+        assertTrue(el.contains("conditionNode.tag(\"c" + (depth - 1) + "-t\")"));
+    }
+
+    private static String code(String id) {
+        return "{\"id\":\"" + id + "\",\"type\":\"code\",\"data\":{\"code\":\"return {}\"}}";
+    }
+
+    private static String condition(String id) {
+        return "{\"id\":\"" + id + "\",\"type\":\"if-else\",\"data\":{\"cases\":[{\"caseId\":\"t\",\"logicalOperator\":\"and\","
+                + "\"conditions\":[{\"comparisonOperator\":\"not empty\",\"variableSelector\":[\"s\",\"q\"]}]}]}}";
+    }
+
+    private static String edge(String source, String handle, String target) {
+        return "{\"source\":\"" + source + "\"" + (handle == null ? "" : ",\"sourceHandle\":\"" + handle + "\"")
+                + ",\"target\":\"" + target + "\"}";
+    }
+
+    private static String compile(CharSequence nodes, CharSequence edges) {
+        return ElCompiler.compile(GraphModelReader.read("{\"nodes\":[" + nodes + "],\"edges\":[" + edges + "]}")).getEl();
+    }
+
+    private static void assertGolden(String name) {
+        String el = ElCompiler.compile(GraphModelReader.read(resource(name + ".json"))).getEl();
+        assertEquals(resource(name + ".el").trim(), el);
+    }
+
+    private static void assertRejected(String name, String reason) {
+        try {
+            ElCompiler.compile(GraphModelReader.read(resource(name + ".json")));
+            fail(name + "应转换失败");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(reason));
+        }
+    }
+
+    private static String resource(String name) {
+        InputStream in = ElCompilerTest.class.getResourceAsStream("/el/" + name);
+        if (in == null) {
+            throw new IllegalStateException("缺少测试资源" + name);
+        }
+        return IoUtil.read(in, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package com.aicoding.flow.graph;
+
+import com.aicoding.flow.graph.model.EdgeTree;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * EdgeTree叶子节点的计算
+ *
+ * @author gaoll
+ * @time 2025/6/27 17:20
+ **/
+public class LeafSetIndexTest {
+
+    private static EdgeTree tree(String id, EdgeTree... children) {
+        EdgeTree tree = new EdgeTree();
+        tree.setId(id);
+        tree.setChildren(new ArrayList<>(Arrays.asList(children)));
+        return tree;
+    }
+
+    /**
+     * 只有一个子节点时为该子节点，没有子节点时为空，多个子节点时为并集
+     */
+    @Test
+    public void singleChildAndUnion() {
+        EdgeTree d = tree("d");
+        EdgeTree e = tree("e");
+        EdgeTree b = tree("b", d);
+        EdgeTree c = tree("c", tree("f", d), tree("g", e), tree("h"));
+        EdgeTree a = tree("a", b, c);
+        assertEquals(Collections.singletonList(d), b.getLastChildren());
+        assertEquals(Arrays.asList(d, e), c.getLastChildren());
+        //汇聚到d的两个分支按ID去重
+        assertEquals(Arrays.asList(d, e), a.getLastChildren());
+        assertTrue(d.getLastChildren().isEmpty());
+
+        LeafSetIndex index = LeafSetIndex.of(a);
+        assertEquals(Arrays.asList(d, e), index.lastChildren("c"));
+        assertEquals(Collections.singletonList(d), index.lastChildren("b"));
+        assertTrue(index.lastChildren("x").isEmpty());
+    }
+
+    /**
+     * 修改子节点后祖先节点的结果随之变化
+     */
+    @Test
+    public void followsChanges() {
+        EdgeTree leaf = tree("leaf");
+        EdgeTree mid = tree("mid", leaf);
+        EdgeTree root = tree("root", mid, tree("other", tree("o")));
+        assertEquals(Arrays.asList(leaf, tree("o")), root.getLastChildren());
+        EdgeTree added = tree("added", tree("a"));
+        mid.getChildren().add(added);
+        assertEquals(Arrays.asList(tree("a"), tree("o")), root.getLastChildren());
+        mid.setChildren(Collections.singletonList(tree("x")));
+        assertEquals(Arrays.asList(tree("x"), tree("o")), root.getLastChildren());
+    }
+
+    /**
+     * 逐层嵌套的菱形，每层的两个分支汇聚到下一层，逐个展开的路径数为2^n
+     */
+    @Test(timeout = 10000)
+    public void nestedDiamonds() {
+        EdgeTree x = tree("x");
+        EdgeTree join = tree("bottom", x);
+        for (int i = 0; i < 2000; i++) {
+            join = tree("j" + i, tree("l" + i, join, tree("lz" + i)), tree("r" + i, join, tree("rz" + i)));
+        }
+        assertEquals(Collections.singletonList(x), join.getLastChildren());
+    }
+}
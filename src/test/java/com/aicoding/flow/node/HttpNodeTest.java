@@ -0,0 +1,259 @@
+package com.aicoding.flow.node;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.ReflectUtil;
+import com.aicoding.flow.graph.CompiledChainCache;
+import com.aicoding.flow.graph.NodeDslFactory;
+import com.aicoding.flow.node.dsl.HttpNodeDsl;
+import com.aicoding.flow.node.http.HttpExecutor;
+import com.aicoding.flow.node.http.HttpResponseCache;
+import com.aicoding.flow.workflow.FlowContextWrapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.net.URIBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * http节点从参数渲染请求到写入输出变量的完整过程，请求发往本地的桩服务
+ *
+ * @author gaoll
+ * @time 2025/6/27 19:00
+ **/
+public class HttpNodeTest {
+
+    private HttpServer server;
+
+    private final ConcurrentLinkedQueue<Received> received = new ConcurrentLinkedQueue<>();
+
+    private HttpExecutor executor;
+
+    private HttpResponseCache responseCache;
+
+    private FlowContextWrapper context;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // 记录收到的请求，按参数ms延迟、按参数code返回状态码
+        server.createContext("/", exchange -> {
+            Received request = new Received();
+            request.start = System.nanoTime();
+            request.method = exchange.getRequestMethod();
+            request.rawPath = exchange.getRequestURI().getRawPath();
+            request.params = new URIBuilder(exchange.getRequestURI()).getQueryParams().stream()
+                    .collect(Collectors.toMap(NameValuePair::getName, NameValuePair::getValue, (a, b) -> a + "," + b));
+            request.token = exchange.getRequestHeaders().getFirst("X-Token");
+            request.contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            request.body = IoUtil.read(exchange.getRequestBody(), StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(Long.parseLong(request.params.getOrDefault("ms", "0")));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            request.end = System.nanoTime();
+            received.add(request);
+            respond(exchange, Integer.parseInt(request.params.getOrDefault("code", "200")), "{\"ok\":true}");
+        });
+        server.start();
+
+        executor = new HttpExecutor();
+        ReflectUtil.setFieldValue(executor, "connectTimeout", 2000L);
+        ReflectUtil.setFieldValue(executor, "responseTimeout", 1000L);
+        ReflectUtil.setFieldValue(executor, "maxConnTotal", 20);
+        ReflectUtil.setFieldValue(executor, "maxConnPerRoute", 20);
+        ReflectUtil.setFieldValue(executor, "idleTimeout", 60000L);
+        ReflectUtil.setFieldValue(executor, "callbackThreads", 2);
+        executor.init();
+        responseCache = new HttpResponseCache(executor, new CompiledChainCache(16), true);
+        context = new FlowContextWrapper();
+        context.putVariable("s", "q", "hi there&x=1#?中");
+        context.putVariable("s", "tok", "t-1");
+    }
+
+    @After
+    public void tearDown() {
+        context.release();
+        executor.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void methodQueryHeadersAndBody() {
+        HttpNodeDsl dsl = dsl("h", "post", "/api?a=1");
+        dsl.setReqParams(Collections.singletonList(param("b", "{{#s.tok#}}")));
+        dsl.setHeaders(Collections.singletonList(header("X-Token", "{{#s.tok#}}")));
+        dsl.setBody("{\"k\":\"{{#s.tok#}}\"}");
+        run(dsl);
+
+        assertEquals(200, context.getVariable("h", "status_code"));
+        assertEquals("{\"ok\":true}", context.getVariable("h", "body"));
+        assertEquals("application/json", ((Map<?, ?>) context.getVariable("h", "headers")).get("content-type"));
+        Received request = received.poll();
+        assertEquals("POST", request.method);
+        assertEquals("/api", request.rawPath);
+        assertEquals("1", request.params.get("a"));
+        assertEquals("t-1", request.params.get("b"));
+        assertEquals("t-1", request.token);
+        assertEquals("{\"k\":\"t-1\"}", request.body);
+        assertTrue(request.contentType.startsWith("application/json"));
+    }
+
+    /**
+     * 地址中的变量按百分号编码，空格、&、#、?不改变地址结构
+     */
+    @Test
+    public void urlVariablesAreEncoded() {
+        run(dsl("h", "get", "/p/{{#s.q#}}?v={{#s.q#}}&w=2"));
+
+        assertEquals(200, context.getVariable("h", "status_code"));
+        Received request = received.poll();
+        assertEquals("GET", request.method);
+        assertEquals("/p/hi%20there%26x%3D1%23%3F%E4%B8%AD", request.rawPath);
+        assertEquals("hi there&x=1#?中", request.params.get("v"));
+        assertEquals("2", request.params.get("w"));
+        assertFalse(request.params.containsKey("x"));
+    }
+
+    @Test
+    public void nonSuccessStatusIsOutput() {
+        run(dsl("h", "get", "/missing?code=404"));
+
+        assertEquals(404, context.getVariable("h", "status_code"));
+        assertEquals("{\"ok\":true}", context.getVariable("h", "body"));
+    }
+
+    @Test
+    public void responseTimeoutFailsTheNode() {
+        long start = System.nanoTime();
+        run(dsl("h", "get", "/slow?ms=3000"));
+        try {
+            context.getVariable("h", "body");
+            fail("响应超时应失败");
+        } catch (RuntimeException e) {
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            assertTrue("超时前等待了" + elapsed + "ms", elapsed < 2500);
+        }
+    }
+
+    /**
+     * 顺序执行的节点等前一个请求结束后才发出，节点本身不等待
+     */
+    @Test
+    public void sequentialNodesKeepOrder() {
+        long start = System.nanoTime();
+        run(dsl("h1", "get", "/first?ms=300"));
+        run(dsl("h2", "post", "/second?ms=10"));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 300);
+
+        assertEquals(200, context.getVariable("h2", "status_code"));
+        List<Received> requests = new ArrayList<>(received);
+        assertEquals(2, requests.size());
+        assertEquals("/first", requests.get(0).rawPath);
+        assertTrue(requests.get(1).start >= requests.get(0).end);
+    }
+
+    private void run(HttpNodeDsl dsl) {
+        TestHttpNode node = new TestHttpNode(NodeDslFactory.prepare(dsl, null), context);
+        ReflectUtil.setFieldValue(node, "responseCache", responseCache);
+        node.doProcess();
+    }
+
+    private HttpNodeDsl dsl(String id, String method, String path) {
+        HttpNodeDsl dsl = new HttpNodeDsl();
+        dsl.setId(id);
+        dsl.setMethod(method);
+        dsl.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        return dsl;
+    }
+
+    private static HttpNodeDsl.HttpParam param(String name, String value) {
+        HttpNodeDsl.HttpParam param = new HttpNodeDsl.HttpParam();
+        param.setName(name);
+        param.setValue(value);
+        return param;
+    }
+
+    private static HttpNodeDsl.HttpHeader header(String name, String value) {
+        HttpNodeDsl.HttpHeader header = new HttpNodeDsl.HttpHeader();
+        header.setName(name);
+        header.setValue(value);
+        return header;
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static class Received {
+        long start;
+        long end;
+        String method;
+        String rawPath;
+        Map<String, String> params;
+        String token;
+        String contentType;
+        String body;
+    }
+
+    /**
+     * 不经过LiteFlow执行，直接提供参数和上下文
+     */
+    private static class TestHttpNode extends HttpNode {
+
+        private final HttpNodeDsl dsl;
+
+        private final FlowContextWrapper context;
+
+        TestHttpNode(HttpNodeDsl dsl, FlowContextWrapper context) {
+            this.dsl = dsl;
+            this.context = context;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T> T getBindParam(Class<T> clazz) {
+            return (T) dsl;
+        }
+
+        @Override
+        protected FlowContextWrapper getContextWrapper() {
+            return context;
+        }
+
+        @Override
+        protected String getFlowChainId() {
+            return "chain";
+        }
+
+        @Override
+        public String getTag() {
+            return dsl.getId();
+        }
+    }
+}
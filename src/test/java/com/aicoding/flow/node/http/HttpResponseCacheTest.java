@@ -0,0 +1,197 @@
+package com.aicoding.flow.node.http;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.ReflectUtil;
+import com.aicoding.flow.graph.CompiledChainCache;
+import com.aicoding.flow.node.dsl.HttpNodeDsl;
+import com.aicoding.flow.workflow.store.StoredValue;
+import com.aicoding.flow.workflow.store.ValueStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * http节点响应体的流式写入，请求发往本地的桩服务
+ *
+ * @author gaoll
+ * @time 2025/6/26 11:00
+ **/
+public class HttpResponseCacheTest {
+
+    private static final int THRESHOLD = 1024;
+
+    private HttpServer server;
+
+    private final AtomicInteger slowHits = new AtomicInteger();
+
+    private HttpExecutor executor;
+
+    private HttpResponseCache responseCache;
+
+    private Path spillDir;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/big", exchange -> {
+            int size = Integer.parseInt(exchange.getRequestURI().getQuery().substring(2));
+            byte[] chunk = new byte[8192];
+            Arrays.fill(chunk, (byte) 'a');
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+            // 长度为0时按分块编码发送
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int written = 0; written < size; written += chunk.length) {
+                    out.write(chunk, 0, Math.min(chunk.length, size - written));
+                }
+            }
+        });
+        server.createContext("/gbk", exchange -> respond(exchange, "text/plain; charset=GBK", "中文响应".getBytes(Charset.forName("GBK"))));
+        server.createContext("/slow", exchange -> {
+            slowHits.incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "application/json", "{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+
+        executor = new HttpExecutor();
+        ReflectUtil.setFieldValue(executor, "connectTimeout", 2000L);
+        ReflectUtil.setFieldValue(executor, "responseTimeout", 5000L);
+        ReflectUtil.setFieldValue(executor, "maxConnTotal", 20);
+        ReflectUtil.setFieldValue(executor, "maxConnPerRoute", 20);
+        ReflectUtil.setFieldValue(executor, "idleTimeout", 60000L);
+        ReflectUtil.setFieldValue(executor, "callbackThreads", 2);
+        executor.init();
+        responseCache = new HttpResponseCache(executor, new CompiledChainCache(16), true);
+        spillDir = Files.createTempDirectory("http-test-");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        server.stop(0);
+        FileUtil.del(spillDir.toFile());
+    }
+
+    @Test
+    public void largeBodyIsWrittenToStore() {
+        ValueStore store = store();
+        try {
+            HttpResult small = get("/big?n=100", store, null).join();
+            assertEquals(200, small.getCode());
+            assertEquals(repeat('a', 100), small.getBody());
+
+            HttpResult large = get("/big?n=300000", store, null).join();
+            assertTrue(large.getBody() instanceof StoredValue);
+            StoredValue body = (StoredValue) large.getBody();
+            assertTrue(body.isText());
+            assertEquals(300000, body.size());
+            assertEquals(repeat('a', 300000), body.toString());
+            assertEquals("text/plain; charset=utf-8", large.getHeaders().get("content-type"));
+        } finally {
+            store.close();
+        }
+        assertEquals(0, FileUtil.ls(spillDir.toString()).length);
+    }
+
+    @Test
+    public void bodyIsTranscodedToUtf8() {
+        ValueStore store = store();
+        try {
+            assertEquals("中文响应", get("/gbk", store, null).join().getBody());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void identicalRequestsShareOneCallAndCache() {
+        HttpNodeDsl.HttpCache cache = new HttpNodeDsl.HttpCache();
+        cache.setTtlMs(60000);
+        ValueStore first = store();
+        ValueStore second = store();
+        try {
+            CompletableFuture<HttpResult> a = get("/slow", first, cache);
+            CompletableFuture<HttpResult> b = get("/slow", second, cache);
+            assertEquals("{\"ok\":true}", a.join().getBody());
+            assertEquals("{\"ok\":true}", b.join().getBody());
+            assertEquals(1, slowHits.get());
+
+            assertEquals("{\"ok\":true}", get("/slow", first, cache).join().getBody());
+            assertEquals(1, slowHits.get());
+            assertEquals(1, responseCache.stats("chain").get(0).getCoalesced());
+            assertEquals(1, responseCache.stats("chain").get(0).getHits());
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void bodyIsDiscardedWhenStoreIsClosed() {
+        ValueStore store = store();
+        ValueStore.Sink body = store.open(true);
+        // 请求未完成时流程结束，已写入的内容随即丢弃
+        store.close();
+        try {
+            get("/big?n=300000", body, null).join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause().getMessage().contains("流程已结束"));
+        }
+        assertEquals(0, FileUtil.ls(spillDir.toString()).length);
+    }
+
+    private CompletableFuture<HttpResult> get(String path, ValueStore store, HttpNodeDsl.HttpCache cache) {
+        return get(path, store.open(true), cache);
+    }
+
+    private CompletableFuture<HttpResult> get(String path, ValueStore.Sink body, HttpNodeDsl.HttpCache cache) {
+        SimpleHttpRequest request = SimpleRequestBuilder.get("http://127.0.0.1:" + server.getAddress().getPort() + path).build();
+        return responseCache.execute("chain", "http1", cache, request, body);
+    }
+
+    private ValueStore store() {
+        return new ValueStore(THRESHOLD, 1 << 20, spillDir);
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String repeat(char c, int n) {
+        char[] chars = new char[n];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1 @@
+THEN(startNode.tag("s").bind("param", "{\"id\":\"s\",\"nodeId\":\"_s\",\"streamFlag\":true,\"params\":[{\"name\":\"n\",\"dataType\":\"number\",\"varType\":\"constant\",\"required\":true}],\"nodeType\":\"start\"}"), IF(conditionNode.tag("c-big").bind("param", "{\"id\":\"c\",\"nodeId\":\"_c\",\"streamFlag\":true,\"nodeType\":\"if-else\",\"logicalOperator\":\"and\",\"conditions\":[{\"operation\":\"≥\",\"dataType\":\"number\",\"leftValueSelector\":\"{{#s.n#}}\",\"rightVarType\":\"constant\",\"rightValueSelector\":\"100\"}],\"elseFlag\":false}"), codeNode.tag("x1").bind("param", "{\"id\":\"x1\",\"nodeId\":\"_x1\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 'big'}\"}")).ELIF(conditionNode.tag("c-mid").bind("param", "{\"id\":\"c\",\"nodeId\":\"_c\",\"streamFlag\":true,\"nodeType\":\"if-else\",\"logicalOperator\":\"and\",\"conditions\":[{\"operation\":\"≥\",\"dataType\":\"number\",\"leftValueSelector\":\"{{#s.n#}}\",\"rightVarType\":\"constant\",\"rightValueSelector\":\"10\"}],\"elseFlag\":false}"), codeNode.tag("x2").bind("param", "{\"id\":\"x2\",\"nodeId\":\"_x2\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 'mid'}\"}")).ELSE(codeNode.tag("x3").bind("param", "{\"id\":\"x3\",\"nodeId\":\"_x3\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 'small'}\"}")), jsonExtractNode.tag("m").bind("param", "{\"id\":\"m\",\"nodeId\":\"_m\",\"streamFlag\":true,\"nodeType\":\"json-extract\",\"jsonValue\":\"{}\",\"varType\":\"constant\"}"), endNode.tag("a").bind("param", "{\"id\":\"a\",\"nodeId\":\"_a\",\"streamFlag\":true,\"nodeType\":\"answer\",\"reply\":\"done\"}"))
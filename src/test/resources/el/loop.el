@@ -0,0 +1 @@
+THEN(startNode.tag("s").bind("param", "{\"id\":\"s\",\"nodeId\":\"_s\",\"streamFlag\":true,\"params\":[{\"name\":\"q\",\"dataType\":\"string\",\"varType\":\"constant\",\"required\":true}],\"nodeType\":\"start\"}"), WHILE(whileConditionNode.tag("L").bind("param", "{\"id\":\"L\",\"nodeId\":\"_L\",\"streamFlag\":true,\"params\":[{\"name\":\"limit\",\"label\":\"limit\",\"varType\":\"constant\",\"required\":false,\"value\":\"3\"}],\"nodeType\":\"loop\",\"logicalOperator\":\"and\",\"conditions\":[{\"operation\":\"≥\",\"dataType\":\"number\",\"leftValueSelector\":\"{{#L.index#}}\",\"rightVarType\":\"selector\",\"rightValueSelector\":\"{{#L.limit#}}\"}],\"maxLoopCount\":10}")).DO(THEN(codeNode.tag("body").bind("param", "{\"id\":\"body\",\"nodeId\":\"_body\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 1}\"}"))).BREAK(loopBreakNode.tag("L").bind("param", "{\"id\":\"L\",\"nodeId\":\"_L\",\"streamFlag\":true,\"params\":[{\"name\":\"limit\",\"label\":\"limit\",\"varType\":\"constant\",\"required\":false,\"value\":\"3\"}],\"nodeType\":\"loop\",\"logicalOperator\":\"and\",\"conditions\":[{\"operation\":\"≥\",\"dataType\":\"number\",\"leftValueSelector\":\"{{#L.index#}}\",\"rightVarType\":\"selector\",\"rightValueSelector\":\"{{#L.limit#}}\"}],\"maxLoopCount\":10}")), endNode.tag("a").bind("param", "{\"id\":\"a\",\"nodeId\":\"_a\",\"streamFlag\":true,\"nodeType\":\"answer\",\"reply\":\"{{#L.index#}}\"}"))
@@ -0,0 +1 @@
+THEN(startNode.tag("s").bind("param", "{\"id\":\"s\",\"nodeId\":\"_s\",\"streamFlag\":true,\"params\":[{\"name\":\"n\",\"dataType\":\"number\",\"varType\":\"constant\",\"required\":true}],\"nodeType\":\"start\"}"), IF(conditionNode.tag("c1-pos").bind("param", "{\"id\":\"c1\",\"nodeId\":\"_c1\",\"streamFlag\":true,\"nodeType\":\"if-else\",\"logicalOperator\":\"and\",\"conditions\":[{\"operation\":\">\",\"dataType\":\"number\",\"leftValueSelector\":\"{{#s.n#}}\",\"rightVarType\":\"constant\",\"rightValueSelector\":\"0\"}],\"elseFlag\":false}"), THEN(IF(conditionNode.tag("c2-even").bind("param", "{\"id\":\"c2\",\"nodeId\":\"_c2\",\"streamFlag\":true,\"nodeType\":\"if-else\",\"logicalOperator\":\"and\",\"conditions\":[{\"operation\":\"=\",\"dataType\":\"number\",\"leftValueSelector\":\"{{#s.n#}}\",\"rightVarType\":\"constant\",\"rightValueSelector\":\"2\"}],\"elseFlag\":false}"), THEN(codeNode.tag("p").bind("param", "{\"id\":\"p\",\"nodeId\":\"_p\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 'two'}\"}"), WHEN(httpNode.tag("h1").bind("param", "{\"id\":\"h1\",\"nodeId\":\"_h1\",\"streamFlag\":true,\"nodeType\":\"http-request\",\"method\":\"get\",\"url\":\"http://127.0.0.1/a\"}"), httpNode.tag("h2").bind("param", "{\"id\":\"h2\",\"nodeId\":\"_h2\",\"streamFlag\":true,\"nodeType\":\"http-request\",\"method\":\"get\",\"url\":\"http://127.0.0.1/b\"}")), codeNode.tag("j").bind("param", "{\"id\":\"j\",\"nodeId\":\"_j\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 'joined'}\"}"))).ELSE(codeNode.tag("q").bind("param", "{\"id\":\"q\",\"nodeId\":\"_q\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 'other'}\"}")), jsonExtractNode.tag("m2").bind("param", "{\"id\":\"m2\",\"nodeId\":\"_m2\",\"streamFlag\":true,\"nodeType\":\"json-extract\",\"jsonValue\":\"{}\",\"varType\":\"constant\"}"))).ELSE(codeNode.tag("neg").bind("param", "{\"id\":\"neg\",\"nodeId\":\"_neg\",\"streamFlag\":true,\"nodeType\":\"code\",\"script\":\"return {r: 'neg'}\"}")), endNode.tag("a").bind("param", "{\"id\":\"a\",\"nodeId\":\"_a\",\"streamFlag\":true,\"nodeType\":\"answer\",\"reply\":\"done\"}"))
@@ -0,0 +1 @@
+THEN(startNode.tag("s").bind("param", "{\"id\":\"s\",\"nodeId\":\"_s\",\"streamFlag\":true,\"params\":[{\"name\":\"q\",\"dataType\":\"string\",\"varType\":\"constant\",\"required\":true}],\"nodeType\":\"start\"}"), httpNode.tag("h").bind("param", "{\"id\":\"h\",\"nodeId\":\"_h\",\"streamFlag\":true,\"nodeType\":\"http-request\",\"method\":\"get\",\"url\":\"http://127.0.0.1/{{#s.q#}}\"}"), codeNode.tag("c").bind("param", "{\"id\":\"c\",\"nodeId\":\"_c\",\"streamFlag\":true,\"params\":[{\"name\":\"b\",\"dataType\":\"string\",\"varType\":\"selector\",\"required\":false,\"value\":\"{{#h.body#}}\"}],\"nodeType\":\"code\",\"script\":\"return {r: 1}\"}"), endNode.tag("a").bind("param", "{\"id\":\"a\",\"nodeId\":\"_a\",\"streamFlag\":true,\"nodeType\":\"answer\",\"reply\":\"{{#c.r#}}\"}"))